@@ -0,0 +1,78 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The batch entry points of a fast method, see {@link FastMethod#invokeAll(Object[], Object[], Object...)}.
+ * The subclass looping over the target objects itself is generated per method on the first batch invocation,
+ * so the classes of the fast methods never batched stay small. The entry points not overridden, e.g. {@code invokeAllAsInt}
+ * of the method returning {@code String}, fall back to the entry points of the fast method
+ */
+public class BatchFastMethod {
+    protected BatchFastMethod(FastMethod method) {
+        this.method = method;
+    }
+
+    public FastMethod getMethod() {
+        return method;
+    }
+
+    public void invokeAll(Object[] receivers, int fromIndex, int toIndex, Object[] out, Object... args) throws Throwable {
+        for (int i = fromIndex; i < toIndex; i++) {
+            out[i] = method.invoke(receivers[i], args);
+        }
+    }
+
+    public void invokeAllAsInt(Object[] receivers, int fromIndex, int toIndex, int[] out, Object... args) throws Throwable {
+        for (int i = fromIndex; i < toIndex; i++) {
+            out[i] = method.invokeAsInt(receivers[i], args);
+        }
+    }
+
+    public void invokeAllAsLong(Object[] receivers, int fromIndex, int toIndex, long[] out, Object... args) throws Throwable {
+        for (int i = fromIndex; i < toIndex; i++) {
+            out[i] = method.invokeAsLong(receivers[i], args);
+        }
+    }
+
+    public void invokeAllAsDouble(Object[] receivers, int fromIndex, int toIndex, double[] out, Object... args) throws Throwable {
+        for (int i = fromIndex; i < toIndex; i++) {
+            out[i] = method.invokeAsDouble(receivers[i], args);
+        }
+    }
+
+    public void invokeAllAsBoolean(Object[] receivers, int fromIndex, int toIndex, boolean[] out, Object... args) throws Throwable {
+        for (int i = fromIndex; i < toIndex; i++) {
+            out[i] = method.invokeAsBoolean(receivers[i], args);
+        }
+    }
+
+    public void invokeAll(List<?> receivers, Consumer<?> action, Object... args) throws Throwable {
+        @SuppressWarnings("unchecked")
+        Consumer<Object> consumer = (Consumer<Object>) action;
+        for (int i = 0, n = receivers.size(); i < n; i++) {
+            consumer.accept(method.invoke(receivers.get(i), args));
+        }
+    }
+
+    private final FastMethod method;
+}
@@ -0,0 +1,78 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+/**
+ * The fast method with its target object and leading arguments bound, see {@link FastMethod#bindTo(Object, Object...)}.
+ * The bound values are held in final fields of the generated class, which the JIT trusts as constants if the class is
+ * hidden and the bound method itself is a constant, e.g. held in a static final field.
+ *
+ * <p>The arguments passed to {@code call} follow the bound ones. Like {@link FastMethod#invoke(Object, Object...)},
+ * an array passed as the sole argument is taken as the arguments, use {@code call(new Object[]{array})} instead
+ */
+public abstract class BoundFastMethod {
+    protected BoundFastMethod(FastMethod method) {
+        this.method = method;
+    }
+
+    public FastMethod getMethod() {
+        return method;
+    }
+
+    public abstract Object call(Object... args) throws Throwable;
+
+    /**
+     * The fixed-arity entry points, which save the allocation of the arguments array when the arity matches
+     * the count of the parameters not bound, see {@link FastMethod#invoke0(Object)}
+     */
+    public Object call() throws Throwable {
+        return call(FastExecutable.EMPTY_ARGS);
+    }
+
+    public Object call(Object arg0) throws Throwable {
+        return call(new Object[]{arg0});
+    }
+
+    public Object call(Object arg0, Object arg1) throws Throwable {
+        return call(new Object[]{arg0, arg1});
+    }
+
+    public Object call(Object arg0, Object arg1, Object arg2) throws Throwable {
+        return call(new Object[]{arg0, arg1, arg2});
+    }
+
+    public Object call(Object arg0, Object arg1, Object arg2, Object arg3) throws Throwable {
+        return call(new Object[]{arg0, arg1, arg2, arg3});
+    }
+
+    public Object call(Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) throws Throwable {
+        return call(new Object[]{arg0, arg1, arg2, arg3, arg4});
+    }
+
+    public Object call(Object arg0, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) throws Throwable {
+        return call(new Object[]{arg0, arg1, arg2, arg3, arg4, arg5});
+    }
+
+    @Override
+    public String toString() {
+        return "bound " + method;
+    }
+
+    private final FastMethod method;
+}
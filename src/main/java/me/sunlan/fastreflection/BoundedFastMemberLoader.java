@@ -0,0 +1,249 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import me.sunlan.fastreflection.generator.ClassData;
+import me.sunlan.fastreflection.generator.FastMemberGenerator;
+import me.sunlan.fastreflection.generator.MemberData;
+import me.sunlan.fastreflection.generator.MemberDataStore;
+import me.sunlan.fastreflection.generator.PregeneratedMemberDataStore;
+
+import java.lang.reflect.Member;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The loader with a budget of members or bytes of the generated classes, which is useful when reflecting over
+ * the types supplied by users, e.g. dynamic queries. The classes are defined by a few segment loaders, once the budget
+ * is exceeded, the least recently used segment loader is retired as a whole, so that its classes can be unloaded
+ * when the fast members loaded by it become unreachable. The evicted members are generated again on their next use.
+ * <p>
+ * The fast members referenced by the callers keep their segment loaders reachable, including the members cached by
+ * {@link FastClass} and the lazy members it returns, so the classes of a retired segment are unloaded only once
+ * the {@link FastClass} instances of this loader become unreachable too. Prefer {@link FastMethod#create(java.lang.reflect.Method, MemberLoadable, boolean)} and the like,
+ * which look up the members by this loader, if the metaspace has to be freed while the types are still in use.
+ */
+public class BoundedFastMemberLoader implements MemberLoadable {
+    public static final int SEGMENT_COUNT = 8;
+
+    /**
+     * @param maxMembers the maximum number of members loaded
+     */
+    public static BoundedFastMemberLoader withMaxMembers(ClassLoader parent, long maxMembers) {
+        return new BoundedFastMemberLoader(parent, maxMembers, false);
+    }
+
+    /**
+     * @param maxBytes the maximum bytes of the classes defined
+     */
+    public static BoundedFastMemberLoader withMaxBytes(ClassLoader parent, long maxBytes) {
+        return new BoundedFastMemberLoader(parent, maxBytes, true);
+    }
+
+    private BoundedFastMemberLoader(ClassLoader parent, long budget, boolean toWeighBytes) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("budget should be positive: " + budget);
+        }
+        this.parent = parent;
+        this.segmentBudget = Math.max(1, budget / SEGMENT_COUNT);
+        this.toWeighBytes = toWeighBytes;
+        this.stores = new MemberDataStore[] {new PregeneratedMemberDataStore(parent)};
+        this.activeSegment = newSegment();
+    }
+
+    @Override
+    public <T extends FastMember> T load(FastMemberGenerator generator, Member member, boolean toSetAccessible) {
+        final FastMemberLoader.MemberKey memberKey = new FastMemberLoader.MemberKey(generator, member, toSetAccessible);
+        Entry entry = entries.get(memberKey);
+        if (null == entry) {
+            entry = loadEntry(memberKey, generator, member, toSetAccessible);
+            rollOverIfNecessary(entry.segment);
+        } else {
+            listener.onCacheHit(member);
+        }
+
+        // the clock ticks at each roll-over, so the hot path just reads it, and writes only once per segment and tick
+        final long now = clock.get();
+        if (entry.segment.lastAccess != now) {
+            entry.segment.lastAccess = now;
+        }
+        // the generator generates the fast member of the type expected by the caller
+        @SuppressWarnings("unchecked")
+        final T fastMember = (T) entry.fastMember;
+        return fastMember;
+    }
+
+    private Entry loadEntry(FastMemberLoader.MemberKey memberKey, FastMemberGenerator generator, Member member, boolean toSetAccessible) {
+        for (;;) {
+            Entry entry = entries.computeIfAbsent(memberKey, k -> {
+                Segment segment = activeSegment;
+                FastMember fastMember = segment.load(generator, member, toSetAccessible);
+                segment.memberKeys.add(k);
+                return new Entry(segment, fastMember);
+            });
+            synchronized (segments) {
+                if (segments.contains(entry.segment)) {
+                    return entry;
+                }
+            }
+            // the segment was retired before the key was added to it, so no retirement would ever remove the entry
+            entries.remove(memberKey, entry);
+        }
+    }
+
+    @Override
+    public <T extends FastMember> T load(MemberData memberData) {
+        Segment segment = activeSegment;
+        T result = segment.load(memberData);
+        rollOverIfNecessary(segment);
+        return result;
+    }
+
+    @Override
+    public Class<?> define(ClassData classData) {
+        Segment segment = activeSegment;
+        Class<?> result = segment.define(classData);
+        rollOverIfNecessary(segment);
+        return result;
+    }
+
+    /**
+     * Set the listener of the events of loading members, which is shared by the segment loaders
+     */
+    public void setListener(FastMemberLoaderListener listener) {
+        synchronized (segments) {
+            this.listener = null == listener ? FastMemberLoaderListener.NOOP : listener;
+            for (Segment segment : segments) {
+                segment.setListener(this.listener);
+            }
+        }
+    }
+
+    int getSegmentCount() {
+        synchronized (segments) {
+            return segments.size();
+        }
+    }
+
+    int getMemberCount() {
+        return entries.size();
+    }
+
+    int getRetiredMemberCount() {
+        synchronized (segments) {
+            return (int) entries.values().stream().filter(e -> !segments.contains(e.segment)).count();
+        }
+    }
+
+    private void rollOverIfNecessary(Segment segment) {
+        if (segment.weigh() < segmentBudget) {
+            return;
+        }
+
+        synchronized (segments) {
+            if (segment != activeSegment) {
+                return;
+            }
+            activeSegment = newSegment();
+            if (segments.size() > SEGMENT_COUNT) {
+                retire(leastRecentlyUsedSegment());
+            }
+        }
+    }
+
+    private Segment leastRecentlyUsedSegment() {
+        Segment result = null;
+        for (Segment segment : segments) {
+            if (segment != activeSegment && (null == result || segment.lastAccess < result.lastAccess)) {
+                result = segment;
+            }
+        }
+        return result;
+    }
+
+    private void retire(Segment segment) {
+        segments.remove(segment);
+        listener.onRetired(segment.classCount.get(), segment.classBytes.get());
+        for (FastMemberLoader.MemberKey memberKey : segment.memberKeys) {
+            entries.computeIfPresent(memberKey, (k, e) -> e.segment == segment ? null : e);
+        }
+    }
+
+    private Segment newSegment() {
+        Segment segment = new Segment(this);
+        segment.setListener(listener);
+        segment.lastAccess = clock.incrementAndGet();
+        segments.add(segment);
+        return segment;
+    }
+
+    private final ClassLoader parent;
+    private final long segmentBudget;
+    private final boolean toWeighBytes;
+    private final MemberDataStore[] stores;
+    private final Map<FastMemberLoader.MemberKey, Entry> entries = new ConcurrentHashMap<>();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final AtomicLong clock = new AtomicLong();
+    private volatile Segment activeSegment;
+    private volatile FastMemberLoaderListener listener = FastMemberLoaderListener.NOOP;
+
+    private static final class Entry {
+        private final Segment segment;
+        private final FastMember fastMember;
+
+        Entry(Segment segment, FastMember fastMember) {
+            this.segment = segment;
+            this.fastMember = fastMember;
+        }
+    }
+
+    private static final class Segment extends FastMemberLoader {
+        static {
+            registerAsParallelCapable();
+        }
+
+        private final BoundedFastMemberLoader owner;
+        private final AtomicLong classCount = new AtomicLong();
+        private final AtomicLong classBytes = new AtomicLong();
+        private final Queue<FastMemberLoader.MemberKey> memberKeys = new ConcurrentLinkedQueue<>();
+        private volatile long lastAccess;
+
+        Segment(BoundedFastMemberLoader owner) {
+            super(owner.parent, owner, owner.stores);
+            this.owner = owner;
+        }
+
+        @Override
+        void onDefined(ClassData classData, long nanos) {
+            super.onDefined(classData, nanos);
+            // counted only when defined, the classes loaded already are not weighed again
+            classCount.incrementAndGet();
+            classBytes.addAndGet(classData.getBytes().length);
+        }
+
+        long weigh() {
+            return owner.toWeighBytes ? classBytes.get() : classCount.get();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import java.lang.reflect.Constructor;
+
+final class DispatchedFastConstructor<T> extends FastConstructor<T> {
+    private final FastDispatcher dispatcher;
+    private final int constructorId;
+
+    DispatchedFastConstructor(Constructor<T> constructor, MemberLoadable memberLoader, FastDispatcher dispatcher, int constructorId) {
+        super(constructor, memberLoader);
+        this.dispatcher = dispatcher;
+        this.constructorId = constructorId;
+    }
+
+    @Override
+    public Object invoke(Object... args) throws Throwable {
+        return dispatcher.newInstance(constructorId, args);
+    }
+
+    @Override
+    public Object invoke0() throws Throwable {
+        return dispatcher.newInstance0(constructorId);
+    }
+
+    @Override
+    public Object invoke1(Object arg0) throws Throwable {
+        return dispatcher.newInstance1(constructorId, arg0);
+    }
+
+    @Override
+    public Object invoke2(Object arg0, Object arg1) throws Throwable {
+        return dispatcher.newInstance2(constructorId, arg0, arg1);
+    }
+
+    @Override
+    public Object invoke3(Object arg0, Object arg1, Object arg2) throws Throwable {
+        return dispatcher.newInstance3(constructorId, arg0, arg1, arg2);
+    }
+
+    @Override
+    public Object invoke4(Object arg0, Object arg1, Object arg2, Object arg3) throws Throwable {
+        return dispatcher.newInstance4(constructorId, arg0, arg1, arg2, arg3);
+    }
+
+    @Override
+    public Object invoke5(Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) throws Throwable {
+        return dispatcher.newInstance5(constructorId, arg0, arg1, arg2, arg3, arg4);
+    }
+
+    @Override
+    public Object invoke6(Object arg0, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) throws Throwable {
+        return dispatcher.newInstance6(constructorId, arg0, arg1, arg2, arg3, arg4, arg5);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import java.lang.reflect.Field;
+
+final class DispatchedFastFieldGetter extends FastFieldGetter {
+    private final FastDispatcher dispatcher;
+    private final int fieldId;
+
+    DispatchedFastFieldGetter(Field field, MemberLoadable memberLoader, FastDispatcher dispatcher, int fieldId) {
+        super(field, memberLoader);
+        this.dispatcher = dispatcher;
+        this.fieldId = fieldId;
+    }
+
+    @Override
+    public Object get(Object obj) throws Throwable {
+        return dispatcher.get(fieldId, obj);
+    }
+
+    @Override
+    public Object invoke(Object obj, Object... args) throws Throwable {
+        return dispatcher.get(fieldId, obj);
+    }
+
+    @Override
+    public Object invoke0(Object obj) throws Throwable {
+        return dispatcher.get(fieldId, obj);
+    }
+
+    @Override
+    public boolean getBoolean(Object obj) throws Throwable {
+        return dispatcher.getBoolean(fieldId, obj);
+    }
+
+    @Override
+    public int getInt(Object obj) throws Throwable {
+        return dispatcher.getInt(fieldId, obj);
+    }
+
+    @Override
+    public long getLong(Object obj) throws Throwable {
+        return dispatcher.getLong(fieldId, obj);
+    }
+
+    @Override
+    public double getDouble(Object obj) throws Throwable {
+        return dispatcher.getDouble(fieldId, obj);
+    }
+
+    @Override
+    public int invokeAsInt(Object obj) throws Throwable {
+        return dispatcher.getInt(fieldId, obj);
+    }
+
+    @Override
+    public long invokeAsLong(Object obj) throws Throwable {
+        return dispatcher.getLong(fieldId, obj);
+    }
+
+    @Override
+    public double invokeAsDouble(Object obj) throws Throwable {
+        return dispatcher.getDouble(fieldId, obj);
+    }
+
+    @Override
+    public boolean invokeAsBoolean(Object obj) throws Throwable {
+        return dispatcher.getBoolean(fieldId, obj);
+    }
+}
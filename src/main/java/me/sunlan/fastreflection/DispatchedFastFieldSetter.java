@@ -0,0 +1,93 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import java.lang.reflect.Field;
+
+final class DispatchedFastFieldSetter extends FastFieldSetter {
+    private final FastDispatcher dispatcher;
+    private final int fieldId;
+
+    DispatchedFastFieldSetter(Field field, MemberLoadable memberLoader, FastDispatcher dispatcher, int fieldId) {
+        super(field, memberLoader);
+        this.dispatcher = dispatcher;
+        this.fieldId = fieldId;
+    }
+
+    @Override
+    public void set(Object obj, Object value) throws Throwable {
+        dispatcher.set(fieldId, obj, value);
+    }
+
+    @Override
+    public Object invoke(Object obj, Object... args) throws Throwable {
+        dispatcher.set(fieldId, obj, args[0]);
+        return null;
+    }
+
+    @Override
+    public Object invoke1(Object obj, Object arg0) throws Throwable {
+        dispatcher.set(fieldId, obj, arg0);
+        return null;
+    }
+
+    @Override
+    public void setBoolean(Object obj, boolean value) throws Throwable {
+        dispatcher.setBoolean(fieldId, obj, value);
+    }
+
+    @Override
+    public void setInt(Object obj, int value) throws Throwable {
+        dispatcher.setInt(fieldId, obj, value);
+    }
+
+    @Override
+    public void setLong(Object obj, long value) throws Throwable {
+        dispatcher.setLong(fieldId, obj, value);
+    }
+
+    @Override
+    public void setDouble(Object obj, double value) throws Throwable {
+        dispatcher.setDouble(fieldId, obj, value);
+    }
+
+    @Override
+    public Object invoke1(Object obj, int arg0) throws Throwable {
+        dispatcher.setInt(fieldId, obj, arg0);
+        return null;
+    }
+
+    @Override
+    public Object invoke1(Object obj, long arg0) throws Throwable {
+        dispatcher.setLong(fieldId, obj, arg0);
+        return null;
+    }
+
+    @Override
+    public Object invoke1(Object obj, double arg0) throws Throwable {
+        dispatcher.setDouble(fieldId, obj, arg0);
+        return null;
+    }
+
+    @Override
+    public Object invoke1(Object obj, boolean arg0) throws Throwable {
+        dispatcher.setBoolean(fieldId, obj, arg0);
+        return null;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.function.Consumer;
+
+final class DispatchedFastMethod extends FastMethod {
+    private final FastDispatcher dispatcher;
+    private final int methodId;
+
+    DispatchedFastMethod(Method method, MemberLoadable memberLoader, FastDispatcher dispatcher, int methodId) {
+        super(method, memberLoader);
+        this.dispatcher = dispatcher;
+        this.methodId = methodId;
+    }
+
+    @Override
+    public Object invoke(Object obj, Object... args) throws Throwable {
+        return dispatcher.invoke(methodId, obj, args);
+    }
+
+    @Override
+    public Object invoke0(Object obj) throws Throwable {
+        return dispatcher.invoke0(methodId, obj);
+    }
+
+    @Override
+    public Object invoke1(Object obj, Object arg0) throws Throwable {
+        return dispatcher.invoke1(methodId, obj, arg0);
+    }
+
+    @Override
+    public Object invoke2(Object obj, Object arg0, Object arg1) throws Throwable {
+        return dispatcher.invoke2(methodId, obj, arg0, arg1);
+    }
+
+    @Override
+    public Object invoke3(Object obj, Object arg0, Object arg1, Object arg2) throws Throwable {
+        return dispatcher.invoke3(methodId, obj, arg0, arg1, arg2);
+    }
+
+    @Override
+    public Object invoke4(Object obj, Object arg0, Object arg1, Object arg2, Object arg3) throws Throwable {
+        return dispatcher.invoke4(methodId, obj, arg0, arg1, arg2, arg3);
+    }
+
+    @Override
+    public Object invoke5(Object obj, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) throws Throwable {
+        return dispatcher.invoke5(methodId, obj, arg0, arg1, arg2, arg3, arg4);
+    }
+
+    @Override
+    public Object invoke6(Object obj, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) throws Throwable {
+        return dispatcher.invoke6(methodId, obj, arg0, arg1, arg2, arg3, arg4, arg5);
+    }
+
+    @Override
+    public int invokeAsInt(Object obj) throws Throwable {
+        return dispatcher.invokeAsInt(methodId, obj, EMPTY_ARGS);
+    }
+
+    @Override
+    public int invokeAsInt(Object obj, Object... args) throws Throwable {
+        return dispatcher.invokeAsInt(methodId, obj, args);
+    }
+
+    @Override
+    public long invokeAsLong(Object obj) throws Throwable {
+        return dispatcher.invokeAsLong(methodId, obj, EMPTY_ARGS);
+    }
+
+    @Override
+    public long invokeAsLong(Object obj, Object... args) throws Throwable {
+        return dispatcher.invokeAsLong(methodId, obj, args);
+    }
+
+    @Override
+    public double invokeAsDouble(Object obj) throws Throwable {
+        return dispatcher.invokeAsDouble(methodId, obj, EMPTY_ARGS);
+    }
+
+    @Override
+    public double invokeAsDouble(Object obj, Object... args) throws Throwable {
+        return dispatcher.invokeAsDouble(methodId, obj, args);
+    }
+
+    @Override
+    public boolean invokeAsBoolean(Object obj) throws Throwable {
+        return dispatcher.invokeAsBoolean(methodId, obj, EMPTY_ARGS);
+    }
+
+    @Override
+    public boolean invokeAsBoolean(Object obj, Object... args) throws Throwable {
+        return dispatcher.invokeAsBoolean(methodId, obj, args);
+    }
+
+    @Override
+    public Object invoke1(Object obj, int arg0) throws Throwable {
+        return dispatcher.invoke1(methodId, obj, arg0);
+    }
+
+    @Override
+    public Object invoke1(Object obj, long arg0) throws Throwable {
+        return dispatcher.invoke1(methodId, obj, arg0);
+    }
+
+    @Override
+    public Object invoke1(Object obj, double arg0) throws Throwable {
+        return dispatcher.invoke1(methodId, obj, arg0);
+    }
+
+    @Override
+    public Object invoke1(Object obj, boolean arg0) throws Throwable {
+        return dispatcher.invoke1(methodId, obj, arg0);
+    }
+
+    @Override
+    public void invokeAll(Object[] receivers, int fromIndex, int toIndex, Object[] out, Object... args) throws Throwable {
+        for (int i = fromIndex; i < toIndex; i++) {
+            out[i] = dispatcher.invoke(methodId, receivers[i], args);
+        }
+    }
+
+    @Override
+    public void invokeAllAsInt(Object[] receivers, int fromIndex, int toIndex, int[] out, Object... args) throws Throwable {
+        for (int i = fromIndex; i < toIndex; i++) {
+            out[i] = dispatcher.invokeAsInt(methodId, receivers[i], args);
+        }
+    }
+
+    @Override
+    public void invokeAllAsLong(Object[] receivers, int fromIndex, int toIndex, long[] out, Object... args) throws Throwable {
+        for (int i = fromIndex; i < toIndex; i++) {
+            out[i] = dispatcher.invokeAsLong(methodId, receivers[i], args);
+        }
+    }
+
+    @Override
+    public void invokeAllAsDouble(Object[] receivers, int fromIndex, int toIndex, double[] out, Object... args) throws Throwable {
+        for (int i = fromIndex; i < toIndex; i++) {
+            out[i] = dispatcher.invokeAsDouble(methodId, receivers[i], args);
+        }
+    }
+
+    @Override
+    public void invokeAllAsBoolean(Object[] receivers, int fromIndex, int toIndex, boolean[] out, Object... args) throws Throwable {
+        for (int i = fromIndex; i < toIndex; i++) {
+            out[i] = dispatcher.invokeAsBoolean(methodId, receivers[i], args);
+        }
+    }
+
+    @Override
+    public void invokeAll(List<?> receivers, Consumer<?> action, Object... args) throws Throwable {
+        @SuppressWarnings("unchecked")
+        Consumer<Object> consumer = (Consumer<Object>) action;
+        for (int i = 0, n = receivers.size(); i < n; i++) {
+            consumer.accept(dispatcher.invoke(methodId, receivers.get(i), args));
+        }
+    }
+}
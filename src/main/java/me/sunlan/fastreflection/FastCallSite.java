@@ -0,0 +1,246 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import me.sunlan.fastreflection.generator.ClassData;
+import me.sunlan.fastreflection.generator.FastCallSiteGenerator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The call site invoking the public method of the given name and arity on the receivers of any classes, e.g.
+ * {@code getId()} of unrelated classes. It keeps a polymorphic inline cache: the target of the {@link MutableCallSite}
+ * is a chain of guards testing the receiver class, which is extended when a new receiver class is seen. Once more than
+ * the maximum receiver classes are seen, the chain is replaced by the lookup of the {@link ClassValue}.
+ * The generated class invokes the call site through its dynamic invoker held in a final field, which the JIT compiler
+ * trusts as a constant if the class is hidden and the call site itself is a constant, e.g. held in a static final field.
+ * So the JIT compiler inlines the chain, and recompiles when the chain is relinked. The generated class is defined as
+ * a hidden class on JDK 16+, or by a throwaway class loader otherwise, so it is unloaded with the call site
+ */
+public abstract class FastCallSite {
+    protected FastCallSite(String name, int arity, MemberLoadable memberLoader, int maxPolymorphism, MutableCallSite callSite) {
+        this.name = name;
+        this.arity = arity;
+        this.memberLoader = memberLoader;
+        this.maxPolymorphism = maxPolymorphism;
+        this.callSite = callSite;
+        callSite.setTarget(RELINK.bindTo(this));
+    }
+
+    /**
+     * @param obj the receiver, which must not be {@code null}
+     * @param args the arguments, the count of which is the arity
+     * @throws NullPointerException if the receiver is {@code null}
+     * @throws IllegalArgumentException if no public method of the name and the arity is found in the receiver class
+     */
+    public abstract Object invoke(Object obj, Object... args) throws Throwable;
+
+    public static FastCallSite create(String name, int arity) {
+        return create(name, arity, FastMemberLoader.getDefaultLoader(), DEFAULT_MAX_POLYMORPHISM);
+    }
+
+    /**
+     * @param maxPolymorphism the maximum receiver classes to test by the guards before going megamorphic
+     */
+    public static FastCallSite create(String name, int arity, MemberLoadable memberLoader, int maxPolymorphism) {
+        final MutableCallSite callSite = new MutableCallSite(INVOKER_TYPE);
+        final ClassData classData = FastCallSiteGenerator.INSTANCE.generate(name, arity);
+        try {
+            Class<?> callSiteClass = HiddenFastMemberLoader.defineHiddenClass(classData);
+            if (null == callSiteClass) {
+                // define the class by a throwaway loader, so that it can be unloaded as the hidden class does
+                callSiteClass = new FastMemberLoader().define(classData);
+            }
+            return (FastCallSite) callSiteClass.getConstructor(String.class, int.class, MemberLoadable.class, int.class, MutableCallSite.class)
+                    .newInstance(name, arity, memberLoader, maxPolymorphism, callSite);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            throw new FastInstantiationException(e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    /**
+     * The fallback at the end of the chain of guards, which links the receiver class not seen yet, then invokes.
+     * The generated class has rejected the {@code null} receiver before the guards
+     */
+    private Object relink(Object obj, Object[] args) throws Throwable {
+        final Class<?> receiverClass = obj.getClass();
+        final MethodHandle target = targets.get(receiverClass);
+        synchronized (this) {
+            if (!isMegamorphic && linkedClasses.add(receiverClass)) {
+                if (linkedClasses.size() > maxPolymorphism) {
+                    isMegamorphic = true;
+                    callSite.setTarget(MEGAMORPHIC_INVOKE.bindTo(this));
+                } else {
+                    final MethodHandle guard = MethodHandles.dropArguments(IS_CLASS.bindTo(receiverClass), 1, Object[].class);
+                    callSite.setTarget(MethodHandles.guardWithTest(guard, target, callSite.getTarget()));
+                }
+            }
+        }
+        return target.invokeExact(obj, args);
+    }
+
+    private Object invokeMegamorphic(Object obj, Object[] args) throws Throwable {
+        return targets.get(obj.getClass()).invokeExact(obj, args);
+    }
+
+    /**
+     * Resolve the method invoked on the receivers of the class, the overloads of the same arity are resolved per call.
+     * The method is looked up in the nearest public class or interface declaring it, which invokes the overriding
+     * method of the receiver class virtually, e.g. {@code size()} of the private {@code Arrays$ArrayList}
+     * is looked up in {@code AbstractList}
+     */
+    private MethodHandle resolve(Class<?> receiverClass) {
+        final Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> c = receiverClass; null != c; c = c.getSuperclass()) {
+            final MethodHandle target = resolveInPublicType(c);
+            if (null != target) {
+                return target;
+            }
+            collectInterfaces(c, interfaces);
+        }
+        for (Class<?> c : interfaces) {
+            final MethodHandle target = resolveInPublicType(c);
+            if (null != target) {
+                return target;
+            }
+        }
+        throw new IllegalArgumentException("no public method found with the name: " + name + " and the arity: " + arity + " in " + receiverClass.getName());
+    }
+
+    private MethodHandle resolveInPublicType(Class<?> type) {
+        if (!Modifier.isPublic(type.getModifiers())) {
+            return null;
+        }
+        final FastOverloads overloads;
+        try {
+            overloads = FastClass.create(type, memberLoader).getOverloads(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        Method candidate = null;
+        int count = 0;
+        for (Method method : overloads.getReflectedMethods()) {
+            if (method.getParameterCount() == arity || method.isVarArgs() && method.getParameterCount() - 1 <= arity) {
+                candidate = method;
+                count++;
+            }
+        }
+        if (0 == count) {
+            return null;
+        }
+        if (1 == count && !candidate.isVarArgs()) {
+            final MethodHandle target = unreflect(candidate);
+            if (null != target) {
+                return target;
+            }
+        }
+        return OVERLOADS_INVOKE.bindTo(overloads);
+    }
+
+    /**
+     * Unreflect the sole method of the arity as the direct method handle, so that the chain of guards ends in the method
+     * itself. The arguments are spread from the array, and the narrower wrappers are widened for the primitive parameters
+     * as {@link FastMethod#invoke(Object, Object...)} does
+     *
+     * @return the method handle, or {@code null} if the method is not accessible by the public lookup, e.g. the one
+     * declared in a package not exported
+     */
+    private static MethodHandle unreflect(Method method) {
+        MethodHandle target;
+        try {
+            target = MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            target = MethodHandles.dropArguments(target, 0, Object.class);
+        }
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i].isPrimitive()) {
+                final MethodHandle widen = MethodHandles.insertArguments(WIDEN, 1, parameterTypes[i]);
+                target = MethodHandles.filterArguments(target, i + 1, widen.asType(MethodType.methodType(parameterTypes[i], Object.class)));
+            }
+        }
+        return target.asSpreader(Object[].class, parameterTypes.length).asType(INVOKER_TYPE);
+    }
+
+    private static void collectInterfaces(Class<?> type, Set<Class<?>> interfaces) {
+        for (Class<?> i : type.getInterfaces()) {
+            if (interfaces.add(i)) {
+                collectInterfaces(i, interfaces);
+            }
+        }
+    }
+
+    private static boolean isClass(Class<?> receiverClass, Object obj) {
+        return obj.getClass() == receiverClass;
+    }
+
+    private final String name;
+    private final int arity;
+    private final MemberLoadable memberLoader;
+    private final int maxPolymorphism;
+    private final MutableCallSite callSite;
+    private final Set<Class<?>> linkedClasses = new HashSet<>();
+    private boolean isMegamorphic;
+    private final ClassValue<MethodHandle> targets = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    private static final int DEFAULT_MAX_POLYMORPHISM = 8;
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+    private static final MethodHandle RELINK;
+    private static final MethodHandle MEGAMORPHIC_INVOKE;
+    private static final MethodHandle IS_CLASS;
+    private static final MethodHandle WIDEN;
+    private static final MethodHandle OVERLOADS_INVOKE;
+    static {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            RELINK = lookup.findVirtual(FastCallSite.class, "relink", INVOKER_TYPE);
+            MEGAMORPHIC_INVOKE = lookup.findVirtual(FastCallSite.class, "invokeMegamorphic", INVOKER_TYPE);
+            IS_CLASS = lookup.findStatic(FastCallSite.class, "isClass", MethodType.methodType(boolean.class, Class.class, Object.class));
+            WIDEN = lookup.findStatic(Primitives.class, "widen", MethodType.methodType(Object.class, Object.class, Class.class));
+            OVERLOADS_INVOKE = lookup.findVirtual(FastOverloads.class, "invoke", INVOKER_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -18,12 +18,45 @@
  */
 package me.sunlan.fastreflection;
 
+import me.sunlan.fastreflection.generator.ClassData;
+import me.sunlan.fastreflection.generator.FastConstructorGenerator;
+import me.sunlan.fastreflection.generator.FastCopierGenerator;
+import me.sunlan.fastreflection.generator.FastDispatcherGenerator;
+import me.sunlan.fastreflection.generator.FastEqualityGenerator;
+import me.sunlan.fastreflection.generator.FastFieldGetterGenerator;
+import me.sunlan.fastreflection.generator.FastFieldSetterGenerator;
+import me.sunlan.fastreflection.generator.FastMapConverterGenerator;
+import me.sunlan.fastreflection.generator.FastMemberGenerator;
+import me.sunlan.fastreflection.generator.FastMethodGenerator;
+import me.sunlan.fastreflection.generator.FastNameDispatcherGenerator;
+import me.sunlan.fastreflection.generator.FastStringifierGenerator;
+
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 public class FastClass<T> {
@@ -32,7 +65,16 @@ public class FastClass<T> {
     }
 
     public static <T> FastClass<T>  create(Class<T> clazz, MemberLoadable memberLoader) {
-        return new FastClass<>(clazz, memberLoader);
+        return create(clazz, memberLoader, false);
+    }
+
+    /**
+     * Create a {@link FastClass}, which generates one {@link FastDispatcher} class for all the members of
+     * the class instead of one class per member if {@code toUseDispatcher} is {@code true}.
+     * The instances are canonical per class, loader and mode, so they can be compared by identity
+     */
+    public static <T> FastClass<T> create(Class<T> clazz, MemberLoadable memberLoader, boolean toUseDispatcher) {
+        return (FastClass<T>) FAST_CLASSES.get(clazz).get(memberLoader, toUseDispatcher);
     }
 
     public String getName() {
@@ -58,13 +100,29 @@ public class FastClass<T> {
     }
 
     public FastMethod[] getMethods() {
-        Method[] methods = clazz.getMethods();
-        return doGetMethods(methods);
+        FastMethod[] result = methods;
+        if (null == result) {
+            synchronized (this) {
+                result = methods;
+                if (null == result) {
+                    methods = result = doGetMethods(clazz.getMethods());
+                }
+            }
+        }
+        return result.clone();
     }
 
     public FastMethod[] getDeclaredMethods() {
-        Method[] methods = clazz.getDeclaredMethods();
-        return doGetMethods(methods);
+        FastMethod[] result = declaredMethods;
+        if (null == result) {
+            synchronized (this) {
+                result = declaredMethods;
+                if (null == result) {
+                    declaredMethods = result = doGetMethods(clazz.getDeclaredMethods());
+                }
+            }
+        }
+        return result.clone();
     }
 
     public FastConstructor<T> getConstructor(Class<?>... parameterTypes) throws NoSuchMethodException {
@@ -78,13 +136,29 @@ public class FastClass<T> {
     }
 
     public FastConstructor<?>[] getConstructors() {
-        Constructor[] constructors = clazz.getConstructors();
-        return doGetConstructors(constructors);
+        FastConstructor<?>[] result = constructors;
+        if (null == result) {
+            synchronized (this) {
+                result = constructors;
+                if (null == result) {
+                    constructors = result = doGetConstructors((Constructor<T>[]) clazz.getConstructors());
+                }
+            }
+        }
+        return result.clone();
     }
 
     public FastConstructor<?>[] getDeclaredConstructors() {
-        Constructor[] constructors = clazz.getDeclaredConstructors();
-        return doGetConstructors(constructors);
+        FastConstructor<?>[] result = declaredConstructors;
+        if (null == result) {
+            synchronized (this) {
+                result = declaredConstructors;
+                if (null == result) {
+                    declaredConstructors = result = doGetConstructors((Constructor<T>[]) clazz.getDeclaredConstructors());
+                }
+            }
+        }
+        return result.clone();
     }
 
     public FastField getField(String name) throws NoSuchFieldException {
@@ -98,25 +172,462 @@ public class FastClass<T> {
     }
 
     public FastField[] getFields() {
-        Field[] fields = clazz.getFields();
-        return doGetFields(fields);
+        FastField[] result = fields;
+        if (null == result) {
+            synchronized (this) {
+                result = fields;
+                if (null == result) {
+                    fields = result = doGetFields(clazz.getFields());
+                }
+            }
+        }
+        return result.clone();
     }
 
     public FastField[] getDeclaredFields() {
-        Field[] fields = clazz.getDeclaredFields();
-        return doGetFields(fields);
+        FastField[] result = declaredFields;
+        if (null == result) {
+            synchronized (this) {
+                result = declaredFields;
+                if (null == result) {
+                    declaredFields = result = doGetFields(clazz.getDeclaredFields());
+                }
+            }
+        }
+        return result.clone();
+    }
+
+    /**
+     * Get the JavaBean properties sorted by name, which are resolved from the public getters and setters,
+     * e.g. {@code getName}, {@code isEnabled} and {@code setName}, and the public instance fields
+     */
+    public FastProperty[] getProperties() {
+        return getProperties(false);
+    }
+
+    /**
+     * @param toUseFluentNames whether to resolve the accessors named after the instance fields too, e.g. {@code name()}
+     *                         and {@code name(String)} of the records and the fluent builders
+     */
+    public FastProperty[] getProperties(boolean toUseFluentNames) {
+        FastProperty[] result = toUseFluentNames ? fluentProperties : properties;
+        if (null == result) {
+            synchronized (this) {
+                result = toUseFluentNames ? fluentProperties : properties;
+                if (null == result) {
+                    result = doGetProperties(toUseFluentNames);
+                    if (toUseFluentNames) {
+                        fluentProperties = result;
+                    } else {
+                        properties = result;
+                    }
+                }
+            }
+        }
+        return result.clone();
+    }
+
+    /**
+     * @return the property of the given name, or {@code null} if not found, see {@link #getProperties()}
+     */
+    public FastProperty getProperty(String name) {
+        for (FastProperty property : getProperties(false)) {
+            if (property.getName().equals(name)) return property;
+        }
+        return null;
+    }
+
+    /**
+     * Get the public methods of the given name, which picks the most specific one for the arguments at runtime,
+     * see {@link FastOverloads}
+     *
+     * @throws NoSuchMethodException if no public method is found by the name
+     */
+    public FastOverloads getOverloads(String name) throws NoSuchMethodException {
+        FastOverloads result = overloads.get(name);
+        if (null == result) {
+            final List<Method> methods = new ArrayList<>();
+            for (Method method : findPublicMethods(true)) {
+                if (method.getName().equals(name)) {
+                    methods.add(method);
+                }
+            }
+            if (methods.isEmpty()) {
+                throw new NoSuchMethodException(clazz.getName() + "." + name);
+            }
+            final FastMethod[] fastMethods = methods.stream()
+                    .map(method -> new LazyFastMethod(() -> createMethod(method)))
+                    .toArray(FastMethod[]::new);
+            result = new FastOverloads(name, methods.toArray(new Method[0]), fastMethods);
+            final FastOverloads existing = overloads.putIfAbsent(name, result);
+            if (null != existing) {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Invoke the public method by name, which is dispatched by the generated class without looking up the
+     * {@code Method}, see {@link FastNameDispatcher#invoke(Object, String, Object...)}
+     */
+    public Object invokeByName(Object obj, String name, Object... args) throws Throwable {
+        return nameDispatcher().invoke(obj, name, args);
+    }
+
+    /**
+     * Get the property by name, see {@link FastNameDispatcher#get(Object, String)}
+     */
+    public Object getByName(Object obj, String name) throws Throwable {
+        return nameDispatcher().get(obj, name);
+    }
+
+    /**
+     * Set the property by name, see {@link FastNameDispatcher#set(Object, String, Object)}
+     */
+    public void setByName(Object obj, String name, Object value) throws Throwable {
+        nameDispatcher().set(obj, name, value);
+    }
+
+    /**
+     * Get the name dispatcher of the public methods and the properties accessible without setting accessible
+     */
+    public FastNameDispatcher nameDispatcher() {
+        return nameDispatcher(false);
+    }
+
+    /**
+     * @param toSetAccessible whether to dispatch to the public members of the non-public classes too
+     */
+    public FastNameDispatcher nameDispatcher(boolean toSetAccessible) {
+        FastNameDispatcher result = toSetAccessible ? accessibleNameDispatcher : nameDispatcher;
+        if (null == result) {
+            synchronized (this) {
+                result = toSetAccessible ? accessibleNameDispatcher : nameDispatcher;
+                if (null == result) {
+                    result = createNameDispatcher(toSetAccessible);
+                    if (toSetAccessible) {
+                        accessibleNameDispatcher = result;
+                    } else {
+                        nameDispatcher = result;
+                    }
+                }
+            }
+        }
+        return result;
     }
 
     public Class<T> getRawClass() {
         return clazz;
     }
 
-    private synchronized FastMethod[] doGetMethods(Method[] methods) {
+    /**
+     * Get the copier of the instance fields accessible without setting accessible, i.e. the public ones of public classes
+     */
+    public FastCopier<T> copier() {
+        return copier(false);
+    }
+
+    /**
+     * Get the copier of the instance fields declared by the class and its superclasses, except the final ones
+     *
+     * @param toSetAccessible whether to copy the non-public fields too
+     */
+    public FastCopier<T> copier(boolean toSetAccessible) {
+        FastCopier<T> result = toSetAccessible ? accessibleCopier : copier;
+        if (null == result) {
+            synchronized (this) {
+                result = toSetAccessible ? accessibleCopier : copier;
+                if (null == result) {
+                    result = createCopier(toSetAccessible);
+                    if (toSetAccessible) {
+                        accessibleCopier = result;
+                    } else {
+                        copier = result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the declared no-arg constructor, which instantiates the objects created by {@link FastCopier#copy(Object)}
+     * and {@link FastMapConverter#fromMap(Map)}
+     */
+    FastConstructor<T> getNoArgConstructor(boolean toSetAccessible) throws NoSuchMethodException {
+        FastConstructor<T> result = toSetAccessible ? accessibleNoArgConstructor : noArgConstructor;
+        if (null == result) {
+            synchronized (this) {
+                result = toSetAccessible ? accessibleNoArgConstructor : noArgConstructor;
+                if (null == result) {
+                    result = FastConstructor.create(clazz.getDeclaredConstructor(), memberLoader, toSetAccessible);
+                    if (toSetAccessible) {
+                        accessibleNoArgConstructor = result;
+                    } else {
+                        noArgConstructor = result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the map converter of the instance fields accessible without setting accessible, i.e. the public ones of public classes
+     */
+    public FastMapConverter<T> mapConverter() {
+        return mapConverter(false);
+    }
+
+    /**
+     * Get the map converter of the instance fields declared by the class and its superclasses,
+     * the fields hidden by the ones of the same names in the subclasses are excluded
+     *
+     * @param toSetAccessible whether to convert the non-public fields too
+     */
+    public FastMapConverter<T> mapConverter(boolean toSetAccessible) {
+        FastMapConverter<T> result = toSetAccessible ? accessibleMapConverter : mapConverter;
+        if (null == result) {
+            synchronized (this) {
+                result = toSetAccessible ? accessibleMapConverter : mapConverter;
+                if (null == result) {
+                    result = createMapConverter(toSetAccessible);
+                    if (toSetAccessible) {
+                        accessibleMapConverter = result;
+                    } else {
+                        mapConverter = result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the equality comparing and hashing the instance fields of the given names, see {@link FastEquality}
+     *
+     * @param fieldNames the names of the fields in the order to compare, or none for all the fields accessible
+     *                   without setting accessible, in the order of {@link #mapConverter()}
+     * @throws IllegalArgumentException if no instance field is found by a name, or the field found is not accessible
+     *                                  without setting accessible
+     */
+    public FastEquality<T> equality(String... fieldNames) {
+        return equality(false, fieldNames);
+    }
+
+    public FastEquality<T> equality(boolean toSetAccessible, String... fieldNames) {
+        return getValueStrategy(FastEquality.class, toSetAccessible, fieldNames, fields ->
+                defineAndCreate(FastEquality.class, FastEqualityGenerator.INSTANCE.generate(clazz, fields, toSetAccessible)));
+    }
+
+    /**
+     * Get the stringifier formatting the instance fields of the given names, see {@link FastStringifier}
+     *
+     * @param fieldNames the names of the fields in the order to append, or none for all the fields accessible
+     *                   without setting accessible, in the order of {@link #mapConverter()}
+     * @throws IllegalArgumentException if no instance field is found by a name, or the field found is not accessible
+     *                                  without setting accessible
+     */
+    public FastStringifier<T> stringifier(String... fieldNames) {
+        return stringifier(false, fieldNames);
+    }
+
+    public FastStringifier<T> stringifier(boolean toSetAccessible, String... fieldNames) {
+        return getValueStrategy(FastStringifier.class, toSetAccessible, fieldNames, fields ->
+                defineAndCreate(FastStringifier.class, FastStringifierGenerator.INSTANCE.generate(clazz, fields, toSetAccessible)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S> S getValueStrategy(Class<?> strategyClass, boolean toSetAccessible, String[] fieldNames, Function<Field[], ?> creator) {
+        final List<Object> key = new ArrayList<>(fieldNames.length + 2);
+        key.add(strategyClass);
+        key.add(toSetAccessible);
+        key.addAll(Arrays.asList(fieldNames));
+        return (S) valueStrategies.computeIfAbsent(key, k -> creator.apply(findInstanceFields(toSetAccessible, fieldNames)));
+    }
+
+    MemberLoadable getMemberLoader() {
+        return memberLoader;
+    }
+
+    /**
+     * Generate the classes of all members in parallel on the common {@link ForkJoinPool}
+     *
+     * @return the future completed when all the classes have been loaded
+     */
+    public CompletableFuture<Void> preload() {
+        return preload(ForkJoinPool.commonPool());
+    }
+
+    public CompletableFuture<Void> preload(Executor executor) {
+        List<Runnable> loadings = new ArrayList<>();
+        collectLoadings(loadings);
+        return preload(loadings, executor);
+    }
+
+    /**
+     * Generate the classes of all members of the classes in parallel, e.g. for the classes known up front at startup
+     *
+     * @return the future completed when all the classes have been loaded
+     */
+    public static CompletableFuture<Void> preloadAll(Collection<? extends Class<?>> classes, Executor executor) {
+        return preloadAll(classes, FastMemberLoader.getDefaultLoader(), executor);
+    }
+
+    public static CompletableFuture<Void> preloadAll(Collection<? extends Class<?>> classes, MemberLoadable memberLoader, Executor executor) {
+        List<Runnable> loadings = new ArrayList<>();
+        for (Class<?> c : classes) {
+            create(c, memberLoader).collectLoadings(loadings);
+        }
+        return preload(loadings, executor);
+    }
+
+    private static CompletableFuture<Void> preload(List<Runnable> loadings, Executor executor) {
+        final int n = loadings.size();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(n / PRELOAD_BATCH_SIZE + 1);
+        for (int i = 0; i < n; i += PRELOAD_BATCH_SIZE) {
+            List<Runnable> batch = loadings.subList(i, Math.min(i + PRELOAD_BATCH_SIZE, n));
+            futures.add(CompletableFuture.runAsync(() -> batch.forEach(Runnable::run), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private void collectLoadings(List<Runnable> loadings) {
+        if (toUseDispatcher) {
+            loadings.add(this::getDispatcher);
+            return;
+        }
+
+        for (Method method : union(clazz.getMethods(), clazz.getDeclaredMethods())) {
+            loadings.add(() -> preload(FastMethodGenerator.INSTANCE, method));
+        }
+        for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+            loadings.add(() -> preload(FastConstructorGenerator.INSTANCE, constructor));
+        }
+        for (Field field : union(clazz.getFields(), clazz.getDeclaredFields())) {
+            loadings.add(() -> preload(FastFieldGetterGenerator.INSTANCE, field));
+            if (!Modifier.isFinal(field.getModifiers())) {
+                loadings.add(() -> preload(FastFieldSetterGenerator.INSTANCE, field));
+            }
+        }
+    }
+
+    private void preload(FastMemberGenerator generator, Member member) {
+        try {
+            memberLoader.load(generator, member, false);
+        } catch (FastInstantiationException e) {
+            // the member is invisible, which will be reported again when it is used
+        }
+    }
+
+    private FastMethod[] doGetMethods(Method[] methods) {
         return Arrays.stream(methods)
                 .map(method -> new LazyFastMethod(() -> createMethod(method)))
                 .toArray(FastMethod[]::new);
     }
 
+    private FastProperty[] doGetProperties(boolean toUseFluentNames) {
+        return resolveProperties(toUseFluentNames).stream()
+                .map(this::createProperty)
+                .toArray(FastProperty[]::new);
+    }
+
+    private List<PropertyMembers> resolveProperties(boolean toUseFluentNames) {
+        final Map<String, Class<?>> instanceFieldTypes = new HashMap<>();
+        if (toUseFluentNames) {
+            for (Field field : findInstanceFields(true)) {
+                instanceFieldTypes.put(field.getName(), field.getType());
+            }
+        }
+        final Map<String, Field> publicFields = new HashMap<>();
+        for (Field field : clazz.getFields()) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            publicFields.putIfAbsent(field.getName(), field);
+        }
+
+        final Map<String, Method> getters = new HashMap<>();
+        final Map<String, List<Method>> setters = new HashMap<>();
+        for (Method method : clazz.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || Object.class == method.getDeclaringClass()) continue;
+            final String methodName = method.getName();
+            final Class<?> returnType = method.getReturnType();
+            final int parameterCount = method.getParameterCount();
+            if (0 == parameterCount && void.class != returnType) {
+                String name = null;
+                if (methodName.length() > 3 && methodName.startsWith("get")) {
+                    name = decapitalize(methodName.substring(3));
+                } else if (methodName.length() > 2 && methodName.startsWith("is") && boolean.class == returnType) {
+                    name = decapitalize(methodName.substring(2));
+                } else if (returnType == instanceFieldTypes.get(methodName)) {
+                    name = methodName;
+                }
+                // `isXxx` is preferred to `getXxx` like `java.beans.Introspector` does
+                if (null != name && (!getters.containsKey(name) || methodName.startsWith("is"))) {
+                    getters.put(name, method);
+                }
+            } else if (1 == parameterCount) {
+                String name = null;
+                if (methodName.length() > 3 && methodName.startsWith("set")) {
+                    name = decapitalize(methodName.substring(3));
+                } else if (method.getParameterTypes()[0] == instanceFieldTypes.get(methodName)) {
+                    name = methodName;
+                }
+                if (null != name) {
+                    setters.computeIfAbsent(name, n -> new ArrayList<>()).add(method);
+                }
+            }
+        }
+
+        final Set<String> names = new TreeSet<>(getters.keySet());
+        names.addAll(setters.keySet());
+        names.addAll(publicFields.keySet());
+        final List<PropertyMembers> result = new ArrayList<>(names.size());
+        for (String name : names) {
+            final Method getter = getters.get(name);
+            Field field = publicFields.get(name);
+            Class<?> type = null != getter ? getter.getReturnType() : null != field ? field.getType() : null;
+            Method setter = null;
+            for (Method candidate : setters.getOrDefault(name, Collections.emptyList())) {
+                final Class<?> parameterType = candidate.getParameterTypes()[0];
+                // the overloaded setters are ambiguous without the type of the getter or the field
+                if (parameterType == type || null == type && 1 == setters.get(name).size()) {
+                    setter = candidate;
+                    type = parameterType;
+                    break;
+                }
+            }
+            if (null != field && field.getType() != type) {
+                field = null;
+            }
+            if (null == getter && null == setter && null == field) continue;
+
+            result.add(new PropertyMembers(name, type, getter, setter, field));
+        }
+        return result;
+    }
+
+    private FastProperty createProperty(PropertyMembers members) {
+        final Member reader = members.getReader();
+        final Member writer = members.getWriter();
+        final FastField fastField = null == members.field ? null : new LazyFastField(() -> createField(members.field));
+        return new FastProperty(this, members.name, members.type,
+                reader instanceof Method ? new LazyFastMethod(() -> createMethod((Method) reader)) : null,
+                reader instanceof Field ? fastField : null,
+                writer instanceof Method ? new LazyFastMethod(() -> createMethod((Method) writer)) : null,
+                writer instanceof Field ? fastField : null);
+    }
+
+    /**
+     * The same as {@code java.beans.Introspector.decapitalize}, e.g. {@code Name} to {@code name} and {@code URL} kept as is
+     */
+    private static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
     private FastConstructor<T>[] doGetConstructors(Constructor<T>[] constructors) {
         return Arrays.stream(constructors)
                 .map(constructor -> new LazyFastConstructor<>(() -> createConstructor(constructor)))
@@ -130,24 +641,255 @@ public class FastClass<T> {
     }
 
     private FastConstructor<T> createConstructor(Constructor<T> constructor) {
-        return (FastConstructor<T>) create(constructor, m -> FastConstructor.create((Constructor<?>) m, memberLoader, false));
+        if (!toUseDispatcher && isCachingLoader) {
+            // canonical already, the loader caches the members
+            return FastConstructor.create(constructor, memberLoader, false);
+        }
+        return (FastConstructor<T>) create(constructor, m -> doCreateConstructor((Constructor<T>) m));
+    }
+
+    private FastConstructor<T> doCreateConstructor(Constructor<T> constructor) {
+        FastDispatcher dispatcher = getDispatcher();
+        if (null != dispatcher) {
+            int constructorId = dispatcher.getConstructorId(constructor);
+            if (constructorId >= 0) {
+                checkFailure(dispatcher.getConstructorFailure(constructorId));
+                return new DispatchedFastConstructor<>(constructor, memberLoader, dispatcher, constructorId);
+            }
+        }
+        return FastConstructor.create(constructor, memberLoader, false);
     }
 
     private FastField createField(Field field) {
-        return (FastField) create(field, m -> FastField.create((Field) m, memberLoader, false));
+        return (FastField) create(field, m -> doCreateField((Field) m));
+    }
+
+    private FastField doCreateField(Field field) {
+        FastDispatcher dispatcher = getDispatcher();
+        if (null != dispatcher) {
+            int fieldId = dispatcher.getFieldId(field);
+            if (fieldId >= 0) {
+                checkFailure(dispatcher.getFieldGetterFailure(fieldId));
+                FastFieldSetter fastFieldSetter = null;
+                if (!Modifier.isFinal(field.getModifiers())) {
+                    checkFailure(dispatcher.getFieldSetterFailure(fieldId));
+                    fastFieldSetter = new DispatchedFastFieldSetter(field, memberLoader, dispatcher, fieldId);
+                }
+                return new FastField(field, memberLoader, new DispatchedFastFieldGetter(field, memberLoader, dispatcher, fieldId), fastFieldSetter);
+            }
+        }
+        return FastField.create(field, memberLoader, false);
     }
 
     private FastMethod createMethod(Method method) {
-        return (FastMethod) create(method, m -> FastMethod.create((Method) m, memberLoader, false));
+        if (!toUseDispatcher && isCachingLoader) {
+            // canonical already, the loader caches the members
+            return FastMethod.create(method, memberLoader, false);
+        }
+        return (FastMethod) create(method, m -> doCreateMethod((Method) m));
     }
 
+    private FastMethod doCreateMethod(Method method) {
+        FastDispatcher dispatcher = getDispatcher();
+        if (null != dispatcher) {
+            int methodId = dispatcher.getMethodId(method);
+            if (methodId >= 0) {
+                checkFailure(dispatcher.getMethodFailure(methodId));
+                return new DispatchedFastMethod(method, memberLoader, dispatcher, methodId);
+            }
+        }
+        return FastMethod.create(method, memberLoader, false);
+    }
+
+    private FastDispatcher getDispatcher() {
+        if (!toUseDispatcher) return null;
+        if (!dispatcherInitialized) {
+            synchronized (this) {
+                if (!dispatcherInitialized) {
+                    dispatcher = createDispatcher();
+                    dispatcherInitialized = true;
+                }
+            }
+        }
+        return dispatcher;
+    }
+
+    private FastDispatcher createDispatcher() {
+        Method[] methods = union(clazz.getMethods(), clazz.getDeclaredMethods()).toArray(new Method[0]);
+        Constructor<?>[] constructors = clazz.getDeclaredConstructors();
+        Field[] fields = union(clazz.getFields(), clazz.getDeclaredFields()).toArray(new Field[0]);
+        ClassData classData = FastDispatcherGenerator.INSTANCE.generate(clazz, methods, constructors, fields, false);
+        if (null == classData) {
+            // too many members to fit into one class, fall back to one class per member
+            return null;
+        }
+
+        Class<?> dispatcherClass = memberLoader.define(classData);
+        try {
+            return (FastDispatcher) dispatcherClass.getConstructor(Method[].class, Constructor[].class, Field[].class).newInstance(methods, constructors, fields);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            throw new FastInstantiationException(e);
+        }
+    }
+
+    private FastCopier<T> createCopier(boolean toSetAccessible) {
+        List<Field> copiedFields = new ArrayList<>();
+        for (Class<?> c = clazz; null != c && Object.class != c; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                final int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) continue;
+                if (!toSetAccessible && !FastFieldSetterGenerator.INSTANCE.isDirectlyAccessible(field)) continue;
+                copiedFields.add(field);
+            }
+        }
+
+        ClassData classData = FastCopierGenerator.INSTANCE.generate(clazz, copiedFields.toArray(new Field[0]), toSetAccessible);
+        @SuppressWarnings("unchecked")
+        FastCopier<T> result = defineAndCreate(FastCopier.class, classData, toSetAccessible);
+        return result;
+    }
+
+    private FastNameDispatcher createNameDispatcher(boolean toSetAccessible) {
+        final Collection<Method> methods = findPublicMethods(toSetAccessible);
+        final List<PropertyMembers> properties = resolveProperties(false);
+        final int n = properties.size();
+        final String[] propertyNames = new String[n];
+        final Member[] readers = new Member[n];
+        final Member[] writers = new Member[n];
+        for (int i = 0; i < n; i++) {
+            final PropertyMembers property = properties.get(i);
+            propertyNames[i] = property.name;
+            readers[i] = property.getReader();
+            writers[i] = property.getWriter();
+            if (!toSetAccessible) {
+                if (null != readers[i] && !(readers[i] instanceof Field ? FastFieldGetterGenerator.INSTANCE : FastMethodGenerator.INSTANCE).isDirectlyAccessible(readers[i])) {
+                    readers[i] = null;
+                }
+                if (null != writers[i] && !(writers[i] instanceof Field ? FastFieldSetterGenerator.INSTANCE : FastMethodGenerator.INSTANCE).isDirectlyAccessible(writers[i])) {
+                    writers[i] = null;
+                }
+            }
+        }
+
+        ClassData classData = FastNameDispatcherGenerator.INSTANCE.generate(clazz, methods.toArray(new Method[0]), propertyNames, readers, writers, toSetAccessible);
+        if (null == classData) {
+            throw new FastInstantiationException("too many members to dispatch by name in " + clazz.getName());
+        }
+        return defineAndCreate(FastNameDispatcher.class, classData);
+    }
+
+    /**
+     * Find the public methods with the distinct signatures
+     *
+     * @param toSetAccessible whether to include the ones not accessible by plain bytecode
+     */
+    private Collection<Method> findPublicMethods(boolean toSetAccessible) {
+        // the same methods may be inherited from several interfaces. The bridges go last, so that only the visibility
+        // bridges are kept, e.g. `StringBuilder.length()` for the one declared by the package-private `AbstractStringBuilder`
+        final Map<List<Object>, Method> result = new LinkedHashMap<>();
+        final Method[] publicMethods = clazz.getMethods();
+        Arrays.sort(publicMethods, Comparator.comparing(Method::isBridge));
+        for (Method method : publicMethods) {
+            if (!toSetAccessible && !FastMethodGenerator.INSTANCE.isDirectlyAccessible(method)) continue;
+            final List<Object> signature = new ArrayList<>(Arrays.asList(method.getParameterTypes()));
+            signature.add(method.getName());
+            result.putIfAbsent(signature, method);
+        }
+        return result.values();
+    }
+
+    private FastMapConverter<T> createMapConverter(boolean toSetAccessible) {
+        ClassData classData = FastMapConverterGenerator.INSTANCE.generate(clazz, findInstanceFields(toSetAccessible), toSetAccessible);
+        @SuppressWarnings("unchecked")
+        FastMapConverter<T> result = defineAndCreate(FastMapConverter.class, classData, toSetAccessible);
+        return result;
+    }
+
+    private <S> S defineAndCreate(Class<S> generatedType, ClassData classData) {
+        return defineAndCreate(generatedType, classData, new Class<?>[]{FastClass.class}, this);
+    }
+
+    /**
+     * Create the instance of the generated class whose constructor also takes {@code toSetAccessible}, e.g. {@link FastCopier}
+     */
+    private <S> S defineAndCreate(Class<S> generatedType, ClassData classData, boolean toSetAccessible) {
+        return defineAndCreate(generatedType, classData, new Class<?>[]{FastClass.class, boolean.class}, this, toSetAccessible);
+    }
+
+    private <S> S defineAndCreate(Class<S> generatedType, ClassData classData, Class<?>[] parameterTypes, Object... args) {
+        Class<?> generatedClass = memberLoader.define(classData);
+        try {
+            return generatedType.cast(generatedClass.getConstructor(parameterTypes).newInstance(args));
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            throw new FastInstantiationException(e);
+        } catch (ExceptionInInitializerError e) {
+            throw (FastInstantiationException) e.getCause();
+        }
+    }
+
+    /**
+     * Find the instance fields declared by the class and its superclasses, the fields hidden by the ones of the same
+     * names in the subclasses are excluded
+     */
+    private Field[] findInstanceFields(boolean toSetAccessible) {
+        Map<String, Field> result = new LinkedHashMap<>();
+        for (Class<?> c = clazz; null != c && Object.class != c; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) continue;
+                if (!toSetAccessible && !FastFieldGetterGenerator.INSTANCE.isDirectlyAccessible(field)) continue;
+                result.putIfAbsent(field.getName(), field);
+            }
+        }
+        return result.values().toArray(new Field[0]);
+    }
+
+    private Field[] findInstanceFields(boolean toSetAccessible, String[] fieldNames) {
+        if (0 == fieldNames.length) return findInstanceFields(toSetAccessible);
+        Map<String, Field> instanceFields = new LinkedHashMap<>();
+        for (Field field : findInstanceFields(toSetAccessible)) {
+            instanceFields.put(field.getName(), field);
+        }
+        Field[] result = new Field[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            result[i] = instanceFields.get(fieldNames[i]);
+            if (null == result[i]) {
+                throw new IllegalArgumentException("No instance field " + fieldNames[i] + " in " + clazz.getName()
+                        + (toSetAccessible ? "" : " accessible without setting accessible"));
+            }
+        }
+        return result;
+    }
+
+    private static <M extends Member> Set<M> union(M[] members, M[] declaredMembers) {
+        Set<M> result = new LinkedHashSet<>(Arrays.asList(members));
+        result.addAll(Arrays.asList(declaredMembers));
+        return result;
+    }
+
+    private static void checkFailure(Throwable failure) {
+        if (null != failure) {
+            throw new FastInstantiationException(failure);
+        }
+    }
+
+    /**
+     * Create the fast member once per member, so that the members created by the {@link FastClass} itself,
+     * i.e. the dispatched members and the fields wrapping their getters and setters, are canonical too
+     */
     private FastMember create(Member m, Function<? super Member, ? extends FastMember> factory) {
-        return factory.apply(m);
+        FastMember result = fastMembers.get(m);
+        if (null == result) {
+            result = fastMembers.computeIfAbsent(m, factory);
+        }
+        return result;
     }
 
-    private FastClass(Class<T> clazz, MemberLoadable memberLoader) {
+    private FastClass(Class<T> clazz, MemberLoadable memberLoader, boolean toUseDispatcher) {
         this.clazz = clazz;
         this.memberLoader = memberLoader;
+        this.toUseDispatcher = toUseDispatcher;
+        // the other loaders may generate the member again on each `load`, e.g. the ones relying on the default `MemberLoadable.load`
+        this.isCachingLoader = memberLoader instanceof FastMemberLoader || memberLoader instanceof HiddenFastMemberLoader || memberLoader instanceof BoundedFastMemberLoader;
     }
 
     @Override
@@ -155,12 +897,12 @@ public class FastClass<T> {
         if (this == o) return true;
         if (!(o instanceof FastClass)) return false;
         FastClass<?> fastClass = (FastClass<?>) o;
-        return memberLoader == fastClass.memberLoader && clazz.equals(fastClass.clazz);
+        return memberLoader == fastClass.memberLoader && toUseDispatcher == fastClass.toUseDispatcher && clazz.equals(fastClass.clazz);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(clazz, memberLoader);
+        return Objects.hash(clazz, memberLoader, toUseDispatcher);
     }
 
     @Override
@@ -168,6 +910,101 @@ public class FastClass<T> {
         return clazz.toString();
     }
 
+    private static final int PRELOAD_BATCH_SIZE = 16;
+    private static final ClassValue<FastClasses> FAST_CLASSES = new ClassValue<FastClasses>() {
+        @Override
+        protected FastClasses computeValue(Class<?> type) {
+            return new FastClasses(type);
+        }
+    };
     private final Class<T> clazz;
     private final MemberLoadable memberLoader;
+    private final boolean toUseDispatcher;
+    private final boolean isCachingLoader;
+    private final Map<Member, FastMember> fastMembers = new ConcurrentHashMap<>();
+    private volatile FastMethod[] methods;
+    private volatile FastMethod[] declaredMethods;
+    private volatile FastConstructor<?>[] constructors;
+    private volatile FastConstructor<?>[] declaredConstructors;
+    private volatile FastField[] fields;
+    private volatile FastField[] declaredFields;
+    private volatile FastProperty[] properties;
+    private volatile FastProperty[] fluentProperties;
+    private volatile FastCopier<T> copier;
+    private volatile FastCopier<T> accessibleCopier;
+    private volatile FastConstructor<T> noArgConstructor;
+    private volatile FastConstructor<T> accessibleNoArgConstructor;
+    private volatile FastMapConverter<T> mapConverter;
+    private volatile FastMapConverter<T> accessibleMapConverter;
+    private volatile FastNameDispatcher nameDispatcher;
+    private volatile FastNameDispatcher accessibleNameDispatcher;
+    private final Map<List<Object>, Object> valueStrategies = new ConcurrentHashMap<>();
+    private final Map<String, FastOverloads> overloads = new ConcurrentHashMap<>();
+    private FastDispatcher dispatcher;
+    private volatile boolean dispatcherInitialized;
+
+    /**
+     * The members of a property, the field is the fallback if there is no getter or setter
+     */
+    private static final class PropertyMembers {
+        private final String name;
+        private final Class<?> type;
+        private final Method getter;
+        private final Method setter;
+        private final Field field;
+
+        PropertyMembers(String name, Class<?> type, Method getter, Method setter, Field field) {
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+            this.field = field;
+        }
+
+        Member getReader() {
+            return null != getter ? getter : field;
+        }
+
+        Member getWriter() {
+            if (null != setter) return setter;
+            return null != field && !Modifier.isFinal(field.getModifiers()) ? field : null;
+        }
+    }
+
+    /**
+     * The canonical {@link FastClass} instances of a class, the one of the default loader is looked up without locking.
+     * The others are referenced weakly, so that neither the loaders nor the instances are retained by the class
+     */
+    private static final class FastClasses {
+        private final Class<?> clazz;
+        private final FastClass<?> defaultFastClass;
+        private final Map<MemberLoadable, Reference<FastClass<?>>[]> fastClasses = new WeakHashMap<>();
+
+        FastClasses(Class<?> clazz) {
+            this.clazz = clazz;
+            this.defaultFastClass = new FastClass<>(clazz, FastMemberLoader.getDefaultLoader(), false);
+        }
+
+        FastClass<?> get(MemberLoadable memberLoader, boolean toUseDispatcher) {
+            if (!toUseDispatcher && memberLoader == defaultFastClass.memberLoader) {
+                return defaultFastClass;
+            }
+
+            final int index = toUseDispatcher ? 1 : 0;
+            synchronized (fastClasses) {
+                Reference<FastClass<?>>[] references = fastClasses.computeIfAbsent(memberLoader, k -> newReferences());
+                FastClass<?> result = null == references[index] ? null : references[index].get();
+                if (null == result) {
+                    result = new FastClass<>(clazz, memberLoader, toUseDispatcher);
+                    references[index] = new WeakReference<>(result);
+                }
+                return result;
+            }
+        }
+
+        @SuppressWarnings("unchecked") // the generic array can not be created directly
+        private static Reference<FastClass<?>>[] newReferences() {
+            return (Reference<FastClass<?>>[]) new Reference<?>[2];
+        }
+    }
 }
@@ -40,6 +40,51 @@ public abstract class FastConstructor<T> extends FastExecutable {
 
     public abstract Object invoke(Object... args) throws Throwable;
 
+    /**
+     * The fixed-arity entry points, which save the allocation of the arguments array when the arity matches
+     * the parameter count, see {@link FastMethod#invoke0(Object)}
+     */
+    public Object invoke0() throws Throwable {
+        return invoke(EMPTY_ARGS);
+    }
+
+    public Object invoke1(Object arg0) throws Throwable {
+        return invoke(arg0);
+    }
+
+    public Object invoke2(Object arg0, Object arg1) throws Throwable {
+        return invoke(arg0, arg1);
+    }
+
+    public Object invoke3(Object arg0, Object arg1, Object arg2) throws Throwable {
+        return invoke(arg0, arg1, arg2);
+    }
+
+    public Object invoke4(Object arg0, Object arg1, Object arg2, Object arg3) throws Throwable {
+        return invoke(arg0, arg1, arg2, arg3);
+    }
+
+    public Object invoke5(Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) throws Throwable {
+        return invoke(arg0, arg1, arg2, arg3, arg4);
+    }
+
+    public Object invoke6(Object arg0, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) throws Throwable {
+        return invoke(arg0, arg1, arg2, arg3, arg4, arg5);
+    }
+
+    /**
+     * Bind the constructor to the functional interface, e.g. {@code Function<String, StringBuilder>}, see {@link FastMethod#as(Class)}
+     *
+     * @throws IllegalArgumentException if the interface is not functional or does not match the constructor
+     */
+    public <F> F as(Class<F> functionalInterface) {
+        return as(functionalInterface, false);
+    }
+
+    public <F> F as(Class<F> functionalInterface, boolean toSetAccessible) {
+        return as(FastConstructorGenerator.INSTANCE, functionalInterface, toSetAccessible);
+    }
+
     public static <T> FastConstructor<T> create(Constructor<T> constructor) {
         return create(constructor, false);
     }
@@ -49,7 +94,7 @@ public abstract class FastConstructor<T> extends FastExecutable {
     }
 
     public static <T> FastConstructor<T> create(Constructor<T> constructor, MemberLoadable memberLoader, boolean toSetAccessible) {
-        return memberLoader.load(FastConstructorGenerator.INSTANCE.generate(constructor, toSetAccessible));
+        return memberLoader.load(FastConstructorGenerator.INSTANCE, constructor, toSetAccessible);
     }
 
     @Override
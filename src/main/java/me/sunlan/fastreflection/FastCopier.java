@@ -0,0 +1,61 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+/**
+ * Copies the instance fields field by field, see {@link FastClass#copier()}. The generated class copies the fields
+ * in straight-line code without boxing, including the fields declared by the superclasses.
+ * Final fields are not copied, they are left as initialized by the constructor
+ *
+ * @param <T> the type of the objects copied
+ */
+public abstract class FastCopier<T> {
+    protected FastCopier(FastClass<T> declaringClass, boolean toSetAccessible) {
+        this.declaringClass = declaringClass;
+        this.toSetAccessible = toSetAccessible;
+    }
+
+    public FastClass<T> getDeclaringClass() {
+        return declaringClass;
+    }
+
+    /**
+     * Copy all the fields of {@code src} to {@code dst}, i.e. shallow clone
+     */
+    public abstract void copy(T src, T dst) throws Throwable;
+
+    /**
+     * Copy the fields of {@code src} to {@code dst} if their values are not {@code null}, i.e. patch or merge.
+     * The fields of primitive types are always copied
+     */
+    public abstract void copyNonNull(T src, T dst) throws Throwable;
+
+    /**
+     * Copy all the fields of {@code src} to the new instance created by the no-arg constructor
+     */
+    public T copy(T src) throws Throwable {
+        @SuppressWarnings("unchecked")
+        T dst = (T) declaringClass.getNoArgConstructor(toSetAccessible).invoke0();
+        copy(src, dst);
+        return dst;
+    }
+
+    private final FastClass<T> declaringClass;
+    private final boolean toSetAccessible;
+}
@@ -0,0 +1,227 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One generated class per target class, which dispatches to all its members by index via {@code tableswitch},
+ * so that a class with hundreds of members does not cost hundreds of generated classes.
+ * The member ids are the indexes of the members passed to the constructor.
+ */
+public abstract class FastDispatcher {
+    protected FastDispatcher(Method[] methods, Constructor<?>[] constructors, Field[] fields) {
+        this.methodIds = indexOf(methods);
+        this.constructorIds = indexOf(constructors);
+        this.fieldIds = indexOf(fields);
+    }
+
+    public abstract Object invoke(int methodId, Object obj, Object... args) throws Throwable;
+
+    public abstract Object newInstance(int constructorId, Object... args) throws Throwable;
+
+    public abstract Object get(int fieldId, Object obj) throws Throwable;
+
+    public abstract void set(int fieldId, Object obj, Object value) throws Throwable;
+
+    /**
+     * The typed entry points of the dispatched members, e.g. {@link FastMethod#invoke2(Object, Object, Object)} and
+     * {@link FastFieldGetter#getInt(Object)}, which are overridden by the generated class for the members of the matching
+     * arity and types, so the dispatched members neither box nor allocate the arguments array.
+     * Otherwise they fall back to the boxed entry points
+     */
+    public Object invoke0(int methodId, Object obj) throws Throwable {
+        return invoke(methodId, obj, FastExecutable.EMPTY_ARGS);
+    }
+
+    public Object invoke1(int methodId, Object obj, Object arg0) throws Throwable {
+        return invoke(methodId, obj, arg0);
+    }
+
+    public Object invoke2(int methodId, Object obj, Object arg0, Object arg1) throws Throwable {
+        return invoke(methodId, obj, arg0, arg1);
+    }
+
+    public Object invoke3(int methodId, Object obj, Object arg0, Object arg1, Object arg2) throws Throwable {
+        return invoke(methodId, obj, arg0, arg1, arg2);
+    }
+
+    public Object invoke4(int methodId, Object obj, Object arg0, Object arg1, Object arg2, Object arg3) throws Throwable {
+        return invoke(methodId, obj, arg0, arg1, arg2, arg3);
+    }
+
+    public Object invoke5(int methodId, Object obj, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) throws Throwable {
+        return invoke(methodId, obj, arg0, arg1, arg2, arg3, arg4);
+    }
+
+    public Object invoke6(int methodId, Object obj, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) throws Throwable {
+        return invoke(methodId, obj, arg0, arg1, arg2, arg3, arg4, arg5);
+    }
+
+    public int invokeAsInt(int methodId, Object obj, Object... args) throws Throwable {
+        return Primitives.toInt(invoke(methodId, obj, args));
+    }
+
+    public long invokeAsLong(int methodId, Object obj, Object... args) throws Throwable {
+        return Primitives.toLong(invoke(methodId, obj, args));
+    }
+
+    public double invokeAsDouble(int methodId, Object obj, Object... args) throws Throwable {
+        return Primitives.toDouble(invoke(methodId, obj, args));
+    }
+
+    public boolean invokeAsBoolean(int methodId, Object obj, Object... args) throws Throwable {
+        return Primitives.toBoolean(invoke(methodId, obj, args));
+    }
+
+    public Object invoke1(int methodId, Object obj, int arg0) throws Throwable {
+        return invoke1(methodId, obj, (Object) arg0);
+    }
+
+    public Object invoke1(int methodId, Object obj, long arg0) throws Throwable {
+        return invoke1(methodId, obj, (Object) arg0);
+    }
+
+    public Object invoke1(int methodId, Object obj, double arg0) throws Throwable {
+        return invoke1(methodId, obj, (Object) arg0);
+    }
+
+    public Object invoke1(int methodId, Object obj, boolean arg0) throws Throwable {
+        return invoke1(methodId, obj, (Object) arg0);
+    }
+
+    public Object newInstance0(int constructorId) throws Throwable {
+        return newInstance(constructorId, FastExecutable.EMPTY_ARGS);
+    }
+
+    public Object newInstance1(int constructorId, Object arg0) throws Throwable {
+        return newInstance(constructorId, arg0);
+    }
+
+    public Object newInstance2(int constructorId, Object arg0, Object arg1) throws Throwable {
+        return newInstance(constructorId, arg0, arg1);
+    }
+
+    public Object newInstance3(int constructorId, Object arg0, Object arg1, Object arg2) throws Throwable {
+        return newInstance(constructorId, arg0, arg1, arg2);
+    }
+
+    public Object newInstance4(int constructorId, Object arg0, Object arg1, Object arg2, Object arg3) throws Throwable {
+        return newInstance(constructorId, arg0, arg1, arg2, arg3);
+    }
+
+    public Object newInstance5(int constructorId, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) throws Throwable {
+        return newInstance(constructorId, arg0, arg1, arg2, arg3, arg4);
+    }
+
+    public Object newInstance6(int constructorId, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) throws Throwable {
+        return newInstance(constructorId, arg0, arg1, arg2, arg3, arg4, arg5);
+    }
+
+    public int getInt(int fieldId, Object obj) throws Throwable {
+        return Primitives.toInt(get(fieldId, obj));
+    }
+
+    public long getLong(int fieldId, Object obj) throws Throwable {
+        return Primitives.toLong(get(fieldId, obj));
+    }
+
+    public double getDouble(int fieldId, Object obj) throws Throwable {
+        return Primitives.toDouble(get(fieldId, obj));
+    }
+
+    public boolean getBoolean(int fieldId, Object obj) throws Throwable {
+        return Primitives.toBoolean(get(fieldId, obj));
+    }
+
+    public void setInt(int fieldId, Object obj, int value) throws Throwable {
+        set(fieldId, obj, value);
+    }
+
+    public void setLong(int fieldId, Object obj, long value) throws Throwable {
+        set(fieldId, obj, value);
+    }
+
+    public void setDouble(int fieldId, Object obj, double value) throws Throwable {
+        set(fieldId, obj, value);
+    }
+
+    public void setBoolean(int fieldId, Object obj, boolean value) throws Throwable {
+        set(fieldId, obj, value);
+    }
+
+    public int getMethodId(Method method) {
+        return idOf(methodIds, method);
+    }
+
+    public int getConstructorId(Constructor<?> constructor) {
+        return idOf(constructorIds, constructor);
+    }
+
+    public int getFieldId(Field field) {
+        return idOf(fieldIds, field);
+    }
+
+    /**
+     * The failures are recorded in the order: methods, constructors, field getters, field setters
+     */
+    protected abstract Throwable getFailure(int index);
+
+    protected static IllegalArgumentException noSuchMember(int id) {
+        return new IllegalArgumentException("no member found with the id: " + id);
+    }
+
+    Throwable getMethodFailure(int methodId) {
+        return getFailure(methodId);
+    }
+
+    Throwable getConstructorFailure(int constructorId) {
+        return getFailure(methodIds.size() + constructorId);
+    }
+
+    Throwable getFieldGetterFailure(int fieldId) {
+        return getFailure(methodIds.size() + constructorIds.size() + fieldId);
+    }
+
+    Throwable getFieldSetterFailure(int fieldId) {
+        return getFailure(methodIds.size() + constructorIds.size() + fieldIds.size() + fieldId);
+    }
+
+    private static Map<Member, Integer> indexOf(Member[] members) {
+        Map<Member, Integer> result = new HashMap<>(members.length * 4 / 3 + 1);
+        for (int i = 0; i < members.length; i++) {
+            result.put(members[i], i);
+        }
+        return result;
+    }
+
+    private static int idOf(Map<Member, Integer> ids, Member member) {
+        Integer id = ids.get(member);
+        return null == id ? -1 : id;
+    }
+
+    private final Map<Member, Integer> methodIds;
+    private final Map<Member, Integer> constructorIds;
+    private final Map<Member, Integer> fieldIds;
+}
@@ -0,0 +1,49 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+/**
+ * Compares and hashes the objects by the values of the fields, see {@link FastClass#equality(String...)}.
+ * The generated class compares the primitive fields directly and mixes their hash codes without boxing
+ *
+ * @param <T> the type of the objects compared
+ */
+public abstract class FastEquality<T> {
+    protected FastEquality(FastClass<T> declaringClass) {
+        this.declaringClass = declaringClass;
+    }
+
+    public FastClass<T> getDeclaringClass() {
+        return declaringClass;
+    }
+
+    /**
+     * Check whether the fields of {@code a} and {@code b} are equal, the floating-point fields are compared like
+     * {@link Double#equals(Object)} and the other reference fields by {@link java.util.Objects#equals(Object, Object)}
+     */
+    public abstract boolean equals(T a, T b) throws Throwable;
+
+    /**
+     * Compute the hash code of the fields of {@code obj}, which is the same as {@link java.util.Objects#hash(Object...)}
+     * of the field values, or {@code 0} if {@code obj} is {@code null}
+     */
+    public abstract int hashCode(T obj) throws Throwable;
+
+    private final FastClass<T> declaringClass;
+}
@@ -18,10 +18,20 @@
  */
 package me.sunlan.fastreflection;
 
+import me.sunlan.fastreflection.generator.ClassData;
+import me.sunlan.fastreflection.generator.FastMemberGenerator;
+
 import java.lang.reflect.Executable;
-import java.util.Arrays;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class FastExecutable implements FastMember {
+    /**
+     * The maximum arity of the fixed-arity entry points, e.g. {@link FastMethod#invoke6}
+     */
+    public static final int MAX_FIXED_ARITY = 6;
+    protected static final Object[] EMPTY_ARGS = new Object[0];
     private final Executable executable;
     private final MemberLoadable memberLoader;
     protected final FastClass<?> declaringClass;
@@ -38,8 +48,82 @@ public abstract class FastExecutable implements FastMember {
     }
 
     public FastClass<?>[] getParameterTypes() {
-        return Arrays.stream(executable.getParameterTypes())
-                .map(pt -> FastClass.create(pt, memberLoader))
-                .toArray(FastClass[]::new);
+        return getParameterTypeTable().clone();
+    }
+
+    public int getParameterCount() {
+        return executable.getParameterCount();
+    }
+
+    /**
+     * Get the parameter type without copying the parameter types, e.g. in the loops over the parameters
+     */
+    public FastClass<?> getParameterType(int index) {
+        return getParameterTypeTable()[index];
+    }
+
+    private FastClass<?>[] getParameterTypeTable() {
+        // the canonical instances are created again if racing, so no locking is needed
+        FastClass<?>[] result = parameterTypes;
+        if (null == result) {
+            Class<?>[] types = executable.getParameterTypes();
+            result = new FastClass<?>[types.length];
+            for (int i = 0; i < types.length; i++) {
+                result[i] = FastClass.create(types[i], memberLoader);
+            }
+            parameterTypes = result;
+        }
+        return result;
     }
+
+    /**
+     * Get the implementation of the functional interface invoking the executable, which is created once per interface
+     */
+    <F> F as(FastMemberGenerator generator, Class<F> functionalInterface, boolean toSetAccessible) {
+        if (null == executable) {
+            throw new UnsupportedOperationException("no executable to bind to " + functionalInterface);
+        }
+
+        final Map<Class<?>, Object> functions = getFunctions(toSetAccessible);
+        Object result = functions.get(functionalInterface);
+        if (null == result) {
+            result = functions.computeIfAbsent(functionalInterface, f -> {
+                ClassData classData = generator.generateFunction(executable, f, toSetAccessible);
+                Class<?> functionClass = memberLoader.define(classData);
+                try {
+                    return functionClass.getConstructor().newInstance();
+                } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+                    throw new FastInstantiationException(e);
+                } catch (ExceptionInInitializerError e) {
+                    throw (FastInstantiationException) e.getCause();
+                }
+            });
+        }
+        return functionalInterface.cast(result);
+    }
+
+    /**
+     * The maps are created on the first binding, because few executables are ever bound, e.g. the lazy and dispatched ones
+     */
+    private Map<Class<?>, Object> getFunctions(boolean toSetAccessible) {
+        Map<Class<?>, Object> result = toSetAccessible ? accessibleFunctions : functions;
+        if (null == result) {
+            synchronized (this) {
+                result = toSetAccessible ? accessibleFunctions : functions;
+                if (null == result) {
+                    result = new ConcurrentHashMap<>(4);
+                    if (toSetAccessible) {
+                        accessibleFunctions = result;
+                    } else {
+                        functions = result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private volatile FastClass<?>[] parameterTypes;
+    private volatile Map<Class<?>, Object> functions;
+    private volatile Map<Class<?>, Object> accessibleFunctions;
 }
@@ -13,7 +13,7 @@ public class FastField implements FastMember {
         this.fastFieldSetter = null;
     }
 
-    private FastField(Field field, MemberLoadable memberLoader, FastFieldGetter fastFieldGetter, FastFieldSetter fastFieldSetter) {
+    FastField(Field field, MemberLoadable memberLoader, FastFieldGetter fastFieldGetter, FastFieldSetter fastFieldSetter) {
         this.field = field;
         this.memberLoader = memberLoader;
         this.declaringClass = FastClass.create(field.getDeclaringClass(), memberLoader);
@@ -41,10 +41,86 @@ public class FastField implements FastMember {
     }
 
     public void set(Object obj, Object value) throws Throwable {
+        checkSettable();
+        fastFieldSetter.set(obj, value);
+    }
+
+    public boolean getBoolean(Object obj) throws Throwable {
+        return fastFieldGetter.getBoolean(obj);
+    }
+
+    public byte getByte(Object obj) throws Throwable {
+        return fastFieldGetter.getByte(obj);
+    }
+
+    public char getChar(Object obj) throws Throwable {
+        return fastFieldGetter.getChar(obj);
+    }
+
+    public short getShort(Object obj) throws Throwable {
+        return fastFieldGetter.getShort(obj);
+    }
+
+    public int getInt(Object obj) throws Throwable {
+        return fastFieldGetter.getInt(obj);
+    }
+
+    public long getLong(Object obj) throws Throwable {
+        return fastFieldGetter.getLong(obj);
+    }
+
+    public float getFloat(Object obj) throws Throwable {
+        return fastFieldGetter.getFloat(obj);
+    }
+
+    public double getDouble(Object obj) throws Throwable {
+        return fastFieldGetter.getDouble(obj);
+    }
+
+    public void setBoolean(Object obj, boolean value) throws Throwable {
+        checkSettable();
+        fastFieldSetter.setBoolean(obj, value);
+    }
+
+    public void setByte(Object obj, byte value) throws Throwable {
+        checkSettable();
+        fastFieldSetter.setByte(obj, value);
+    }
+
+    public void setChar(Object obj, char value) throws Throwable {
+        checkSettable();
+        fastFieldSetter.setChar(obj, value);
+    }
+
+    public void setShort(Object obj, short value) throws Throwable {
+        checkSettable();
+        fastFieldSetter.setShort(obj, value);
+    }
+
+    public void setInt(Object obj, int value) throws Throwable {
+        checkSettable();
+        fastFieldSetter.setInt(obj, value);
+    }
+
+    public void setLong(Object obj, long value) throws Throwable {
+        checkSettable();
+        fastFieldSetter.setLong(obj, value);
+    }
+
+    public void setFloat(Object obj, float value) throws Throwable {
+        checkSettable();
+        fastFieldSetter.setFloat(obj, value);
+    }
+
+    public void setDouble(Object obj, double value) throws Throwable {
+        checkSettable();
+        fastFieldSetter.setDouble(obj, value);
+    }
+
+    private void checkSettable() throws IllegalAccessException {
         if (null == fastFieldSetter) {
             throw new IllegalAccessException("unexpected set of a final field: " + field.toString());
         }
-        fastFieldSetter.set(obj, value);
     }
 
     @Override
@@ -37,11 +37,47 @@ public abstract class FastFieldGetter extends FastMethod {
     }
 
     public static FastFieldGetter create(Field field, MemberLoadable memberLoader, boolean toSetAccessible) {
-        return memberLoader.load(FastFieldGetterGenerator.INSTANCE.generate(field, toSetAccessible));
+        return memberLoader.load(FastFieldGetterGenerator.INSTANCE, field, toSetAccessible);
     }
 
     public Object get(Object obj) throws Throwable {
-        return invoke(obj);
+        return invoke0(obj);
+    }
+
+    /**
+     * The typed getters mirroring {@link Field#getInt(Object)} and so on, which are overridden by the generated class
+     * if the field type can be widened to the type without boxing
+     */
+    public boolean getBoolean(Object obj) throws Throwable {
+        return invokeAsBoolean(obj);
+    }
+
+    public byte getByte(Object obj) throws Throwable {
+        return Primitives.toByte(get(obj));
+    }
+
+    public char getChar(Object obj) throws Throwable {
+        return Primitives.toChar(get(obj));
+    }
+
+    public short getShort(Object obj) throws Throwable {
+        return Primitives.toShort(get(obj));
+    }
+
+    public int getInt(Object obj) throws Throwable {
+        return invokeAsInt(obj);
+    }
+
+    public long getLong(Object obj) throws Throwable {
+        return invokeAsLong(obj);
+    }
+
+    public float getFloat(Object obj) throws Throwable {
+        return Primitives.toFloat(get(obj));
+    }
+
+    public double getDouble(Object obj) throws Throwable {
+        return invokeAsDouble(obj);
     }
 
     private final Field field;
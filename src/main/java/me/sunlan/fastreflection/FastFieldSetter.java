@@ -37,11 +37,47 @@ public abstract class FastFieldSetter extends FastMethod {
     }
 
     public static FastFieldSetter create(Field field, MemberLoadable memberLoader, boolean toSetAccessible) {
-        return memberLoader.load(FastFieldSetterGenerator.INSTANCE.generate(field, toSetAccessible));
+        return memberLoader.load(FastFieldSetterGenerator.INSTANCE, field, toSetAccessible);
     }
 
     public void set(Object obj, Object value) throws Throwable {
-        invoke(obj, value);
+        invoke1(obj, value);
+    }
+
+    /**
+     * The typed setters mirroring {@link Field#setInt(Object, int)} and so on, which are overridden by the generated class
+     * if the type can be widened to the field type without unboxing
+     */
+    public void setBoolean(Object obj, boolean value) throws Throwable {
+        invoke1(obj, value);
+    }
+
+    public void setByte(Object obj, byte value) throws Throwable {
+        set(obj, (Object) value);
+    }
+
+    public void setChar(Object obj, char value) throws Throwable {
+        set(obj, (Object) value);
+    }
+
+    public void setShort(Object obj, short value) throws Throwable {
+        set(obj, (Object) value);
+    }
+
+    public void setInt(Object obj, int value) throws Throwable {
+        invoke1(obj, value);
+    }
+
+    public void setLong(Object obj, long value) throws Throwable {
+        invoke1(obj, value);
+    }
+
+    public void setFloat(Object obj, float value) throws Throwable {
+        set(obj, (Object) value);
+    }
+
+    public void setDouble(Object obj, double value) throws Throwable {
+        invoke1(obj, value);
     }
 
     private final Field field;
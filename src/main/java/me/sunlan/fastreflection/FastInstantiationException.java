@@ -19,6 +19,10 @@
 package me.sunlan.fastreflection;
 
 public class FastInstantiationException extends RuntimeException {
+    public FastInstantiationException(String message) {
+        super(message);
+    }
+
     public FastInstantiationException(Throwable cause) {
         super(cause);
     }
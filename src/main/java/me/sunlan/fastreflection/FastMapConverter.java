@@ -0,0 +1,65 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import java.util.Map;
+
+/**
+ * Converts the objects to maps keyed by the field names and back, see {@link FastClass#mapConverter()}.
+ * The generated class puts the fields into a presized map with the constant keys, and looks up the fields of the
+ * entries by switching on the hash codes of the keys instead of matching the names one by one
+ *
+ * @param <T> the type of the objects converted
+ */
+public abstract class FastMapConverter<T> {
+    protected FastMapConverter(FastClass<T> declaringClass, boolean toSetAccessible) {
+        this.declaringClass = declaringClass;
+        this.toSetAccessible = toSetAccessible;
+    }
+
+    public FastClass<T> getDeclaringClass() {
+        return declaringClass;
+    }
+
+    /**
+     * Put the values of the fields of {@code obj} into a new map in the declaration order, the fields of the
+     * subclasses first. The values of the primitive fields are boxed
+     */
+    public abstract Map<String, Object> toMap(T obj) throws Throwable;
+
+    /**
+     * Set the fields of {@code target} named by the keys of {@code map}, the entries of unknown keys and the final
+     * fields are ignored. The values are unboxed and widened for the primitive fields like {@link FastMethod#invoke(Object, Object...)}
+     *
+     * @return the {@code target}
+     */
+    public abstract T fromMap(Map<String, ?> map, T target) throws Throwable;
+
+    /**
+     * Set the fields of the new instance created by the no-arg constructor, see {@link #fromMap(Map, Object)}
+     */
+    public T fromMap(Map<String, ?> map) throws Throwable {
+        @SuppressWarnings("unchecked")
+        T target = (T) declaringClass.getNoArgConstructor(toSetAccessible).invoke0();
+        return fromMap(map, target);
+    }
+
+    private final FastClass<T> declaringClass;
+    private final boolean toSetAccessible;
+}
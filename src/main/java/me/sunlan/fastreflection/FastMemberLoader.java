@@ -18,7 +18,11 @@
  */
 package me.sunlan.fastreflection;
 
+import me.sunlan.fastreflection.generator.ClassData;
+import me.sunlan.fastreflection.generator.FastMemberGenerator;
 import me.sunlan.fastreflection.generator.MemberData;
+import me.sunlan.fastreflection.generator.MemberDataStore;
+import me.sunlan.fastreflection.generator.PregeneratedMemberDataStore;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Member;
@@ -26,6 +30,11 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class FastMemberLoader extends ClassLoader implements MemberLoadable {
+    static {
+        // generated classes are defined concurrently, e.g. by `FastClass.preload`
+        registerAsParallelCapable();
+    }
+
     private static final FastMemberLoader DEFAULT_LOADER = new FastMemberLoader();
 
     public static FastMemberLoader getDefaultLoader() {
@@ -37,34 +46,166 @@ public class FastMemberLoader extends ClassLoader implements MemberLoadable {
     }
 
     public FastMemberLoader(ClassLoader parent) {
+        this(parent, new PregeneratedMemberDataStore(parent));
+    }
+
+    /**
+     * @param stores the stores consulted in order before generating the class of a member, e.g. {@link PregeneratedMemberDataStore}
+     */
+    public FastMemberLoader(ClassLoader parent, MemberDataStore... stores) {
+        this(parent, null, stores);
+    }
+
+    /**
+     * @param owner the loader passed to the fast members loaded, e.g. the loader managing this loader as a segment
+     */
+    FastMemberLoader(ClassLoader parent, MemberLoadable owner, MemberDataStore... stores) {
         super(parent);
+        this.owner = null == owner ? this : owner;
+        this.stores = stores.clone();
+    }
+
+    @Override
+    public <T extends FastMember> T load(FastMemberGenerator generator, Member member, boolean toSetAccessible) {
+        final MemberKey memberKey = new MemberKey(generator, member, toSetAccessible);
+        // `get` first to avoid locking the bin on the hit path
+        FastMember result = memberCache.get(memberKey);
+        if (null == result) {
+            result = memberCache.computeIfAbsent(memberKey, k -> {
+                listener.onCacheMiss(member);
+                // the class name is derived from a non-cryptographic hash, so pick the next discriminator if another member has taken it
+                for (int discriminator = 0; ; discriminator++) {
+                    String className = generator.generateClassName(member, toSetAccessible, discriminator);
+                    Member owner = classNameOwners.putIfAbsent(className, member);
+                    if (null == owner || owner.equals(member)) {
+                        checkInitializationFailure(className);
+                        return load(findOrGenerate(generator, member, toSetAccessible, discriminator, className));
+                    }
+                }
+            });
+        } else {
+            listener.onCacheHit(member);
+        }
+
+        return (T) result;
+    }
+
+    /**
+     * Set the listener of the events of loading members, e.g. {@link FastMemberLoaderStats}
+     */
+    public void setListener(FastMemberLoaderListener listener) {
+        this.listener = null == listener ? FastMemberLoaderListener.NOOP : listener;
+    }
+
+    private MemberData findOrGenerate(FastMemberGenerator generator, Member member, boolean toSetAccessible, int discriminator, String className) {
+        final FastMemberLoaderListener listener = this.listener;
+        for (MemberDataStore store : stores) {
+            long start = System.nanoTime();
+            MemberData memberData = store.find(className, member);
+            if (null != memberData) {
+                listener.onFound(memberData, System.nanoTime() - start);
+                return memberData;
+            }
+        }
+
+        long start = System.nanoTime();
+        MemberData memberData = generator.generate(member, toSetAccessible, discriminator);
+        listener.onGenerated(memberData, System.nanoTime() - start);
+        for (MemberDataStore store : stores) {
+            store.store(memberData);
+        }
+        return memberData;
     }
 
     @Override
     public <T extends FastMember> T load(MemberData memberData) {
         final String fastMemberClassName = memberData.getName();
+        Member owner = classNameOwners.putIfAbsent(fastMemberClassName, memberData.getMember());
+        if (null != owner && !owner.equals(memberData.getMember())) {
+            throw new FastInstantiationException("class name `" + fastMemberClassName + "` has been taken by the member: " + owner);
+        }
+
         FastMember result = loadedFastMemberCache.computeIfAbsent(fastMemberClassName, m -> {
-            Class<?> fastMemberClass = defineClass(fastMemberClassName, memberData.getBytes());
+            checkInitializationFailure(fastMemberClassName);
+            Class<?> fastMemberClass = define(memberData);
             try {
                 Member member = memberData.getMember();
-                return (FastMember) fastMemberClass.getConstructor(member.getClass(), MemberLoadable.class).newInstance(member, this);
+                long start = System.nanoTime();
+                FastMember fastMember = (FastMember) fastMemberClass.getConstructor(member.getClass(), MemberLoadable.class).newInstance(member, this.owner);
+                listener.onInitialized(memberData, System.nanoTime() - start);
+                return fastMember;
             } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
                 throw new FastInstantiationException(e);
             } catch (ExceptionInInitializerError e) {
-                throw (FastInstantiationException) e.getCause();
+                FastInstantiationException fastInstantiationException = (FastInstantiationException) e.getCause();
+                initializationFailures.put(fastMemberClassName, fastInstantiationException.getCause());
+                throw fastInstantiationException;
             }
         });
 
         return (T) result;
     }
 
-    private Class<?> defineClass(String className, byte[] bytes) {
+    private void checkInitializationFailure(String className) {
+        // the class failed to initialize will throw `NoClassDefFoundError` from now on, so report the original failure instead
+        Throwable failure = initializationFailures.get(className);
+        if (null != failure) {
+            throw new FastInstantiationException(failure);
+        }
+    }
+
+    @Override
+    public Class<?> define(ClassData classData) {
+        final String className = classData.getName();
         Class<?> result = findLoadedClass(className);
         if (null != result) {
             return result;
         }
-        return super.defineClass(className, bytes, 0, bytes.length);
+
+        final byte[] bytes = classData.getBytes();
+        long start = System.nanoTime();
+        result = defineClass(className, bytes, 0, bytes.length);
+        onDefined(classData, System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Called once the class is defined by this loader, i.e. not when it has been loaded already
+     */
+    void onDefined(ClassData classData, long nanos) {
+        listener.onDefined(classData, nanos);
     }
 
+    private final MemberLoadable owner;
+    private volatile FastMemberLoaderListener listener = FastMemberLoaderListener.NOOP;
+    private final MemberDataStore[] stores;
     private final Map<String, FastMember> loadedFastMemberCache = new ConcurrentHashMap<>();
+    private final Map<MemberKey, FastMember> memberCache = new ConcurrentHashMap<>();
+    private final Map<String, Member> classNameOwners = new ConcurrentHashMap<>();
+    private final Map<String, Throwable> initializationFailures = new ConcurrentHashMap<>();
+
+    static final class MemberKey {
+        private final FastMemberGenerator generator;
+        private final Member member;
+        private final boolean toSetAccessible;
+
+        MemberKey(FastMemberGenerator generator, Member member, boolean toSetAccessible) {
+            this.generator = generator;
+            this.member = member;
+            this.toSetAccessible = toSetAccessible;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MemberKey)) return false;
+            MemberKey that = (MemberKey) o;
+            return generator == that.generator && toSetAccessible == that.toSetAccessible && member.equals(that.member);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * System.identityHashCode(generator) + member.hashCode()) * 31 + (toSetAccessible ? 1 : 0);
+        }
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import me.sunlan.fastreflection.generator.ClassData;
+import me.sunlan.fastreflection.generator.MemberData;
+
+import java.lang.reflect.Member;
+
+/**
+ * Listens to the events of loading members, e.g. {@link FastMemberLoaderStats}. The listener is called by
+ * the loading threads, so it should be thread-safe and cheap, especially {@link #onCacheHit(Member)}
+ */
+public interface FastMemberLoaderListener {
+    FastMemberLoaderListener NOOP = new FastMemberLoaderListener() {};
+
+    /**
+     * The fast member of the member has been loaded already
+     */
+    default void onCacheHit(Member member) {
+    }
+
+    /**
+     * The fast member of the member is about to be loaded
+     */
+    default void onCacheMiss(Member member) {
+    }
+
+    /**
+     * The class of the member has been generated by ASM
+     */
+    default void onGenerated(MemberData memberData, long nanos) {
+    }
+
+    /**
+     * The class of the member has been found in a {@link me.sunlan.fastreflection.generator.MemberDataStore}
+     */
+    default void onFound(MemberData memberData, long nanos) {
+    }
+
+    /**
+     * The class has been defined, the size of its class file approximates the metaspace it takes
+     */
+    default void onDefined(ClassData classData, long nanos) {
+    }
+
+    /**
+     * The class of the member has been initialized and instantiated, the static block of which resolves the member
+     * and looks up its method handle
+     */
+    default void onInitialized(MemberData memberData, long nanos) {
+    }
+
+    /**
+     * The classes defined have been retired, so they can be unloaded, e.g. the classes of the segment loader evicted by
+     * {@link BoundedFastMemberLoader}, or the hidden class of the member which has become unreachable
+     *
+     * @param classBytes the bytes of the class files retired
+     */
+    default void onRetired(long classCount, long classBytes) {
+    }
+}
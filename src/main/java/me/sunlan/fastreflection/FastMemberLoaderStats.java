@@ -0,0 +1,157 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import me.sunlan.fastreflection.generator.ClassData;
+import me.sunlan.fastreflection.generator.MemberData;
+
+import java.lang.reflect.Member;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the events of loading members with striped counters, e.g.
+ * <pre>
+ * FastMemberLoaderStats stats = new FastMemberLoaderStats();
+ * memberLoader.setListener(stats);
+ * </pre>
+ */
+public class FastMemberLoaderStats implements FastMemberLoaderListener {
+    @Override
+    public void onCacheHit(Member member) {
+        hitCount.increment();
+    }
+
+    @Override
+    public void onCacheMiss(Member member) {
+        missCount.increment();
+    }
+
+    @Override
+    public void onGenerated(MemberData memberData, long nanos) {
+        generatedCount.increment();
+        generationNanos.add(nanos);
+    }
+
+    @Override
+    public void onFound(MemberData memberData, long nanos) {
+        foundCount.increment();
+        findingNanos.add(nanos);
+    }
+
+    @Override
+    public void onDefined(ClassData classData, long nanos) {
+        classCount.increment();
+        classBytes.add(classData.getBytes().length);
+        definitionNanos.add(nanos);
+    }
+
+    @Override
+    public void onInitialized(MemberData memberData, long nanos) {
+        initializationNanos.add(nanos);
+    }
+
+    @Override
+    public void onRetired(long classCount, long classBytes) {
+        this.classCount.add(-classCount);
+        this.classBytes.add(-classBytes);
+        retiredClassCount.add(classCount);
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getGeneratedCount() {
+        return generatedCount.sum();
+    }
+
+    public long getGenerationNanos() {
+        return generationNanos.sum();
+    }
+
+    public long getFoundCount() {
+        return foundCount.sum();
+    }
+
+    public long getFindingNanos() {
+        return findingNanos.sum();
+    }
+
+    /**
+     * @return the number of classes defined and not retired yet
+     */
+    public long getClassCount() {
+        return classCount.sum();
+    }
+
+    /**
+     * @return the bytes of the class files defined and not retired yet, which approximates the metaspace taken
+     */
+    public long getClassBytes() {
+        return classBytes.sum();
+    }
+
+    /**
+     * @return the number of classes retired, see {@link FastMemberLoaderListener#onRetired(long, long)}
+     */
+    public long getRetiredClassCount() {
+        return retiredClassCount.sum();
+    }
+
+    public long getDefinitionNanos() {
+        return definitionNanos.sum();
+    }
+
+    public long getInitializationNanos() {
+        return initializationNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "FastMemberLoaderStats{" +
+                "hitCount=" + getHitCount() +
+                ", missCount=" + getMissCount() +
+                ", generatedCount=" + getGeneratedCount() +
+                ", generationNanos=" + getGenerationNanos() +
+                ", foundCount=" + getFoundCount() +
+                ", findingNanos=" + getFindingNanos() +
+                ", classCount=" + getClassCount() +
+                ", classBytes=" + getClassBytes() +
+                ", retiredClassCount=" + getRetiredClassCount() +
+                ", definitionNanos=" + getDefinitionNanos() +
+                ", initializationNanos=" + getInitializationNanos() +
+                '}';
+    }
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder generatedCount = new LongAdder();
+    private final LongAdder generationNanos = new LongAdder();
+    private final LongAdder foundCount = new LongAdder();
+    private final LongAdder findingNanos = new LongAdder();
+    private final LongAdder classCount = new LongAdder();
+    private final LongAdder classBytes = new LongAdder();
+    private final LongAdder retiredClassCount = new LongAdder();
+    private final LongAdder definitionNanos = new LongAdder();
+    private final LongAdder initializationNanos = new LongAdder();
+}
@@ -18,10 +18,21 @@
  */
 package me.sunlan.fastreflection;
 
+import me.sunlan.fastreflection.generator.ClassData;
 import me.sunlan.fastreflection.generator.FastMethodGenerator;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 public abstract class FastMethod extends FastExecutable {
     FastMethod() {
@@ -52,11 +63,286 @@ public abstract class FastMethod extends FastExecutable {
     }
 
     public FastClass<?> getReturnType() {
-        return FastClass.create(method.getReturnType(), memberLoader);
+        FastClass<?> result = returnType;
+        if (null == result) {
+            returnType = result = FastClass.create(method.getReturnType(), memberLoader);
+        }
+        return result;
     }
 
     public abstract Object invoke(Object obj, Object... args) throws Throwable;
 
+    /**
+     * The fixed-arity entry points, which save the allocation of the arguments array when the arity matches
+     * the parameter count, e.g. {@code invoke2(obj, a, b)} for the method with two parameters.
+     * They fall back to {@link #invoke(Object, Object...)} if not overridden by the generated class
+     */
+    public Object invoke0(Object obj) throws Throwable {
+        return invoke(obj, EMPTY_ARGS);
+    }
+
+    public Object invoke1(Object obj, Object arg0) throws Throwable {
+        return invoke(obj, arg0);
+    }
+
+    public Object invoke2(Object obj, Object arg0, Object arg1) throws Throwable {
+        return invoke(obj, arg0, arg1);
+    }
+
+    public Object invoke3(Object obj, Object arg0, Object arg1, Object arg2) throws Throwable {
+        return invoke(obj, arg0, arg1, arg2);
+    }
+
+    public Object invoke4(Object obj, Object arg0, Object arg1, Object arg2, Object arg3) throws Throwable {
+        return invoke(obj, arg0, arg1, arg2, arg3);
+    }
+
+    public Object invoke5(Object obj, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) throws Throwable {
+        return invoke(obj, arg0, arg1, arg2, arg3, arg4);
+    }
+
+    public Object invoke6(Object obj, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) throws Throwable {
+        return invoke(obj, arg0, arg1, arg2, arg3, arg4, arg5);
+    }
+
+    /**
+     * The entry points returning primitive values without boxing, and taking a primitive argument without unboxing,
+     * which are overridden by the generated class if the types match or can be widened, e.g. {@code invokeAsLong}
+     * of the method returning {@code int}. Otherwise they fall back to the boxed entry points
+     */
+    public int invokeAsInt(Object obj) throws Throwable {
+        return Primitives.toInt(invoke0(obj));
+    }
+
+    public int invokeAsInt(Object obj, Object... args) throws Throwable {
+        return Primitives.toInt(invoke(obj, args));
+    }
+
+    public long invokeAsLong(Object obj) throws Throwable {
+        return Primitives.toLong(invoke0(obj));
+    }
+
+    public long invokeAsLong(Object obj, Object... args) throws Throwable {
+        return Primitives.toLong(invoke(obj, args));
+    }
+
+    public double invokeAsDouble(Object obj) throws Throwable {
+        return Primitives.toDouble(invoke0(obj));
+    }
+
+    public double invokeAsDouble(Object obj, Object... args) throws Throwable {
+        return Primitives.toDouble(invoke(obj, args));
+    }
+
+    public boolean invokeAsBoolean(Object obj) throws Throwable {
+        return Primitives.toBoolean(invoke0(obj));
+    }
+
+    public boolean invokeAsBoolean(Object obj, Object... args) throws Throwable {
+        return Primitives.toBoolean(invoke(obj, args));
+    }
+
+    public Object invoke1(Object obj, int arg0) throws Throwable {
+        return invoke1(obj, (Object) arg0);
+    }
+
+    public Object invoke1(Object obj, long arg0) throws Throwable {
+        return invoke1(obj, (Object) arg0);
+    }
+
+    public Object invoke1(Object obj, double arg0) throws Throwable {
+        return invoke1(obj, (Object) arg0);
+    }
+
+    public Object invoke1(Object obj, boolean arg0) throws Throwable {
+        return invoke1(obj, (Object) arg0);
+    }
+
+    /**
+     * The batch entry points invoking the method on each target object with the same arguments, and storing the result
+     * into the element of {@code out} at the same index. The class looping over the target objects is generated on
+     * the first batch invocation, see {@link BatchFastMethod}. If an invocation fails, the results before it have been stored
+     */
+    public void invokeAll(Object[] receivers, Object[] out, Object... args) throws Throwable {
+        invokeAll(receivers, 0, receivers.length, out, args);
+    }
+
+    public void invokeAll(Object[] receivers, int fromIndex, int toIndex, Object[] out, Object... args) throws Throwable {
+        getBatchMethod().invokeAll(receivers, fromIndex, toIndex, out, args);
+    }
+
+    public void invokeAllAsInt(Object[] receivers, int[] out, Object... args) throws Throwable {
+        invokeAllAsInt(receivers, 0, receivers.length, out, args);
+    }
+
+    public void invokeAllAsInt(Object[] receivers, int fromIndex, int toIndex, int[] out, Object... args) throws Throwable {
+        getBatchMethod().invokeAllAsInt(receivers, fromIndex, toIndex, out, args);
+    }
+
+    public void invokeAllAsLong(Object[] receivers, long[] out, Object... args) throws Throwable {
+        invokeAllAsLong(receivers, 0, receivers.length, out, args);
+    }
+
+    public void invokeAllAsLong(Object[] receivers, int fromIndex, int toIndex, long[] out, Object... args) throws Throwable {
+        getBatchMethod().invokeAllAsLong(receivers, fromIndex, toIndex, out, args);
+    }
+
+    public void invokeAllAsDouble(Object[] receivers, double[] out, Object... args) throws Throwable {
+        invokeAllAsDouble(receivers, 0, receivers.length, out, args);
+    }
+
+    public void invokeAllAsDouble(Object[] receivers, int fromIndex, int toIndex, double[] out, Object... args) throws Throwable {
+        getBatchMethod().invokeAllAsDouble(receivers, fromIndex, toIndex, out, args);
+    }
+
+    public void invokeAllAsBoolean(Object[] receivers, boolean[] out, Object... args) throws Throwable {
+        invokeAllAsBoolean(receivers, 0, receivers.length, out, args);
+    }
+
+    public void invokeAllAsBoolean(Object[] receivers, int fromIndex, int toIndex, boolean[] out, Object... args) throws Throwable {
+        getBatchMethod().invokeAllAsBoolean(receivers, fromIndex, toIndex, out, args);
+    }
+
+    /**
+     * Invoke the method on each target object of the list in order, and pass the result to the action
+     */
+    public void invokeAll(List<?> receivers, Consumer<?> action, Object... args) throws Throwable {
+        getBatchMethod().invokeAll(receivers, action, args);
+    }
+
+    private BatchFastMethod getBatchMethod() {
+        BatchFastMethod result = batchMethod;
+        if (null == result) {
+            synchronized (this) {
+                result = batchMethod;
+                if (null == result) {
+                    batchMethod = result = createBatchMethod();
+                }
+            }
+        }
+        return result;
+    }
+
+    private BatchFastMethod createBatchMethod() {
+        if (null == method) {
+            // e.g. the fast fields, which loop over their own entry points
+            return new BatchFastMethod(this);
+        }
+
+        final FastMethodGenerator generator = FastMethodGenerator.INSTANCE;
+        final Object methodHandle = generator.isDirectlyAccessible(method) ? null : unreflect(generator);
+        final ClassData classData = generator.generateBatch(method);
+        try {
+            // the hidden class is unloaded with the fast method, otherwise the class lives as long as the loader of the fast method
+            Class<?> batchClass = HiddenFastMemberLoader.defineHiddenClass(generator, method, classData);
+            if (null == batchClass) {
+                batchClass = memberLoader.define(classData);
+            }
+            return (BatchFastMethod) batchClass.getConstructor(FastMethod.class, MethodHandle.class).newInstance(this, methodHandle);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            throw new FastInstantiationException(e);
+        }
+    }
+
+    /**
+     * Split the target objects into chunks invoked by {@link #invokeAll(Object[], int, int, Object[], Object...)}
+     * in the common {@link ForkJoinPool}, which pays off only for large inputs
+     */
+    public void parallelInvokeAll(Object[] receivers, Object[] out, Object... args) throws Throwable {
+        try {
+            ForkJoinPool.commonPool().invoke(new InvokeAllTask(this, receivers, 0, receivers.length, out, args));
+        } catch (InvocationFailure e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Bind the method to the functional interface, e.g. {@code ToIntFunction<String>} of {@code String#length()},
+     * the target object of instance methods is the first parameter of the functional method. The parameters and the result
+     * are converted as {@code MethodHandle#asType} does, so no boxing happens if the types are primitive on both sides.
+     * Checked exceptions thrown by the method are rethrown as they are, even if the functional method does not declare them
+     *
+     * @throws IllegalArgumentException if the interface is not functional or does not match the method
+     */
+    public <F> F as(Class<F> functionalInterface) {
+        return as(functionalInterface, false);
+    }
+
+    public <F> F as(Class<F> functionalInterface, boolean toSetAccessible) {
+        return as(FastMethodGenerator.INSTANCE, functionalInterface, toSetAccessible);
+    }
+
+    /**
+     * Bind the target object and the leading arguments to the method, e.g. the event handler called on the same
+     * target object repeatedly. A class is generated per binding to hold the bound values in final fields, so bind
+     * the long-lived ones instead of binding per call. The class is defined as a hidden class on JDK 16+, or by
+     * a throwaway class loader otherwise, so it is unloaded once the bound method becomes unreachable
+     *
+     * @param obj the target object, which is ignored if the method is static
+     * @throws IllegalArgumentException if the target object or the arguments do not match the method
+     */
+    public BoundFastMethod bindTo(Object obj, Object... leadingArgs) {
+        if (null == method) {
+            throw new UnsupportedOperationException("no method to bind");
+        }
+
+        final boolean isStatic = Modifier.isStatic(method.getModifiers());
+        if (!isStatic && !method.getDeclaringClass().isInstance(obj)) {
+            throw new IllegalArgumentException("the target object is not an instance of " + method.getDeclaringClass());
+        }
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        if (leadingArgs.length > parameterTypes.length) {
+            throw new IllegalArgumentException(leadingArgs.length + " arguments can not be bound to " + method);
+        }
+        final Object[] boundArgs = leadingArgs.clone();
+        for (int i = 0; i < boundArgs.length; i++) {
+            final Object arg = boundArgs[i];
+            try {
+                // the bound values are cast strictly by the generated class, so widen them in advance as `call` does
+                boundArgs[i] = parameterTypes[i].isPrimitive() ? Primitives.widen(arg, parameterTypes[i]) : parameterTypes[i].cast(arg);
+            } catch (ClassCastException e) {
+                throw new IllegalArgumentException("the argument " + i + " does not match the parameter type " + parameterTypes[i], e);
+            }
+        }
+
+        final FastMethodGenerator generator = FastMethodGenerator.INSTANCE;
+        final List<Object> values = new ArrayList<>(leadingArgs.length + 2);
+        if (!generator.isDirectlyAccessible(method)) {
+            values.add(unreflect(generator));
+        }
+        if (!isStatic) {
+            values.add(obj);
+        }
+        Collections.addAll(values, boundArgs);
+
+        final ClassData classData = generator.generateBound(method, leadingArgs.length);
+        try {
+            Class<?> boundClass = HiddenFastMemberLoader.defineHiddenClass(generator, method, classData);
+            if (null == boundClass) {
+                // define the class by a throwaway loader, so that it can be unloaded as the hidden class does
+                ClassLoader parent = memberLoader instanceof ClassLoader ? (ClassLoader) memberLoader : FastMemberLoader.class.getClassLoader();
+                boundClass = new FastMemberLoader(parent).define(classData);
+            }
+            return (BoundFastMethod) boundClass.getConstructor(FastMethod.class, Object[].class).newInstance(this, values.toArray());
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            throw new FastInstantiationException(e);
+        }
+    }
+
+    /**
+     * The fast method of the member not directly accessible exists only if it has been set accessible,
+     * so set a copy accessible too rather than the method passed in by users
+     */
+    private Object unreflect(FastMethodGenerator generator) {
+        try {
+            Method accessibleMethod = method.getDeclaringClass().getDeclaredMethod(method.getName(), method.getParameterTypes());
+            AccessibleObjectHelper.trySetAccessible(accessibleMethod);
+            return generator.unreflect(MethodHandles.lookup(), accessibleMethod);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new FastInstantiationException(e);
+        }
+    }
+
     public static FastMethod create(Method method) {
         return create(method, false);
     }
@@ -66,7 +352,7 @@ public abstract class FastMethod extends FastExecutable {
     }
 
     public static FastMethod create(Method method, MemberLoadable memberLoader, boolean toSetAccessible) {
-        return memberLoader.load(FastMethodGenerator.INSTANCE.generate(method, toSetAccessible));
+        return memberLoader.load(FastMethodGenerator.INSTANCE, method, toSetAccessible);
     }
 
     @Override
@@ -87,6 +373,57 @@ public abstract class FastMethod extends FastExecutable {
         return method.toString();
     }
 
+    private static final class InvokeAllTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int CHUNK_SIZE = 1024;
+        private final FastMethod fastMethod;
+        private final Object[] receivers;
+        private final int fromIndex;
+        private final int toIndex;
+        private final Object[] out;
+        private final Object[] args;
+
+        InvokeAllTask(FastMethod fastMethod, Object[] receivers, int fromIndex, int toIndex, Object[] out, Object[] args) {
+            this.fastMethod = fastMethod;
+            this.receivers = receivers;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.out = out;
+            this.args = args;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex <= CHUNK_SIZE) {
+                try {
+                    fastMethod.invokeAll(receivers, fromIndex, toIndex, out, args);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new InvocationFailure(t);
+                }
+                return;
+            }
+
+            final int middleIndex = (fromIndex + toIndex) >>> 1;
+            invokeAll(new InvokeAllTask(fastMethod, receivers, fromIndex, middleIndex, out, args),
+                    new InvokeAllTask(fastMethod, receivers, middleIndex, toIndex, out, args));
+        }
+    }
+
+    /**
+     * Carry the checked exception out of the fork/join task, it has no public constructor so that the fork/join pool rethrows it as is
+     */
+    private static final class InvocationFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private InvocationFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+
     private final Method method;
     private final MemberLoadable memberLoader;
+    private volatile FastClass<?> returnType;
+    private volatile BatchFastMethod batchMethod;
 }
@@ -0,0 +1,63 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+/**
+ * One generated class per target class, which dispatches to the public methods and the properties by name,
+ * see {@link FastClass#invokeByName(Object, String, Object...)}. The name is looked up by switching on its hash code,
+ * then the method by switching on the arity, so no {@code Method} object is looked up or copied per call.
+ * The overloads of the same arity are tried in turn in the phases of {@link FastOverloads}, i.e. the ones applicable by
+ * subtyping before the ones applicable by unboxing and widening, each phase from the most specific one. Unlike
+ * {@link FastOverloads}, the variable arity arguments are not packed, and the first of the ambiguous ones is chosen
+ */
+public abstract class FastNameDispatcher {
+    protected FastNameDispatcher(FastClass<?> declaringClass) {
+        this.declaringClass = declaringClass;
+    }
+
+    public FastClass<?> getDeclaringClass() {
+        return declaringClass;
+    }
+
+    /**
+     * @param obj the target object, ignored by the static methods
+     * @throws IllegalArgumentException if no method is applicable to the name and the arguments, e.g. the name is {@code null}
+     */
+    public abstract Object invoke(Object obj, String name, Object... args) throws Throwable;
+
+    /**
+     * @throws IllegalArgumentException if no readable property is found by the name, see {@link FastClass#getProperties()}
+     */
+    public abstract Object get(Object obj, String name) throws Throwable;
+
+    /**
+     * @throws IllegalArgumentException if no writable property is found by the name, see {@link FastClass#getProperties()}
+     */
+    public abstract void set(Object obj, String name, Object value) throws Throwable;
+
+    protected static IllegalArgumentException noSuchMethod(String name, Object[] args) {
+        return new IllegalArgumentException("no method found with the name: " + name + " applicable to " + args.length + " argument(s)");
+    }
+
+    protected static IllegalArgumentException noSuchProperty(String name) {
+        return new IllegalArgumentException("no property found with the name: " + name);
+    }
+
+    private final FastClass<?> declaringClass;
+}
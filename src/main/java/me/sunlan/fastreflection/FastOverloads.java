@@ -0,0 +1,269 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The public methods of the same name, which picks the most specific one for the runtime classes of the arguments,
+ * see {@link FastClass#getOverloads(String)}. Like the phases of JLS 15.12.2, the methods applicable by subtyping
+ * are preferred to the ones applicable by unboxing and widening, which are preferred to the variable arity ones.
+ * The selections, including the failed ones, are cached per tuple of the argument classes in a small table, which is read
+ * and written without locking: the entries are immutable, so a racing write at worst evicts another entry. The argument classes
+ * are referenced weakly, because the overloads are held by the canonical {@link FastClass} of the target class,
+ * which would otherwise keep the class loaders of the arguments, e.g. of an application passing its objects to JDK methods
+ */
+public final class FastOverloads {
+    FastOverloads(String name, Method[] methods, FastMethod[] fastMethods) {
+        this.name = name;
+        this.methods = methods;
+        this.fastMethods = fastMethods;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public FastMethod[] getMethods() {
+        return fastMethods.clone();
+    }
+
+    /**
+     * The reflected methods in the order of {@link #getMethods()}, which must not be modified
+     */
+    Method[] getReflectedMethods() {
+        return methods;
+    }
+
+    /**
+     * Pick the most specific method for the arguments, the variable arity arguments are packed by {@link #invoke(Object, Object...)}
+     *
+     * @throws IllegalArgumentException if no method is applicable, or no one is the most specific
+     */
+    public FastMethod resolve(Object... args) {
+        return select(args).fastMethod;
+    }
+
+    public Object invoke(Object obj, Object... args) throws Throwable {
+        Selection selection = select(args);
+        return selection.fastMethod.invoke(obj, selection.adapt(args));
+    }
+
+    private Selection select(Object[] args) {
+        int hash = args.length;
+        for (Object arg : args) {
+            hash = 31 * hash + (null == arg ? 0 : arg.getClass().hashCode());
+        }
+        final int index = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+        final Entry entry = cache[index];
+        Selection selection;
+        if (null != entry && entry.matches(args)) {
+            selection = entry.selection;
+        } else {
+            final Class<?>[] argumentClasses = new Class<?>[args.length];
+            for (int i = 0; i < args.length; i++) {
+                argumentClasses[i] = null == args[i] ? null : args[i].getClass();
+            }
+            selection = resolve(argumentClasses);
+            cache[index] = new Entry(argumentClasses, selection);
+        }
+
+        if (null != selection.failure) {
+            throw new IllegalArgumentException(selection.failure);
+        }
+        return selection;
+    }
+
+    private Selection resolve(Class<?>[] argumentClasses) {
+        for (Phase phase : Phase.values()) {
+            final List<Integer> applicable = new ArrayList<>();
+            for (int i = 0; i < methods.length; i++) {
+                if (phase.isApplicable(methods[i], argumentClasses)) {
+                    applicable.add(i);
+                }
+            }
+            if (applicable.isEmpty()) continue;
+
+            final int arity = argumentClasses.length;
+            final List<Integer> mostSpecific = new ArrayList<>(applicable);
+            mostSpecific.removeIf(i -> applicable.stream().anyMatch(j -> !i.equals(j)
+                    && isMoreSpecific(methods[j], methods[i], phase, arity) && !isMoreSpecific(methods[i], methods[j], phase, arity)));
+            if (1 != mostSpecific.size()) {
+                return new Selection("ambiguous methods found with the name: " + name + " for the argument classes: " + Arrays.toString(argumentClasses));
+            }
+            final int i = mostSpecific.get(0);
+            if (Phase.VARIABLE_ARITY != phase) {
+                return new Selection(fastMethods[i], -1, null);
+            }
+            final int fixedArity = methods[i].getParameterCount() - 1;
+            return new Selection(fastMethods[i], fixedArity, methods[i].getParameterTypes()[fixedArity].getComponentType());
+        }
+        return new Selection("no method found with the name: " + name + " applicable to the argument classes: " + Arrays.toString(argumentClasses));
+    }
+
+    private static boolean isMoreSpecific(Method method, Method other, Phase phase, int arity) {
+        for (int i = 0, n = Phase.VARIABLE_ARITY == phase ? arity : method.getParameterCount(); i < n; i++) {
+            if (!isSubtype(phase.getParameterType(method, i), phase.getParameterType(other, i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSubtype(Class<?> type, Class<?> other) {
+        if (type.isPrimitive()) {
+            return other.isPrimitive() ? Primitives.isWidening(type, other) : other.isAssignableFrom(Primitives.wrap(type));
+        }
+        return !other.isPrimitive() && other.isAssignableFrom(type);
+    }
+
+    /**
+     * @param argumentClass the class of the argument, or {@code null} for the {@code null} argument
+     */
+    private static boolean isApplicableBySubtyping(Class<?> argumentClass, Class<?> parameterType) {
+        if (parameterType.isPrimitive()) return false;
+        return null == argumentClass || parameterType.isAssignableFrom(argumentClass);
+    }
+
+    private static boolean isApplicableByConversion(Class<?> argumentClass, Class<?> parameterType) {
+        if (isApplicableBySubtyping(argumentClass, parameterType)) return true;
+        if (!parameterType.isPrimitive() || null == argumentClass) return false;
+        final Class<?> primitiveType = Primitives.unwrap(argumentClass);
+        return null != primitiveType && Primitives.isWidening(primitiveType, parameterType);
+    }
+
+    private enum Phase {
+        SUBTYPING {
+            @Override
+            boolean isApplicable(Method method, Class<?>[] argumentClasses) {
+                return isApplicableByFixedArity(method, argumentClasses, FastOverloads::isApplicableBySubtyping);
+            }
+        },
+        CONVERSION {
+            @Override
+            boolean isApplicable(Method method, Class<?>[] argumentClasses) {
+                return isApplicableByFixedArity(method, argumentClasses, FastOverloads::isApplicableByConversion);
+            }
+        },
+        VARIABLE_ARITY {
+            @Override
+            boolean isApplicable(Method method, Class<?>[] argumentClasses) {
+                if (!method.isVarArgs() || argumentClasses.length < method.getParameterCount() - 1) return false;
+                for (int i = 0; i < argumentClasses.length; i++) {
+                    if (!isApplicableByConversion(argumentClasses[i], getParameterType(method, i))) return false;
+                }
+                return true;
+            }
+
+            @Override
+            Class<?> getParameterType(Method method, int index) {
+                final Class<?>[] parameterTypes = method.getParameterTypes();
+                final int last = parameterTypes.length - 1;
+                return index < last ? parameterTypes[index] : parameterTypes[last].getComponentType();
+            }
+        };
+
+        abstract boolean isApplicable(Method method, Class<?>[] argumentClasses);
+
+        Class<?> getParameterType(Method method, int index) {
+            return method.getParameterTypes()[index];
+        }
+
+        private static boolean isApplicableByFixedArity(Method method, Class<?>[] argumentClasses, Applicability applicability) {
+            final Class<?>[] parameterTypes = method.getParameterTypes();
+            if (parameterTypes.length != argumentClasses.length) return false;
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (!applicability.test(argumentClasses[i], parameterTypes[i])) return false;
+            }
+            return true;
+        }
+    }
+
+    private interface Applicability {
+        boolean test(Class<?> argumentClass, Class<?> parameterType);
+    }
+
+    private static final class Selection {
+        private final FastMethod fastMethod;
+        // the count of the fixed arity parameters if the variable arity arguments are packed, otherwise -1
+        private final int fixedArity;
+        private final Class<?> componentType;
+        // the message of the failed resolution, which is thrown again without resolving
+        private final String failure;
+
+        Selection(FastMethod fastMethod, int fixedArity, Class<?> componentType) {
+            this.fastMethod = fastMethod;
+            this.fixedArity = fixedArity;
+            this.componentType = componentType;
+            this.failure = null;
+        }
+
+        Selection(String failure) {
+            this.fastMethod = null;
+            this.fixedArity = -1;
+            this.componentType = null;
+            this.failure = failure;
+        }
+
+        Object[] adapt(Object[] args) {
+            if (fixedArity < 0) return args;
+            final Object[] result = Arrays.copyOf(args, fixedArity + 1);
+            final Object varargs = Array.newInstance(componentType, args.length - fixedArity);
+            for (int i = fixedArity; i < args.length; i++) {
+                // the primitive values are unboxed and widened by `Array.set`
+                Array.set(varargs, i - fixedArity, args[i]);
+            }
+            result[fixedArity] = varargs;
+            return result;
+        }
+    }
+
+    private static final class Entry {
+        // `null` for the `null` arguments, and a cleared reference never matches
+        private final WeakReference<?>[] argumentClasses;
+        private final Selection selection;
+
+        Entry(Class<?>[] argumentClasses, Selection selection) {
+            this.argumentClasses = new WeakReference<?>[argumentClasses.length];
+            for (int i = 0; i < argumentClasses.length; i++) {
+                this.argumentClasses[i] = null == argumentClasses[i] ? null : new WeakReference<>(argumentClasses[i]);
+            }
+            this.selection = selection;
+        }
+
+        boolean matches(Object[] args) {
+            if (args.length != argumentClasses.length) return false;
+            for (int i = 0; i < args.length; i++) {
+                final Object arg = args[i];
+                final WeakReference<?> argumentClass = argumentClasses[i];
+                if (null == arg ? null != argumentClass : null == argumentClass || arg.getClass() != argumentClass.get()) return false;
+            }
+            return true;
+        }
+    }
+
+    private static final int CACHE_SIZE = 64;
+    private final String name;
+    private final Method[] methods;
+    private final FastMethod[] fastMethods;
+    private final Entry[] cache = new Entry[CACHE_SIZE];
+}
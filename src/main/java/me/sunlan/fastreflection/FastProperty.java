@@ -0,0 +1,180 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import java.util.Objects;
+
+/**
+ * The JavaBean property read and written by the getter and setter, or by the public field of the same name if
+ * there is no such method, see {@link FastClass#getProperties()}. The typed accessors, e.g. {@link #getInt(Object)},
+ * go through the typed entry points of the generated members without boxing
+ */
+public class FastProperty {
+    FastProperty(FastClass<?> declaringClass, String name, Class<?> type, FastMethod readMethod, FastField readField, FastMethod writeMethod, FastField writeField) {
+        this.declaringClass = declaringClass;
+        this.name = name;
+        this.type = type;
+        this.readMethod = readMethod;
+        this.readField = readField;
+        this.writeMethod = writeMethod;
+        this.writeField = writeField;
+    }
+
+    public Object get(Object obj) throws Throwable {
+        checkReadable();
+        return null != readMethod ? readMethod.invoke0(obj) : readField.get(obj);
+    }
+
+    public int getInt(Object obj) throws Throwable {
+        checkReadable();
+        return null != readMethod ? readMethod.invokeAsInt(obj) : readField.getInt(obj);
+    }
+
+    public long getLong(Object obj) throws Throwable {
+        checkReadable();
+        return null != readMethod ? readMethod.invokeAsLong(obj) : readField.getLong(obj);
+    }
+
+    public double getDouble(Object obj) throws Throwable {
+        checkReadable();
+        return null != readMethod ? readMethod.invokeAsDouble(obj) : readField.getDouble(obj);
+    }
+
+    public boolean getBoolean(Object obj) throws Throwable {
+        checkReadable();
+        return null != readMethod ? readMethod.invokeAsBoolean(obj) : readField.getBoolean(obj);
+    }
+
+    public void set(Object obj, Object value) throws Throwable {
+        checkWritable();
+        if (null != writeMethod) {
+            writeMethod.invoke1(obj, value);
+        } else {
+            writeField.set(obj, value);
+        }
+    }
+
+    public void setInt(Object obj, int value) throws Throwable {
+        checkWritable();
+        if (null != writeMethod) {
+            writeMethod.invoke1(obj, value);
+        } else {
+            writeField.setInt(obj, value);
+        }
+    }
+
+    public void setLong(Object obj, long value) throws Throwable {
+        checkWritable();
+        if (null != writeMethod) {
+            writeMethod.invoke1(obj, value);
+        } else {
+            writeField.setLong(obj, value);
+        }
+    }
+
+    public void setDouble(Object obj, double value) throws Throwable {
+        checkWritable();
+        if (null != writeMethod) {
+            writeMethod.invoke1(obj, value);
+        } else {
+            writeField.setDouble(obj, value);
+        }
+    }
+
+    public void setBoolean(Object obj, boolean value) throws Throwable {
+        checkWritable();
+        if (null != writeMethod) {
+            writeMethod.invoke1(obj, value);
+        } else {
+            writeField.setBoolean(obj, value);
+        }
+    }
+
+    private void checkReadable() throws IllegalAccessException {
+        if (!isReadable()) {
+            throw new IllegalAccessException("unexpected get of a write-only property: " + this);
+        }
+    }
+
+    private void checkWritable() throws IllegalAccessException {
+        if (!isWritable()) {
+            throw new IllegalAccessException("unexpected set of a read-only property: " + this);
+        }
+    }
+
+    public boolean isReadable() {
+        return null != readMethod || null != readField;
+    }
+
+    public boolean isWritable() {
+        return null != writeMethod || null != writeField;
+    }
+
+    public FastClass<?> getDeclaringClass() {
+        return declaringClass;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return the getter, or {@code null} if the property is read from the field or is write-only
+     */
+    public FastMethod getReadMethod() {
+        return readMethod;
+    }
+
+    /**
+     * @return the setter, or {@code null} if the property is written to the field or is read-only
+     */
+    public FastMethod getWriteMethod() {
+        return writeMethod;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FastProperty)) return false;
+        FastProperty that = (FastProperty) o;
+        return name.equals(that.name) && type == that.type && declaringClass.equals(that.declaringClass);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(declaringClass, name, type);
+    }
+
+    @Override
+    public String toString() {
+        return type.getName() + " " + declaringClass.getName() + "." + name;
+    }
+
+    private final FastClass<?> declaringClass;
+    private final String name;
+    private final Class<?> type;
+    private final FastMethod readMethod;
+    private final FastField readField;
+    private final FastMethod writeMethod;
+    private final FastField writeField;
+}
@@ -0,0 +1,48 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+/**
+ * Formats the objects by the values of the fields, e.g. {@code Point{x=1, y=2}}, see {@link FastClass#stringifier(String...)}.
+ * The generated class appends the field names as constants and the primitive fields without boxing
+ *
+ * @param <T> the type of the objects formatted
+ */
+public abstract class FastStringifier<T> {
+    protected FastStringifier(FastClass<T> declaringClass) {
+        this.declaringClass = declaringClass;
+    }
+
+    public FastClass<T> getDeclaringClass() {
+        return declaringClass;
+    }
+
+    /**
+     * Append the simple class name and the fields of {@code obj} to {@code sb}, or {@code "null"} if {@code obj} is {@code null}
+     *
+     * @return the {@code sb}
+     */
+    public abstract StringBuilder append(StringBuilder sb, T obj) throws Throwable;
+
+    public String toString(T obj) throws Throwable {
+        return append(new StringBuilder(), obj).toString();
+    }
+
+    private final FastClass<T> declaringClass;
+}
@@ -0,0 +1,263 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import me.sunlan.fastreflection.generator.ClassData;
+import me.sunlan.fastreflection.generator.FastMemberGenerator;
+import me.sunlan.fastreflection.generator.MemberData;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Defines the classes of members as hidden classes on JDK 16+, which load the method handle resolved by the loader
+ * from their class data instead of resolving the member reflectively in the static block. The hidden classes are
+ * not registered by name, so the class of a member can be unloaded as soon as the fast member becomes unreachable.
+ * <p>
+ * Falls back to the named classes defined by {@link FastMemberLoader} on the older JDKs, or if the types of the member
+ * are not visible to fast-reflection, e.g. the member of the class loaded by a child class loader.
+ */
+public class HiddenFastMemberLoader implements MemberLoadable {
+    public static boolean isSupported() {
+        return null != DEFINE_HIDDEN_CLASS;
+    }
+
+    public HiddenFastMemberLoader() {
+        this(FastMemberLoader.getDefaultLoader());
+    }
+
+    /**
+     * @param fallbackLoader the loader of named classes, which is also used for {@link #load(MemberData)} and {@link #define(ClassData)}
+     */
+    public HiddenFastMemberLoader(FastMemberLoader fallbackLoader) {
+        this.fallbackLoader = fallbackLoader;
+    }
+
+    @Override
+    public <T extends FastMember> T load(FastMemberGenerator generator, Member member, boolean toSetAccessible) {
+        if (!isSupported() || !isVisible(generator, member)) {
+            return fallbackLoader.load(generator, member, toSetAccessible);
+        }
+
+        final FastMemberLoader.MemberKey memberKey = new FastMemberLoader.MemberKey(generator, member, toSetAccessible);
+        MemberReference reference = memberCache.get(memberKey);
+        FastMember result = null == reference ? null : reference.get();
+        if (null == result) {
+            expungeStaleEntries();
+            final FastMember[] holder = new FastMember[1];
+            memberCache.compute(memberKey, (k, r) -> {
+                FastMember fastMember = null == r ? null : r.get();
+                if (null == fastMember) {
+                    listener.onCacheMiss(member);
+                    final int[] classBytes = new int[1];
+                    fastMember = defineHidden(generator, member, toSetAccessible, classBytes);
+                    r = new MemberReference(k, fastMember, classBytes[0], staleReferences);
+                } else {
+                    listener.onCacheHit(member);
+                }
+                holder[0] = fastMember;
+                return r;
+            });
+            result = holder[0];
+        } else {
+            listener.onCacheHit(member);
+        }
+
+        // the generator generates the fast member of the type expected by the caller
+        @SuppressWarnings("unchecked")
+        final T fastMember = (T) result;
+        return fastMember;
+    }
+
+    @Override
+    public <T extends FastMember> T load(MemberData memberData) {
+        return fallbackLoader.load(memberData);
+    }
+
+    @Override
+    public Class<?> define(ClassData classData) {
+        return fallbackLoader.define(classData);
+    }
+
+    /**
+     * Set the listener of the events of loading members by hidden classes, the hidden classes are reported as retired
+     * once their members are found unreachable on the next cache miss. The listener of the fallback loader is set separately
+     */
+    public void setListener(FastMemberLoaderListener listener) {
+        this.listener = null == listener ? FastMemberLoaderListener.NOOP : listener;
+    }
+
+    private FastMember defineHidden(FastMemberGenerator generator, Member member, boolean toSetAccessible, int[] classBytes) {
+        final FastMemberLoaderListener listener = this.listener;
+        try {
+            MethodHandle methodHandle = generator.unreflect(LOOKUP, toSetAccessible ? toAccessible(member) : member);
+            long start = System.nanoTime();
+            MemberData memberData = generator.generateHidden(member);
+            listener.onGenerated(memberData, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            MethodHandles.Lookup hiddenClassLookup = (MethodHandles.Lookup) DEFINE_HIDDEN_CLASS.invoke(LOOKUP, memberData.getBytes(), (Object) methodHandle, true, NO_CLASS_OPTIONS);
+            listener.onDefined(memberData, System.nanoTime() - start);
+            classBytes[0] = memberData.getBytes().length;
+
+            start = System.nanoTime();
+            FastMember fastMember = (FastMember) hiddenClassLookup.lookupClass().getConstructor(member.getClass(), MemberLoadable.class).newInstance(member, this);
+            listener.onInitialized(memberData, System.nanoTime() - start);
+            return fastMember;
+        } catch (InvocationTargetException e) {
+            throw new FastInstantiationException(e.getCause());
+        } catch (Throwable t) {
+            throw new FastInstantiationException(t);
+        }
+    }
+
+    /**
+     * Define the generated class not holding any static state as a hidden class, e.g. the class of {@link BoundFastMethod},
+     * so that the class can be unloaded as soon as its instances become unreachable
+     *
+     * @return the hidden class, or {@code null} if hidden classes are not supported or the types of the member are not visible
+     */
+    static Class<?> defineHiddenClass(FastMemberGenerator generator, Member member, ClassData classData) {
+        if (!isSupported() || !isVisible(generator, member)) {
+            return null;
+        }
+        return defineHiddenClass(classData);
+    }
+
+    /**
+     * Define the generated class referencing only the types of fast-reflection and the JDK as a hidden class,
+     * e.g. the class of {@link FastCallSite}
+     *
+     * @return the hidden class, or {@code null} if hidden classes are not supported
+     */
+    static Class<?> defineHiddenClass(ClassData classData) {
+        if (!isSupported()) {
+            return null;
+        }
+        try {
+            return ((MethodHandles.Lookup) DEFINE_HIDDEN_CLASS_WITHOUT_DATA.invoke(LOOKUP, classData.getBytes(), true, NO_CLASS_OPTIONS)).lookupClass();
+        } catch (Throwable t) {
+            throw new FastInstantiationException(t);
+        }
+    }
+
+    /**
+     * Set the copy of the member accessible, the member itself may be shared by the callers
+     */
+    private static Member toAccessible(Member member) throws NoSuchMethodException, NoSuchFieldException {
+        final Class<?> declaringClass = member.getDeclaringClass();
+        final AccessibleObject result;
+        if (member instanceof Method) {
+            result = declaringClass.getDeclaredMethod(member.getName(), ((Method) member).getParameterTypes());
+        } else if (member instanceof Constructor) {
+            result = declaringClass.getDeclaredConstructor(((Constructor<?>) member).getParameterTypes());
+        } else {
+            result = declaringClass.getDeclaredField(member.getName());
+        }
+        AccessibleObjectHelper.trySetAccessible(result);
+        return (Member) result;
+    }
+
+    /**
+     * The hidden class is defined by the class loader of fast-reflection, which has to resolve the types referenced by the class
+     */
+    private static boolean isVisible(FastMemberGenerator generator, Member member) {
+        if (!isVisible(member.getDeclaringClass()) || !isVisible(generator.getInvokeMethodReturnType(member))) {
+            return false;
+        }
+        for (Class<?> parameterType : generator.getParameterTypes(member)) {
+            if (!isVisible(parameterType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        try {
+            return type == Class.forName(type.getName(), false, LOOKUP.lookupClass().getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private void expungeStaleEntries() {
+        for (Reference<? extends FastMember> reference; null != (reference = staleReferences.poll()); ) {
+            MemberReference memberReference = (MemberReference) reference;
+            memberCache.remove(memberReference.memberKey, memberReference);
+            listener.onRetired(1, memberReference.classBytes);
+        }
+    }
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodHandle DEFINE_HIDDEN_CLASS;
+    private static final MethodHandle DEFINE_HIDDEN_CLASS_WITHOUT_DATA;
+    private static final Object NO_CLASS_OPTIONS;
+    static {
+        MethodHandle defineHiddenClass = null;
+        MethodHandle defineHiddenClassWithoutData = null;
+        Object noClassOptions = null;
+        try {
+            noClassOptions = Array.newInstance(Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption"), 0);
+            MethodType methodType = MethodType.methodType(MethodHandles.Lookup.class, byte[].class, Object.class, boolean.class, noClassOptions.getClass());
+            defineHiddenClass = MethodHandles.publicLookup().findVirtual(MethodHandles.Lookup.class, "defineHiddenClassWithClassData", methodType).asFixedArity();
+            methodType = MethodType.methodType(MethodHandles.Lookup.class, byte[].class, boolean.class, noClassOptions.getClass());
+            defineHiddenClassWithoutData = MethodHandles.publicLookup().findVirtual(MethodHandles.Lookup.class, "defineHiddenClass", methodType).asFixedArity();
+        } catch (ReflectiveOperationException e) {
+            // hidden classes with class data are available since JDK 16
+        }
+        DEFINE_HIDDEN_CLASS = defineHiddenClass;
+        DEFINE_HIDDEN_CLASS_WITHOUT_DATA = defineHiddenClassWithoutData;
+        NO_CLASS_OPTIONS = noClassOptions;
+    }
+
+    private final FastMemberLoader fallbackLoader;
+    private volatile FastMemberLoaderListener listener = FastMemberLoaderListener.NOOP;
+    private final Map<FastMemberLoader.MemberKey, MemberReference> memberCache = new ConcurrentHashMap<>();
+    private final ReferenceQueue<FastMember> staleReferences = new ReferenceQueue<>();
+
+    private static final class MemberReference extends WeakReference<FastMember> {
+        private final FastMemberLoader.MemberKey memberKey;
+        private final int classBytes;
+
+        MemberReference(FastMemberLoader.MemberKey memberKey, FastMember fastMember, int classBytes, ReferenceQueue<FastMember> queue) {
+            super(fastMember, queue);
+            this.memberKey = memberKey;
+            this.classBytes = classBytes;
+        }
+    }
+}
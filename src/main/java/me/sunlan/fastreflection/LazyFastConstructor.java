@@ -42,6 +42,48 @@ final class LazyFastConstructor<T> extends FastConstructor<T> {
         return delegate.invoke(args);
     }
 
+    @Override
+    public Object invoke0() throws Throwable {
+        lazyInit();
+        return delegate.invoke0();
+    }
+
+    @Override
+    public Object invoke1(Object arg0) throws Throwable {
+        lazyInit();
+        return delegate.invoke1(arg0);
+    }
+
+    @Override
+    public Object invoke2(Object arg0, Object arg1) throws Throwable {
+        lazyInit();
+        return delegate.invoke2(arg0, arg1);
+    }
+
+    @Override
+    public Object invoke3(Object arg0, Object arg1, Object arg2) throws Throwable {
+        lazyInit();
+        return delegate.invoke3(arg0, arg1, arg2);
+    }
+
+    @Override
+    public Object invoke4(Object arg0, Object arg1, Object arg2, Object arg3) throws Throwable {
+        lazyInit();
+        return delegate.invoke4(arg0, arg1, arg2, arg3);
+    }
+
+    @Override
+    public Object invoke5(Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) throws Throwable {
+        lazyInit();
+        return delegate.invoke5(arg0, arg1, arg2, arg3, arg4);
+    }
+
+    @Override
+    public Object invoke6(Object arg0, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) throws Throwable {
+        lazyInit();
+        return delegate.invoke6(arg0, arg1, arg2, arg3, arg4, arg5);
+    }
+
     @Override
     public FastClass<T> getDeclaringClass() {
         lazyInit();
@@ -72,6 +114,24 @@ final class LazyFastConstructor<T> extends FastConstructor<T> {
         return delegate.getParameterTypes();
     }
 
+    @Override
+    public int getParameterCount() {
+        lazyInit();
+        return delegate.getParameterCount();
+    }
+
+    @Override
+    public FastClass<?> getParameterType(int index) {
+        lazyInit();
+        return delegate.getParameterType(index);
+    }
+
+    @Override
+    public <F> F as(Class<F> functionalInterface, boolean toSetAccessible) {
+        lazyInit();
+        return delegate.as(functionalInterface, toSetAccessible);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -30,6 +30,102 @@ final class LazyFastField extends FastField {
         delegate.set(obj, value);
     }
 
+    @Override
+    public boolean getBoolean(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.getBoolean(obj);
+    }
+
+    @Override
+    public byte getByte(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.getByte(obj);
+    }
+
+    @Override
+    public char getChar(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.getChar(obj);
+    }
+
+    @Override
+    public short getShort(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.getShort(obj);
+    }
+
+    @Override
+    public int getInt(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.getInt(obj);
+    }
+
+    @Override
+    public long getLong(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.getLong(obj);
+    }
+
+    @Override
+    public float getFloat(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.getFloat(obj);
+    }
+
+    @Override
+    public double getDouble(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.getDouble(obj);
+    }
+
+    @Override
+    public void setBoolean(Object obj, boolean value) throws Throwable {
+        lazyInit();
+        delegate.setBoolean(obj, value);
+    }
+
+    @Override
+    public void setByte(Object obj, byte value) throws Throwable {
+        lazyInit();
+        delegate.setByte(obj, value);
+    }
+
+    @Override
+    public void setChar(Object obj, char value) throws Throwable {
+        lazyInit();
+        delegate.setChar(obj, value);
+    }
+
+    @Override
+    public void setShort(Object obj, short value) throws Throwable {
+        lazyInit();
+        delegate.setShort(obj, value);
+    }
+
+    @Override
+    public void setInt(Object obj, int value) throws Throwable {
+        lazyInit();
+        delegate.setInt(obj, value);
+    }
+
+    @Override
+    public void setLong(Object obj, long value) throws Throwable {
+        lazyInit();
+        delegate.setLong(obj, value);
+    }
+
+    @Override
+    public void setFloat(Object obj, float value) throws Throwable {
+        lazyInit();
+        delegate.setFloat(obj, value);
+    }
+
+    @Override
+    public void setDouble(Object obj, double value) throws Throwable {
+        lazyInit();
+        delegate.setDouble(obj, value);
+    }
+
     @Override
     public FastClass<?> getDeclaringClass() {
         lazyInit();
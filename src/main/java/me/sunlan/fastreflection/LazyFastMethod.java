@@ -18,6 +18,8 @@
  */
 package me.sunlan.fastreflection;
 
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 final class LazyFastMethod extends FastMethod {
@@ -42,6 +44,120 @@ final class LazyFastMethod extends FastMethod {
         return delegate.invoke(obj, args);
     }
 
+    @Override
+    public Object invoke0(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.invoke0(obj);
+    }
+
+    @Override
+    public Object invoke1(Object obj, Object arg0) throws Throwable {
+        lazyInit();
+        return delegate.invoke1(obj, arg0);
+    }
+
+    @Override
+    public Object invoke2(Object obj, Object arg0, Object arg1) throws Throwable {
+        lazyInit();
+        return delegate.invoke2(obj, arg0, arg1);
+    }
+
+    @Override
+    public Object invoke3(Object obj, Object arg0, Object arg1, Object arg2) throws Throwable {
+        lazyInit();
+        return delegate.invoke3(obj, arg0, arg1, arg2);
+    }
+
+    @Override
+    public Object invoke4(Object obj, Object arg0, Object arg1, Object arg2, Object arg3) throws Throwable {
+        lazyInit();
+        return delegate.invoke4(obj, arg0, arg1, arg2, arg3);
+    }
+
+    @Override
+    public Object invoke5(Object obj, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) throws Throwable {
+        lazyInit();
+        return delegate.invoke5(obj, arg0, arg1, arg2, arg3, arg4);
+    }
+
+    @Override
+    public Object invoke6(Object obj, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) throws Throwable {
+        lazyInit();
+        return delegate.invoke6(obj, arg0, arg1, arg2, arg3, arg4, arg5);
+    }
+
+    @Override
+    public int invokeAsInt(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.invokeAsInt(obj);
+    }
+
+    @Override
+    public int invokeAsInt(Object obj, Object... args) throws Throwable {
+        lazyInit();
+        return delegate.invokeAsInt(obj, args);
+    }
+
+    @Override
+    public long invokeAsLong(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.invokeAsLong(obj);
+    }
+
+    @Override
+    public long invokeAsLong(Object obj, Object... args) throws Throwable {
+        lazyInit();
+        return delegate.invokeAsLong(obj, args);
+    }
+
+    @Override
+    public double invokeAsDouble(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.invokeAsDouble(obj);
+    }
+
+    @Override
+    public double invokeAsDouble(Object obj, Object... args) throws Throwable {
+        lazyInit();
+        return delegate.invokeAsDouble(obj, args);
+    }
+
+    @Override
+    public boolean invokeAsBoolean(Object obj) throws Throwable {
+        lazyInit();
+        return delegate.invokeAsBoolean(obj);
+    }
+
+    @Override
+    public boolean invokeAsBoolean(Object obj, Object... args) throws Throwable {
+        lazyInit();
+        return delegate.invokeAsBoolean(obj, args);
+    }
+
+    @Override
+    public Object invoke1(Object obj, int arg0) throws Throwable {
+        lazyInit();
+        return delegate.invoke1(obj, arg0);
+    }
+
+    @Override
+    public Object invoke1(Object obj, long arg0) throws Throwable {
+        lazyInit();
+        return delegate.invoke1(obj, arg0);
+    }
+
+    @Override
+    public Object invoke1(Object obj, double arg0) throws Throwable {
+        lazyInit();
+        return delegate.invoke1(obj, arg0);
+    }
+
+    @Override
+    public Object invoke1(Object obj, boolean arg0) throws Throwable {
+        lazyInit();
+        return delegate.invoke1(obj, arg0);
+    }
+
     @Override
     public FastClass<?> getDeclaringClass() {
         lazyInit();
@@ -72,12 +188,72 @@ final class LazyFastMethod extends FastMethod {
         return delegate.getParameterTypes();
     }
 
+    @Override
+    public int getParameterCount() {
+        lazyInit();
+        return delegate.getParameterCount();
+    }
+
+    @Override
+    public FastClass<?> getParameterType(int index) {
+        lazyInit();
+        return delegate.getParameterType(index);
+    }
+
     @Override
     public boolean isVarArgs() {
         lazyInit();
         return delegate.isVarArgs();
     }
 
+    @Override
+    public void invokeAll(Object[] receivers, int fromIndex, int toIndex, Object[] out, Object... args) throws Throwable {
+        lazyInit();
+        delegate.invokeAll(receivers, fromIndex, toIndex, out, args);
+    }
+
+    @Override
+    public void invokeAllAsInt(Object[] receivers, int fromIndex, int toIndex, int[] out, Object... args) throws Throwable {
+        lazyInit();
+        delegate.invokeAllAsInt(receivers, fromIndex, toIndex, out, args);
+    }
+
+    @Override
+    public void invokeAllAsLong(Object[] receivers, int fromIndex, int toIndex, long[] out, Object... args) throws Throwable {
+        lazyInit();
+        delegate.invokeAllAsLong(receivers, fromIndex, toIndex, out, args);
+    }
+
+    @Override
+    public void invokeAllAsDouble(Object[] receivers, int fromIndex, int toIndex, double[] out, Object... args) throws Throwable {
+        lazyInit();
+        delegate.invokeAllAsDouble(receivers, fromIndex, toIndex, out, args);
+    }
+
+    @Override
+    public void invokeAllAsBoolean(Object[] receivers, int fromIndex, int toIndex, boolean[] out, Object... args) throws Throwable {
+        lazyInit();
+        delegate.invokeAllAsBoolean(receivers, fromIndex, toIndex, out, args);
+    }
+
+    @Override
+    public void invokeAll(List<?> receivers, Consumer<?> action, Object... args) throws Throwable {
+        lazyInit();
+        delegate.invokeAll(receivers, action, args);
+    }
+
+    @Override
+    public <F> F as(Class<F> functionalInterface, boolean toSetAccessible) {
+        lazyInit();
+        return delegate.as(functionalInterface, toSetAccessible);
+    }
+
+    @Override
+    public BoundFastMethod bindTo(Object obj, Object... leadingArgs) {
+        lazyInit();
+        return delegate.bindTo(obj, leadingArgs);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -18,8 +18,24 @@
  */
 package me.sunlan.fastreflection;
 
+import me.sunlan.fastreflection.generator.ClassData;
+import me.sunlan.fastreflection.generator.FastMemberGenerator;
 import me.sunlan.fastreflection.generator.MemberData;
 
+import java.lang.reflect.Member;
+
 public interface MemberLoadable {
     <T extends FastMember> T load(MemberData classData);
+
+    default <T extends FastMember> T load(FastMemberGenerator generator, Member member, boolean toSetAccessible) {
+        return load(generator.generate(member, toSetAccessible));
+    }
+
+    /**
+     * Define the class generated for the members, e.g. the dispatcher, copier and map converter.
+     * The default defines it by a throwaway {@link FastMemberLoader}, so that the loaders implemented before this method keep working
+     */
+    default Class<?> define(ClassData classData) {
+        return new FastMemberLoader().define(classData);
+    }
 }
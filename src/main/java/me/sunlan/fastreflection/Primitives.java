@@ -0,0 +1,148 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+/**
+ * The conversions between the primitive types and their wrappers: unboxing the values with the widening primitive conversions
+ * for the typed entry points not overridden by the generated classes, e.g. {@link FastMethod#invokeAsInt(Object)}, and widening
+ * the values and comparing the types by the method invocation conversion for binding the arguments and resolving the overloads,
+ * e.g. {@link FastOverloads}
+ */
+final class Primitives {
+    static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        throw cannotConvert(value, boolean.class);
+    }
+
+    static byte toByte(Object value) {
+        if (value instanceof Byte) {
+            return (Byte) value;
+        }
+        throw cannotConvert(value, byte.class);
+    }
+
+    static char toChar(Object value) {
+        if (value instanceof Character) {
+            return (Character) value;
+        }
+        throw cannotConvert(value, char.class);
+    }
+
+    static short toShort(Object value) {
+        if (value instanceof Short || value instanceof Byte) {
+            return ((Number) value).shortValue();
+        }
+        throw cannotConvert(value, short.class);
+    }
+
+    static int toInt(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof Character) {
+            return (Character) value;
+        }
+        throw cannotConvert(value, int.class);
+    }
+
+    static long toLong(Object value) {
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        return toInt(value);
+    }
+
+    static float toFloat(Object value) {
+        if (value instanceof Float) {
+            return (Float) value;
+        }
+        return toLong(value);
+    }
+
+    static double toDouble(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            return ((Number) value).doubleValue();
+        }
+        return toLong(value);
+    }
+
+    /**
+     * Convert the value to the wrapper of the primitive type, e.g. {@code Integer} to {@code Long} for {@code long}
+     */
+    static Object widen(Object value, Class<?> primitiveType) {
+        if (int.class == primitiveType) return toInt(value);
+        if (long.class == primitiveType) return toLong(value);
+        if (double.class == primitiveType) return toDouble(value);
+        if (boolean.class == primitiveType) return toBoolean(value);
+        if (float.class == primitiveType) return toFloat(value);
+        if (char.class == primitiveType) return toChar(value);
+        if (byte.class == primitiveType) return toByte(value);
+        if (short.class == primitiveType) return toShort(value);
+        throw cannotConvert(value, primitiveType);
+    }
+
+    /**
+     * @return the primitive type of the wrapper, or {@code null} if not a wrapper
+     */
+    static Class<?> unwrap(Class<?> type) {
+        if (Integer.class == type) return int.class;
+        if (Long.class == type) return long.class;
+        if (Double.class == type) return double.class;
+        if (Boolean.class == type) return boolean.class;
+        if (Float.class == type) return float.class;
+        if (Character.class == type) return char.class;
+        if (Byte.class == type) return byte.class;
+        if (Short.class == type) return short.class;
+        return null;
+    }
+
+    static Class<?> wrap(Class<?> primitiveType) {
+        if (int.class == primitiveType) return Integer.class;
+        if (long.class == primitiveType) return Long.class;
+        if (double.class == primitiveType) return Double.class;
+        if (boolean.class == primitiveType) return Boolean.class;
+        if (float.class == primitiveType) return Float.class;
+        if (char.class == primitiveType) return Character.class;
+        if (byte.class == primitiveType) return Byte.class;
+        if (short.class == primitiveType) return Short.class;
+        return primitiveType;
+    }
+
+    /**
+     * Check whether the primitive type is identical to or can be widened to the other one, e.g. {@code int} to {@code long}
+     */
+    static boolean isWidening(Class<?> from, Class<?> to) {
+        if (from == to) return true;
+        if (boolean.class == from || boolean.class == to || char.class == to || byte.class == to) return false;
+        if (short.class == to) return byte.class == from;
+        if (int.class == to) return byte.class == from || short.class == from || char.class == from;
+        if (long.class == to) return isWidening(from, int.class);
+        if (float.class == to) return isWidening(from, long.class);
+        if (double.class == to) return isWidening(from, float.class);
+        return false;
+    }
+
+    private static ClassCastException cannotConvert(Object value, Class<?> primitiveType) {
+        return new ClassCastException("cannot convert to " + primitiveType.getName() + ": " + (null == value ? null : value.getClass().getName()));
+    }
+
+    private Primitives() {}
+}
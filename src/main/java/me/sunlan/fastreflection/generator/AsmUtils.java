@@ -18,20 +18,52 @@
  */
 package me.sunlan.fastreflection.generator;
 
+import me.sunlan.fastreflection.FastClass;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
 import static org.objectweb.asm.Opcodes.ACONST_NULL;
+import static org.objectweb.asm.Opcodes.ALOAD;
 import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.ATHROW;
 import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
 import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INSTANCEOF;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
 import static org.objectweb.asm.Opcodes.INVOKESTATIC;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Type.getDescriptor;
 import static org.objectweb.asm.Type.getInternalName;
 
 class AsmUtils {
@@ -45,19 +77,129 @@ class AsmUtils {
         }
     }
 
+    /**
+     * Cast the argument to the parameter type, the wrappers of narrower primitive types are accepted as
+     * {@code Method.invoke} does, e.g. {@code Integer} and {@code Character} for {@code long}. The exact wrapper
+     * is checked first, the others are checked in turn only if it does not match
+     */
+    public static void castArgument(MethodVisitor mv, Class<?> parameterType) {
+        final Class<?>[] sourceTypes = WIDENING_SOURCE_TYPES.get(parameterType);
+        if (null == sourceTypes) {
+            cast(mv, parameterType);
+            return;
+        }
+
+        Label end = new Label();
+        for (Class<?> sourceType : sourceTypes) {
+            String wrapperInternalName = getInternalName(getWrapper(sourceType));
+            Label next = new Label();
+            mv.visitInsn(DUP);
+            mv.visitTypeInsn(INSTANCEOF, wrapperInternalName);
+            mv.visitJumpInsn(IFEQ, next);
+            cast(mv, sourceType);
+            FastExecutableGenerator.visitWidening(mv, FastExecutableGenerator.getWideningOpcode(sourceType, parameterType));
+            mv.visitJumpInsn(GOTO, end);
+            mv.visitLabel(next);
+        }
+        // neither matches, so fail as the strict cast does, e.g. `ClassCastException` and `NullPointerException`
+        cast(mv, parameterType);
+        mv.visitLabel(end);
+    }
+
+    /**
+     * Jump to {@code notApplicable} unless the argument loaded by {@code argumentLoader} can be passed as the parameter
+     * by {@link #castArgument(MethodVisitor, Class)}, i.e. {@code null} or an instance for the reference types,
+     * and the exact or a narrower wrapper for the primitive types
+     */
+    public static void visitApplicabilityCheck(MethodVisitor mv, Class<?> parameterType, Consumer<MethodVisitor> argumentLoader, Label notApplicable) {
+        if (Object.class == parameterType) {
+            return;
+        }
+        if (!parameterType.isPrimitive()) {
+            Label applicable = new Label();
+            Label isNull = new Label();
+            argumentLoader.accept(mv);
+            mv.visitInsn(DUP);
+            mv.visitJumpInsn(IFNULL, isNull);
+            mv.visitTypeInsn(INSTANCEOF, getInternalName(parameterType));
+            mv.visitJumpInsn(IFEQ, notApplicable);
+            mv.visitJumpInsn(GOTO, applicable);
+            mv.visitLabel(isNull);
+            mv.visitInsn(POP);
+            mv.visitLabel(applicable);
+            return;
+        }
+
+        final Class<?>[] sourceTypes = WIDENING_SOURCE_TYPES.getOrDefault(parameterType, new Class<?>[] {parameterType});
+        Label applicable = new Label();
+        for (Class<?> sourceType : sourceTypes) {
+            argumentLoader.accept(mv);
+            mv.visitTypeInsn(INSTANCEOF, getInternalName(getWrapper(sourceType)));
+            mv.visitJumpInsn(IFNE, applicable);
+        }
+        mv.visitJumpInsn(GOTO, notApplicable);
+        mv.visitLabel(applicable);
+    }
+
+    /**
+     * Switch on the string in the local variable {@code keyIndex} by its hash code, then tell apart the keys of the
+     * same hash code by {@code equals}. The code of each case is generated by {@code caseVisitor} and must not fall
+     * through, the unknown keys and {@code null} jump to {@code defaultLabel}
+     */
+    public static void visitStringSwitch(MethodVisitor mv, int keyIndex, Collection<String> keys, Label defaultLabel, BiConsumer<MethodVisitor, String> caseVisitor) {
+        // grouped by the hash codes, sorted for `lookupswitch`
+        final Map<Integer, List<String>> buckets = new TreeMap<>();
+        for (String key : keys) {
+            buckets.computeIfAbsent(key.hashCode(), h -> new ArrayList<>()).add(key);
+        }
+
+        final int[] hashes = new int[buckets.size()];
+        final Label[] labels = new Label[buckets.size()];
+        int i = 0;
+        for (Integer hash : buckets.keySet()) {
+            hashes[i] = hash;
+            labels[i++] = new Label();
+        }
+        mv.visitVarInsn(ALOAD, keyIndex);
+        mv.visitJumpInsn(IFNULL, defaultLabel);
+        mv.visitVarInsn(ALOAD, keyIndex);
+        mv.visitMethodInsn(INVOKEVIRTUAL, OBJECT_INTERNAL_NAME, "hashCode", "()I", false);
+        mv.visitLookupSwitchInsn(defaultLabel, hashes, labels);
+
+        i = 0;
+        for (List<String> bucket : buckets.values()) {
+            mv.visitLabel(labels[i++]);
+            for (String key : bucket) {
+                Label next = new Label();
+                // `equals` of the constant also rejects the keys of other types
+                mv.visitLdcInsn(key);
+                mv.visitVarInsn(ALOAD, keyIndex);
+                mv.visitMethodInsn(INVOKEVIRTUAL, STRING_INTERNAL_NAME, "equals", "(Ljava/lang/Object;)Z", false);
+                mv.visitJumpInsn(IFEQ, next);
+                caseVisitor.accept(mv, key);
+                mv.visitLabel(next);
+            }
+            mv.visitJumpInsn(GOTO, defaultLabel);
+        }
+    }
+
     public static void doReturn(MethodVisitor mv, Class<?> returnType) {
         if (void.class == returnType) {
             mv.visitInsn(ACONST_NULL);
         } else {
             if (returnType.isPrimitive()) {
-                Class<?> returnTypeWrapper = getWrapper(returnType);
-                String valueOfMethodDescriptor = getMethodDescriptor(returnTypeWrapper, new Class[] {returnType});
-                mv.visitMethodInsn(INVOKESTATIC, getInternalName(returnTypeWrapper), "valueOf", valueOfMethodDescriptor, false);
+                box(mv, returnType);
             }
         }
         mv.visitInsn(ARETURN);
     }
 
+    public static void box(MethodVisitor mv, Class<?> primitiveType) {
+        Class<?> wrapper = getWrapper(primitiveType);
+        String valueOfMethodDescriptor = getMethodDescriptor(wrapper, new Class[] {primitiveType});
+        mv.visitMethodInsn(INVOKESTATIC, getInternalName(wrapper), "valueOf", valueOfMethodDescriptor, false);
+    }
+
     public static void visitLdcTypeInsn(MethodVisitor mv, Class<?> type) {
         if (type.isPrimitive()) {
             mv.visitFieldInsn(GETSTATIC, getInternalName(getWrapper(type)), "TYPE", "Ljava/lang/Class;");
@@ -78,6 +220,121 @@ class AsmUtils {
         return buffer.toString();
     }
 
+    /**
+     * Generate the constant getter handles of the fields not accessible by plain bytecode, and the static block resolving them.
+     * The generated classes read the fields {@link FastFieldGetterGenerator#isDirectlyAccessible directly accessible} by plain bytecode,
+     * and the others by these handles, which are resolved once and stay constant to the JIT compiler
+     *
+     * @return the loaders of the getter handles, {@code null} for the fields accessible by plain bytecode
+     */
+    public static List<Consumer<MethodVisitor>> generateGetterHandles(ClassWriter classWriter, String internalClassName, Field[] fields, boolean toSetAccessible) {
+        final List<Consumer<MethodVisitor>> getterLoaders = new ArrayList<>(fields.length);
+        for (int i = 0; i < fields.length; i++) {
+            if (FastFieldGetterGenerator.INSTANCE.isDirectlyAccessible(fields[i])) {
+                getterLoaders.add(null);
+            } else {
+                classWriter.visitField(ACC_PRIVATE | ACC_FINAL | ACC_STATIC, GETTER + i, METHODHANDLE_DESCRIPTOR, null, null).visitEnd();
+                getterLoaders.add(methodHandleLoader(internalClassName, GETTER + i));
+            }
+        }
+        if (getterLoaders.stream().anyMatch(Objects::nonNull)) {
+            generateStaticBlock(classWriter, mv -> {
+                for (int i = 0; i < fields.length; i++) {
+                    if (null == getterLoaders.get(i)) continue;
+                    FastFieldGetterGenerator.INSTANCE.visitFindMethodHandle(mv, fields[i], EMPTY_CLASS_ARRAY, toSetAccessible);
+                    mv.visitFieldInsn(PUTSTATIC, internalClassName, GETTER + i, METHODHANDLE_DESCRIPTOR);
+                }
+            });
+        }
+        return getterLoaders;
+    }
+
+    /**
+     * Generate the static block resolving the method handles, the failure is wrapped in {@link me.sunlan.fastreflection.FastInstantiationException}
+     */
+    public static void generateStaticBlock(ClassWriter classWriter, Consumer<MethodVisitor> initializer) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+        mv.visitCode();
+        Label start = new Label();
+        Label end = new Label();
+        Label handler = new Label();
+        Label next = new Label();
+        mv.visitTryCatchBlock(start, end, handler, THROWABLE_INTERNAL_NAME);
+        mv.visitLabel(start);
+        initializer.accept(mv);
+        mv.visitLabel(end);
+        mv.visitJumpInsn(GOTO, next);
+        mv.visitLabel(handler);
+        mv.visitVarInsn(ASTORE, 1);
+        mv.visitTypeInsn(NEW, FASTINSTANTIATIONEXCEPTION_INTERNAL_NAME);
+        mv.visitInsn(DUP);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKESPECIAL, FASTINSTANTIATIONEXCEPTION_INTERNAL_NAME, INIT, "(" + THROWABLE_DESCRIPTOR + ")V", false);
+        mv.visitInsn(ATHROW);
+        mv.visitLabel(next);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Generate the constructor taking the {@link FastClass} and the flag whether to set accessible
+     */
+    public static void generateConstructor(ClassWriter classWriter, String superInternalName) {
+        generateConstructor(classWriter, superInternalName, true);
+    }
+
+    /**
+     * Generate the constructor taking the {@link FastClass}, and the flag whether to set accessible if {@code withFlag}
+     */
+    public static void generateConstructor(ClassWriter classWriter, String superInternalName, boolean withFlag) {
+        final String descriptor = withFlag ? CONSTRUCTOR_DESCRIPTOR : "(" + getDescriptor(FastClass.class) + ")V";
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, INIT, descriptor, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        if (withFlag) {
+            mv.visitVarInsn(ILOAD, 2);
+        }
+        mv.visitMethodInsn(INVOKESPECIAL, superInternalName, INIT, descriptor, false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    public static Consumer<MethodVisitor> methodHandleLoader(String internalClassName, String fieldName) {
+        return mv -> mv.visitFieldInsn(GETSTATIC, internalClassName, fieldName, METHODHANDLE_DESCRIPTOR);
+    }
+
+    public static Consumer<MethodVisitor> targetLoader(Member member, int index) {
+        return mv -> {
+            mv.visitVarInsn(ALOAD, index);
+            cast(mv, member.getDeclaringClass());
+        };
+    }
+
+    private static final String OBJECT_INTERNAL_NAME = getInternalName(Object.class);
+    private static final String INIT = "<init>";
+    private static final String GETTER = "GETTER";
+    private static final Class<?>[] EMPTY_CLASS_ARRAY = new Class<?>[0];
+    private static final String CONSTRUCTOR_DESCRIPTOR = "(" + getDescriptor(FastClass.class) + "Z)V";
+    private static final String METHODHANDLE_DESCRIPTOR = FastExecutableGenerator.METHODHANDLE_DESCRIPTOR;
+    private static final String THROWABLE_INTERNAL_NAME = FastExecutableGenerator.THROWABLE_INTERNAL_NAME;
+    private static final String THROWABLE_DESCRIPTOR = FastExecutableGenerator.THROWABLE_DESCRIPTOR;
+    private static final String FASTINSTANTIATIONEXCEPTION_INTERNAL_NAME = FastExecutableGenerator.FASTINSTANTIATIONEXCEPTION_INTERNAL_NAME;
+    private static final String STRING_INTERNAL_NAME = getInternalName(String.class);
+    private static final Map<Class<?>, Class<?>[]> WIDENING_SOURCE_TYPES;
+    static {
+        Map<Class<?>, Class<?>[]> m = new HashMap<>();
+        // the exact type goes first, then the others from the most likely
+        m.put(short.class, new Class<?>[] {short.class, byte.class});
+        m.put(int.class, new Class<?>[] {int.class, short.class, byte.class, char.class});
+        m.put(long.class, new Class<?>[] {long.class, int.class, short.class, byte.class, char.class});
+        m.put(float.class, new Class<?>[] {float.class, int.class, long.class, short.class, byte.class, char.class});
+        m.put(double.class, new Class<?>[] {double.class, int.class, long.class, float.class, short.class, byte.class, char.class});
+        WIDENING_SOURCE_TYPES = Collections.unmodifiableMap(m);
+    }
+
     private static final Map<Class<?>, Class<?>> PRIMITIVES_TO_WRAPPERS;
     static {
         Map<Class<?>, Class<?>> m = new HashMap<>();
@@ -0,0 +1,378 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection.generator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Member;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Persists the generated classes of members in a directory, so that they are not generated again after restarting the JVM.
+ * The store consists of a blob file holding the bytes and an index file of the records {@code [key, offset, length]},
+ * the blob is memory-mapped when opened. The key consists of the class name, which encodes the kind of the member and
+ * the accessible flag, the signature of the member and the CRC32 of the class file declaring the member, so the entries
+ * become stale once the class changes.
+ * <p>
+ * The files are append-only, and their names carry the format version of the generator, see {@link FastMemberGenerator#FORMAT_VERSION},
+ * and a generation number. Once the blob exceeds the maximum size, the stale entries are dropped by rotating to
+ * the next generation, which starts empty, and the files of the older generations are deleted.
+ * The files written in another format are left to the JVMs using them.
+ * <p>
+ * The directory can be shared by JVMs, but not by the stores in the same JVM. The store is opt-in, e.g. {@code new FastMemberLoader(parent, new PregeneratedMemberDataStore(parent), DiskMemberDataStore.open(dir))}
+ */
+public class DiskMemberDataStore implements MemberDataStore, Closeable {
+    public static final long DEFAULT_MAX_BLOB_SIZE = 256L * 1024 * 1024;
+
+    public static DiskMemberDataStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_MAX_BLOB_SIZE);
+    }
+
+    /**
+     * @param maxBlobSize the size of the blob file to rotate to the next generation at
+     */
+    public static DiskMemberDataStore open(Path directory, long maxBlobSize) throws IOException {
+        if (maxBlobSize <= 0) {
+            throw new IllegalArgumentException("maxBlobSize should be positive, but " + maxBlobSize);
+        }
+        Files.createDirectories(directory);
+        return new DiskMemberDataStore(directory, maxBlobSize, Generation.open(directory, latestGeneration(directory)));
+    }
+
+    private DiskMemberDataStore(Path directory, long maxBlobSize, Generation generation) {
+        this.directory = directory;
+        this.maxBlobSize = maxBlobSize;
+        this.generation = generation;
+    }
+
+    @Override
+    public MemberData find(String className, Member member) {
+        String key = keyOf(className, member);
+        if (null == key) {
+            return null;
+        }
+
+        final Generation generation = this.generation;
+        long[] location = generation.index.get(key);
+        if (null == location) {
+            return null;
+        }
+
+        try {
+            return new MemberData(member, className, generation.readBlob(location[0], (int) location[1]));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void store(MemberData memberData) {
+        String key = keyOf(memberData.getName(), memberData.getMember());
+        if (null == key || generation.index.containsKey(key)) {
+            return;
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = memberData.getBytes();
+        synchronized (this) {
+            try {
+                while (!generation.append(key, keyBytes, bytes, maxBlobSize, directory)) {
+                    rotate();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        // the retired generations are closed here rather than when rotating, because `find` may be reading them
+        retiredGenerations.add(generation);
+        IOException failure = null;
+        for (Generation retiredGeneration : retiredGenerations) {
+            try {
+                retiredGeneration.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        retiredGenerations.clear();
+        if (null != failure) {
+            throw failure;
+        }
+    }
+
+    private void rotate() throws IOException {
+        // another JVM may have rotated already, so join its generation rather than creating yet another one
+        final Generation oldGeneration = generation;
+        Generation newGeneration = Generation.open(directory, Math.max(oldGeneration.number + 1, latestGeneration(directory)));
+        retiredGenerations.add(oldGeneration);
+        generation = newGeneration;
+
+        for (int number = newGeneration.number - 1; number >= 0; number--) {
+            // the other JVMs keep reading the deleted files by their open channels and mappings
+            try {
+                boolean deleted = Files.deleteIfExists(directory.resolve(fileName(number, INDEX_FILE_SUFFIX)));
+                deleted |= Files.deleteIfExists(directory.resolve(fileName(number, BLOB_FILE_SUFFIX)));
+                if (!deleted) {
+                    break;
+                }
+            } catch (IOException e) {
+                // still in use, e.g. on Windows, so leave it to the next rotation
+            }
+        }
+    }
+
+    private static int latestGeneration(Path directory) throws IOException {
+        int result = 0;
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, FILE_NAME_PREFIX + '*' + INDEX_FILE_SUFFIX)) {
+            for (Path path : paths) {
+                String fileName = path.getFileName().toString();
+                try {
+                    result = Math.max(result, Integer.parseInt(fileName.substring(FILE_NAME_PREFIX.length(), fileName.length() - INDEX_FILE_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // not written by the store
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String fileName(int generation, String suffix) {
+        return FILE_NAME_PREFIX + generation + suffix;
+    }
+
+    private static final class Generation implements Closeable {
+        static Generation open(Path directory, int number) throws IOException {
+            FileChannel indexChannel = FileChannel.open(directory.resolve(fileName(number, INDEX_FILE_SUFFIX)), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileChannel blobChannel = null;
+            try {
+                blobChannel = FileChannel.open(directory.resolve(fileName(number, BLOB_FILE_SUFFIX)), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                return new Generation(number, indexChannel, blobChannel);
+            } catch (IOException | RuntimeException e) {
+                indexChannel.close();
+                if (null != blobChannel) {
+                    blobChannel.close();
+                }
+                throw e;
+            }
+        }
+
+        private Generation(int number, FileChannel indexChannel, FileChannel blobChannel) throws IOException {
+            this.number = number;
+            this.indexChannel = indexChannel;
+            this.blobChannel = blobChannel;
+            FileLock lock = indexChannel.lock();
+            try {
+                this.valid = readIndex();
+                // map at most 2 GiB, which `readBlob` falls back to reading by the channel beyond
+                this.blobBuffer = blobChannel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(blobChannel.size(), Integer.MAX_VALUE));
+            } finally {
+                lock.release();
+            }
+        }
+
+        /**
+         * @return {@code false} if the generation is full or not usable, i.e. the caller has to rotate to the next generation
+         */
+        boolean append(String key, byte[] keyBytes, byte[] bytes, long maxBlobSize, Path directory) throws IOException {
+            if (!valid) {
+                return false;
+            }
+
+            // the lock guards against the other JVMs sharing the directory
+            FileLock lock = indexChannel.lock();
+            try {
+                long offset = blobChannel.size();
+                if (offset > 0 && offset + bytes.length > maxBlobSize || Files.exists(directory.resolve(fileName(number + 1, INDEX_FILE_SUFFIX)))) {
+                    return false;
+                }
+                writeFully(blobChannel, ByteBuffer.wrap(bytes), offset);
+
+                ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + keyBytes.length + Long.BYTES + Integer.BYTES);
+                record.putInt(keyBytes.length).put(keyBytes).putLong(offset).putInt(bytes.length).flip();
+                writeFully(indexChannel, record, indexChannel.size());
+
+                index.put(key, new long[] {offset, bytes.length});
+                return true;
+            } finally {
+                lock.release();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                indexChannel.close();
+            } finally {
+                blobChannel.close();
+            }
+        }
+
+        /**
+         * The blob is never truncated, because the other JVMs sharing it may have mapped it, while the index is read under the lock only
+         *
+         * @return {@code false} if the index was not written by the store
+         */
+        private boolean readIndex() throws IOException {
+            long size = indexChannel.size();
+            if (size < HEADER.length) {
+                // new, or the JVM crashed while writing the header
+                writeFully(indexChannel, ByteBuffer.wrap(HEADER), 0);
+                return true;
+            }
+            if (size > Integer.MAX_VALUE) {
+                return false;
+            }
+
+            ByteBuffer indexBuffer = ByteBuffer.allocate((int) size);
+            while (indexBuffer.hasRemaining() && indexChannel.read(indexBuffer, indexBuffer.position()) >= 0) {
+                // read fully
+            }
+            indexBuffer.flip();
+            if (!hasHeader(indexBuffer)) {
+                return false;
+            }
+
+            final long blobSize = blobChannel.size();
+            int validSize = indexBuffer.position();
+            while (indexBuffer.remaining() >= Integer.BYTES) {
+                int keyLength = indexBuffer.getInt();
+                if (keyLength < 0 || indexBuffer.remaining() < keyLength + Long.BYTES + Integer.BYTES) {
+                    break;
+                }
+                byte[] keyBytes = new byte[keyLength];
+                indexBuffer.get(keyBytes);
+                long offset = indexBuffer.getLong();
+                int length = indexBuffer.getInt();
+                if (offset < 0 || length < 0 || offset + length > blobSize) {
+                    break;
+                }
+                index.put(new String(keyBytes, StandardCharsets.UTF_8), new long[] {offset, length});
+                validSize = indexBuffer.position();
+            }
+
+            if (validSize < size) {
+                // drop the record partially written, e.g. the JVM crashed while storing
+                indexChannel.truncate(validSize);
+            }
+            return true;
+        }
+
+        private byte[] readBlob(long offset, int length) throws IOException {
+            byte[] result = new byte[length];
+            if (offset + length <= blobBuffer.capacity()) {
+                ByteBuffer slice = blobBuffer.duplicate();
+                slice.position((int) offset);
+                slice.get(result);
+                return result;
+            }
+
+            // stored after the blob file was mapped, or beyond the mapped part
+            ByteBuffer buffer = ByteBuffer.wrap(result);
+            while (buffer.hasRemaining()) {
+                if (blobChannel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("unexpected end of " + fileName(number, BLOB_FILE_SUFFIX));
+                }
+            }
+            return result;
+        }
+
+        final int number;
+        private final boolean valid;
+        private final FileChannel indexChannel;
+        private final FileChannel blobChannel;
+        private final MappedByteBuffer blobBuffer;
+        private final Map<String, long[]> index = new ConcurrentHashMap<>();
+    }
+
+    private static boolean hasHeader(ByteBuffer buffer) {
+        for (byte b : HEADER) {
+            if (b != buffer.get()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static String keyOf(String className, Member member) {
+        String classFileHash = CLASS_FILE_HASH.get(member.getDeclaringClass());
+        if (classFileHash.isEmpty()) {
+            // the class file is not available, e.g. the class is generated at runtime
+            return null;
+        }
+        return className + '\n' + PregeneratedMemberDataStore.signatureOf(member) + '\n' + classFileHash;
+    }
+
+    private static String classFileHash(Class<?> clazz) {
+        final String className = clazz.getName();
+        try (InputStream inputStream = clazz.getResourceAsStream('/' + className.replace('.', '/') + ".class")) {
+            if (null == inputStream) {
+                return "";
+            }
+            CRC32 crc32 = new CRC32();
+            byte[] buffer = new byte[4096];
+            long length = 0;
+            for (int n; -1 != (n = inputStream.read(buffer)); length += n) {
+                crc32.update(buffer, 0, n);
+            }
+            return Long.toHexString(crc32.getValue()) + '-' + Long.toHexString(length);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private static final int STORE_FORMAT_VERSION = 2;
+    private static final String INDEX_FILE_SUFFIX = ".idx";
+    private static final String BLOB_FILE_SUFFIX = ".bin";
+    private static final String FILE_NAME_PREFIX = "members-" + FastMemberGenerator.FORMAT_VERSION + '.' + STORE_FORMAT_VERSION + '-';
+    private static final byte[] HEADER = (PregeneratedMemberDataStore.VERSION_HEADER + " disk-store " + STORE_FORMAT_VERSION + "\n").getBytes(StandardCharsets.UTF_8);
+    private static final ClassValue<String> CLASS_FILE_HASH = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return classFileHash(type);
+        }
+    };
+    private final Path directory;
+    private final long maxBlobSize;
+    private volatile Generation generation;
+    private final List<Generation> retiredGenerations = new ArrayList<>();
+}
@@ -18,22 +18,92 @@
  */
 package me.sunlan.fastreflection.generator;
 
-import java.math.BigInteger;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
 
 class EncodingUtils {
-    public static String md5(String str) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            md.update(str.getBytes());
-            byte[] digest = md.digest();
-
-            return new BigInteger(1, digest).toString(16);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e); // should never happen
+    /**
+     * Encode the member as {@code Owner$name_hash}, e.g. {@code String$startsWith_1f2e3d4c}.
+     * The readable prefix shows up in profilers and heap dumps, and the hash, a FNV-1a over
+     * the erased signature, tells overloads apart. The hash is not collision free, so callers
+     * that define classes have to check the name against the members already defined.
+     */
+    public static String encode(Member member) {
+        final Class<?> declaringClass = member.getDeclaringClass();
+        final String memberName = member instanceof Constructor ? "new" : member.getName();
+        return encode(declaringClass) + '$' + sanitize(memberName) + '_' + hex(hash(member));
+    }
+
+    /**
+     * Encode the class as its readable simple binary name, e.g. {@code Map$Entry}
+     */
+    public static String encode(Class<?> clazz) {
+        return sanitize(simpleName(clazz));
+    }
+
+    static int hash(Member member) {
+        int h = FNV_OFFSET_BASIS;
+        h = hash(h, member.getDeclaringClass().getName());
+        h = hash(h, member.getName());
+        if (member instanceof Executable) {
+            for (Class<?> parameterType : ((Executable) member).getParameterTypes()) {
+                h = hash(h, parameterType.getName());
+            }
+        }
+        if (member instanceof Method) {
+            h = hash(h, ((Method) member).getReturnType().getName());
+        } else if (member instanceof Field) {
+            h = hash(h, ((Field) member).getType().getName());
         }
+        return h;
     }
 
+    private static int hash(int h, String str) {
+        for (int i = 0, n = str.length(); i < n; i++) {
+            h = (h ^ str.charAt(i)) * FNV_PRIME;
+        }
+        return (h ^ ';') * FNV_PRIME;
+    }
+
+    private static String hex(int h) {
+        char[] chars = new char[8];
+        for (int i = 7; i >= 0; i--, h >>>= 4) {
+            chars[i] = HEX_DIGITS[h & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static String simpleName(Class<?> clazz) {
+        final String name = clazz.getName();
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Replace the characters not allowed in the binary names of classes, e.g. {@code a/b} to {@code a_b}
+     */
+    static String sanitize(String name) {
+        for (int i = 0, n = name.length(); i < n; i++) {
+            if (isIllegal(name.charAt(i))) {
+                StringBuilder sb = new StringBuilder(name);
+                for (int j = i; j < n; j++) {
+                    if (isIllegal(sb.charAt(j))) sb.setCharAt(j, '_');
+                }
+                return sb.toString();
+            }
+        }
+        return name;
+    }
+
+    private static boolean isIllegal(char c) {
+        return '.' == c || ';' == c || '[' == c || '/' == c || '<' == c || '>' == c;
+    }
+
+    private static final int FNV_OFFSET_BASIS = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private EncodingUtils() {}
 }
@@ -0,0 +1,123 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection.generator;
+
+import me.sunlan.fastreflection.FastCallSite;
+import me.sunlan.fastreflection.MemberLoadable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MutableCallSite;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static me.sunlan.fastreflection.generator.EncodingUtils.sanitize;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACC_VARARGS;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ATHROW;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.IFNONNULL;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+import static org.objectweb.asm.Type.getDescriptor;
+import static org.objectweb.asm.Type.getInternalName;
+
+public class FastCallSiteGenerator {
+    public static final FastCallSiteGenerator INSTANCE = new FastCallSiteGenerator();
+
+    /**
+     * Generate the subclass of {@link FastCallSite} invoking the dynamic invoker of its {@link MutableCallSite}, which is
+     * taken by the constructor into a final field. The class holds no static state, so it can be defined as a hidden class,
+     * whose final fields are trusted as constants by the JIT compiler
+     */
+    public ClassData generate(String name, int arity) {
+        final String className = CALLSITE_CLASS_NAME + "_" + sanitize(name) + "_" + arity + "_" + SEQUENCE.incrementAndGet();
+        final String internalClassName = className.replace('.', '/');
+
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        classWriter.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalClassName, null, CALLSITE_INTERNAL_NAME, null);
+        classWriter.visitField(ACC_PRIVATE | ACC_FINAL, "invoker", METHODHANDLE_DESCRIPTOR, null, null).visitEnd();
+
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ILOAD, 2);
+        mv.visitVarInsn(ALOAD, 3);
+        mv.visitVarInsn(ILOAD, 4);
+        mv.visitVarInsn(ALOAD, 5);
+        mv.visitMethodInsn(INVOKESPECIAL, CALLSITE_INTERNAL_NAME, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 5);
+        mv.visitMethodInsn(INVOKEVIRTUAL, getInternalName(MutableCallSite.class), "dynamicInvoker", "()" + METHODHANDLE_DESCRIPTOR, false);
+        mv.visitFieldInsn(PUTFIELD, internalClassName, "invoker", METHODHANDLE_DESCRIPTOR);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = classWriter.visitMethod(ACC_PUBLIC | ACC_VARARGS, "invoke", "(" + OBJECT_DESCRIPTOR + "[" + OBJECT_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR, null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        // the guards of the chain test the class of the receiver, so reject `null` before them
+        Label nonNull = new Label();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitJumpInsn(IFNONNULL, nonNull);
+        mv.visitTypeInsn(NEW, NULLPOINTEREXCEPTION_INTERNAL_NAME);
+        mv.visitInsn(DUP);
+        mv.visitLdcInsn("the receiver of " + name + " is null");
+        mv.visitMethodInsn(INVOKESPECIAL, NULLPOINTEREXCEPTION_INTERNAL_NAME, "<init>", "(" + STRING_DESCRIPTOR + ")V", false);
+        mv.visitInsn(ATHROW);
+        mv.visitLabel(nonNull);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, internalClassName, "invoker", METHODHANDLE_DESCRIPTOR);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitMethodInsn(INVOKEVIRTUAL, getInternalName(MethodHandle.class), "invokeExact", "(" + OBJECT_DESCRIPTOR + "[" + OBJECT_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR, false);
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        classWriter.visitEnd();
+
+        return new ClassData(className, classWriter.toByteArray());
+    }
+
+    private FastCallSiteGenerator() {}
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final String CALLSITE_CLASS_NAME = FastCallSite.class.getName();
+    private static final String CALLSITE_INTERNAL_NAME = getInternalName(FastCallSite.class);
+    private static final String OBJECT_DESCRIPTOR = FastExecutableGenerator.OBJECT_DESCRIPTOR;
+    private static final String STRING_DESCRIPTOR = getDescriptor(String.class);
+    private static final String NULLPOINTEREXCEPTION_INTERNAL_NAME = getInternalName(NullPointerException.class);
+    private static final String METHODHANDLE_DESCRIPTOR = getDescriptor(MethodHandle.class);
+    private static final String THROWABLE_INTERNAL_NAME = FastExecutableGenerator.THROWABLE_INTERNAL_NAME;
+    private static final String CONSTRUCTOR_DESCRIPTOR = "(" + STRING_DESCRIPTOR + "I" + getDescriptor(MemberLoadable.class) + "I" + getDescriptor(MutableCallSite.class) + ")V";
+}
@@ -21,13 +21,18 @@ package me.sunlan.fastreflection.generator;
 import me.sunlan.fastreflection.FastConstructor;
 import org.objectweb.asm.MethodVisitor;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Member;
 import java.lang.reflect.Modifier;
 
 import static me.sunlan.fastreflection.generator.AsmUtils.getMethodDescriptor;
-import static me.sunlan.fastreflection.generator.EncodingUtils.md5;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Type.getInternalName;
 
 public class FastConstructorGenerator extends FastExecutableGenerator {
     public static final FastConstructorGenerator INSTANCE = new FastConstructorGenerator();
@@ -39,11 +44,6 @@ public class FastConstructorGenerator extends FastExecutableGenerator {
         return FastConstructor.class;
     }
 
-    @Override
-    public String generateClassName(Member member) {
-        return getFastMemberClass().getName() + "_" + md5(((Constructor) member).toGenericString());
-    }
-
     @Override
     public String getMemberDescriptor() {
         return "Ljava/lang/reflect/Constructor;";
@@ -70,6 +70,11 @@ public class FastConstructorGenerator extends FastExecutableGenerator {
         mv.visitMethodInsn(INVOKEVIRTUAL, LOOKUP_INTERNAL_NAME, "unreflectConstructor", "(Ljava/lang/reflect/Constructor;)Ljava/lang/invoke/MethodHandle;", false);
     }
 
+    @Override
+    public MethodHandle unreflect(MethodHandles.Lookup lookup, Member member) throws IllegalAccessException {
+        return lookup.unreflectConstructor((Constructor<?>) member);
+    }
+
     @Override
     public void visitMemberName(MethodVisitor mv, Member member) {
         // do nothing
@@ -80,6 +85,26 @@ public class FastConstructorGenerator extends FastExecutableGenerator {
         // do nothing
     }
 
+    /**
+     * Abstract classes can not be instantiated, leave the failure to resolving the method handle
+     */
+    @Override
+    public boolean isDirectlyAccessible(Member member) {
+        return !Modifier.isAbstract(member.getDeclaringClass().getModifiers()) && super.isDirectlyAccessible(member);
+    }
+
+    @Override
+    void visitDirectTargetObject(Member member, MethodVisitor mv) {
+        mv.visitTypeInsn(NEW, getInternalName(member.getDeclaringClass()));
+        mv.visitInsn(DUP);
+    }
+
+    @Override
+    void visitDirectInvocation(MethodVisitor mv, Member member) {
+        final Constructor<?> constructor = (Constructor<?>) member;
+        mv.visitMethodInsn(INVOKESPECIAL, getInternalName(constructor.getDeclaringClass()), "<init>", getMethodDescriptor(void.class, constructor.getParameterTypes()), false);
+    }
+
     @Override
     public int getArgsIndex() {
         return 1;
@@ -0,0 +1,139 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection.generator;
+
+import me.sunlan.fastreflection.FastCopier;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static me.sunlan.fastreflection.generator.AsmUtils.methodHandleLoader;
+import static me.sunlan.fastreflection.generator.AsmUtils.targetLoader;
+import static me.sunlan.fastreflection.generator.EncodingUtils.encode;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.ISTORE;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+import static org.objectweb.asm.Type.getInternalName;
+
+public class FastCopierGenerator {
+    public static final FastCopierGenerator INSTANCE = new FastCopierGenerator();
+
+    /**
+     * Generate the subclass of {@link FastCopier} implementing {@code copy} and {@code copyNonNull} by straight-line code per field
+     *
+     * @param fields the non-static and non-final fields to copy
+     */
+    public ClassData generate(Class<?> clazz, Field[] fields, boolean toSetAccessible) {
+        final String className = COPIER_CLASS_NAME + "_" + encode(clazz) + "_" + SEQUENCE.incrementAndGet() + "_" + (toSetAccessible ? "1" : "0");
+        final String internalClassName = className.replace('.', '/');
+
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        classWriter.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalClassName, null, COPIER_INTERNAL_NAME, null);
+
+        final boolean[] toInvokeDirectly = new boolean[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            toInvokeDirectly[i] = FastFieldSetterGenerator.INSTANCE.isDirectlyAccessible(fields[i]);
+            if (!toInvokeDirectly[i]) {
+                classWriter.visitField(ACC_PRIVATE | ACC_FINAL | ACC_STATIC, GETTER + i, METHODHANDLE_DESCRIPTOR, null, null).visitEnd();
+                classWriter.visitField(ACC_PRIVATE | ACC_FINAL | ACC_STATIC, SETTER + i, METHODHANDLE_DESCRIPTOR, null, null).visitEnd();
+            }
+        }
+
+        AsmUtils.generateConstructor(classWriter, COPIER_INTERNAL_NAME);
+        generateCopyMethod(classWriter, internalClassName, "copy", fields, toInvokeDirectly, false);
+        generateCopyMethod(classWriter, internalClassName, "copyNonNull", fields, toInvokeDirectly, true);
+        boolean toResolveMethodHandles = false;
+        for (boolean b : toInvokeDirectly) {
+            toResolveMethodHandles |= !b;
+        }
+        if (toResolveMethodHandles) {
+            generateStaticBlock(classWriter, internalClassName, fields, toInvokeDirectly, toSetAccessible);
+        }
+
+        classWriter.visitEnd();
+
+        return new ClassData(className, classWriter.toByteArray());
+    }
+
+    private void generateCopyMethod(ClassWriter classWriter, String internalClassName, String name, Field[] fields, boolean[] toInvokeDirectly, boolean toSkipNull) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, name, "(" + OBJECT_DESCRIPTOR + OBJECT_DESCRIPTOR + ")V", null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        final int valueIndex = 3;
+        for (int i = 0; i < fields.length; i++) {
+            final Field field = fields[i];
+            final Class<?>[] setterParameterTypes = {field.getType()};
+            final Type fieldType = Type.getType(field.getType());
+            final Consumer<MethodVisitor> getterLoader = toInvokeDirectly[i] ? null : methodHandleLoader(internalClassName, GETTER + i);
+            final Consumer<MethodVisitor> setterLoader = toInvokeDirectly[i] ? null : methodHandleLoader(internalClassName, SETTER + i);
+
+            // the value is read into a local variable first, so that `null` can be skipped
+            FastFieldGetterGenerator.INSTANCE.visitInvocation(mv, field, EMPTY_CLASS_ARRAY, getterLoader, targetLoader(field, 1), (v, j) -> {});
+            mv.visitVarInsn(fieldType.getOpcode(ISTORE), valueIndex);
+            Label next = new Label();
+            if (toSkipNull && !field.getType().isPrimitive()) {
+                mv.visitVarInsn(ALOAD, valueIndex);
+                mv.visitJumpInsn(IFNULL, next);
+            }
+            FastFieldSetterGenerator.INSTANCE.visitInvocation(mv, field, setterParameterTypes, setterLoader, targetLoader(field, 2),
+                    (v, j) -> v.visitVarInsn(fieldType.getOpcode(ILOAD), valueIndex));
+            mv.visitLabel(next);
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void generateStaticBlock(ClassWriter classWriter, String internalClassName, Field[] fields, boolean[] toInvokeDirectly, boolean toSetAccessible) {
+        AsmUtils.generateStaticBlock(classWriter, mv -> {
+            for (int i = 0; i < fields.length; i++) {
+                if (toInvokeDirectly[i]) continue;
+                FastFieldGetterGenerator.INSTANCE.visitFindMethodHandle(mv, fields[i], EMPTY_CLASS_ARRAY, toSetAccessible);
+                mv.visitFieldInsn(PUTSTATIC, internalClassName, GETTER + i, METHODHANDLE_DESCRIPTOR);
+                FastFieldSetterGenerator.INSTANCE.visitFindMethodHandle(mv, fields[i], new Class<?>[]{fields[i].getType()}, toSetAccessible);
+                mv.visitFieldInsn(PUTSTATIC, internalClassName, SETTER + i, METHODHANDLE_DESCRIPTOR);
+            }
+        });
+    }
+
+    private FastCopierGenerator() {}
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final String GETTER = "GETTER";
+    private static final String SETTER = "SETTER";
+    private static final Class<?>[] EMPTY_CLASS_ARRAY = new Class<?>[0];
+    private static final String COPIER_CLASS_NAME = FastCopier.class.getName();
+    private static final String COPIER_INTERNAL_NAME = getInternalName(FastCopier.class);
+    private static final String OBJECT_DESCRIPTOR = FastExecutableGenerator.OBJECT_DESCRIPTOR;
+    private static final String METHODHANDLE_DESCRIPTOR = FastExecutableGenerator.METHODHANDLE_DESCRIPTOR;
+    private static final String THROWABLE_INTERNAL_NAME = FastExecutableGenerator.THROWABLE_INTERNAL_NAME;
+}
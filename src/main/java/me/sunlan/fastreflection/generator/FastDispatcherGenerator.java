@@ -0,0 +1,498 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection.generator;
+
+import me.sunlan.fastreflection.FastDispatcher;
+import me.sunlan.fastreflection.FastExecutable;
+import org.objectweb.asm.ClassTooLargeException;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodTooLargeException;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
+import static me.sunlan.fastreflection.generator.AsmUtils.cast;
+import static me.sunlan.fastreflection.generator.AsmUtils.castArgument;
+import static me.sunlan.fastreflection.generator.AsmUtils.doReturn;
+import static me.sunlan.fastreflection.generator.EncodingUtils.encode;
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.AASTORE;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACC_VARARGS;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ANEWARRAY;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.ATHROW;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+import static org.objectweb.asm.Type.getDescriptor;
+import static org.objectweb.asm.Type.getInternalName;
+
+public class FastDispatcherGenerator {
+    public static final FastDispatcherGenerator INSTANCE = new FastDispatcherGenerator();
+
+    /**
+     * Generate the dispatcher class of the members, or {@code null} if they do not fit into one class
+     */
+    public ClassData generate(Class<?> clazz, Method[] methods, Constructor<?>[] constructors, Field[] fields, boolean toSetAccessible) {
+        final String className = DISPATCHER_CLASS_NAME + "_" + encode(clazz) + "_" + SEQUENCE.incrementAndGet() + "_" + (toSetAccessible ? "1" : "0");
+        final String internalClassName = className.replace('.', '/');
+
+        final List<Entry> entries = new ArrayList<>(methods.length + constructors.length + fields.length * 2);
+        for (Method method : methods) {
+            entries.add(new Entry(FastMethodGenerator.INSTANCE, method));
+        }
+        for (Constructor<?> constructor : constructors) {
+            entries.add(new Entry(FastConstructorGenerator.INSTANCE, constructor));
+        }
+        for (Field field : fields) {
+            entries.add(new Entry(FastFieldGetterGenerator.INSTANCE, field));
+        }
+        for (Field field : fields) {
+            entries.add(Modifier.isFinal(field.getModifiers()) ? null : new Entry(FastFieldSetterGenerator.INSTANCE, field));
+        }
+
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        classWriter.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalClassName, null, DISPATCHER_INTERNAL_NAME, null);
+
+        for (int i = 0, n = entries.size(); i < n; i++) {
+            if (null == entries.get(i)) continue;
+            classWriter.visitField(ACC_PRIVATE | ACC_FINAL | ACC_STATIC, methodHandleFieldName(i), METHODHANDLE_DESCRIPTOR, null, null).visitEnd();
+        }
+        classWriter.visitField(ACC_PRIVATE | ACC_FINAL | ACC_STATIC, FAILURES, THROWABLE_ARRAY_DESCRIPTOR, null, null).visitEnd();
+
+        generateConstructor(classWriter);
+        final int constructorOffset = methods.length;
+        final int getterOffset = constructorOffset + constructors.length;
+        final int setterOffset = getterOffset + fields.length;
+        generateInvokeMethod(classWriter, internalClassName, entries, 0, constructorOffset);
+        generateNewInstanceMethod(classWriter, internalClassName, entries, constructorOffset, getterOffset);
+        generateGetMethod(classWriter, internalClassName, entries, getterOffset, setterOffset);
+        generateSetMethod(classWriter, internalClassName, entries, setterOffset, entries.size());
+        generateTypedInvokeMethods(classWriter, internalClassName, entries, 0, constructorOffset);
+        generateTypedNewInstanceMethods(classWriter, internalClassName, entries, constructorOffset, getterOffset);
+        generateTypedGetMethods(classWriter, internalClassName, entries, getterOffset, setterOffset);
+        generateTypedSetMethods(classWriter, internalClassName, entries, setterOffset, entries.size());
+        generateGetFailureMethod(classWriter, internalClassName);
+        generateStaticBlock(classWriter, internalClassName, entries, toSetAccessible);
+
+        classWriter.visitEnd();
+
+        try {
+            return new ClassData(className, classWriter.toByteArray());
+        } catch (MethodTooLargeException | ClassTooLargeException e) {
+            return null;
+        }
+    }
+
+    private void generateStaticBlock(ClassWriter classWriter, String internalClassName, List<Entry> entries, boolean toSetAccessible) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+        mv.visitCode();
+        mv.visitLdcInsn(entries.size());
+        mv.visitTypeInsn(ANEWARRAY, THROWABLE_INTERNAL_NAME);
+        mv.visitFieldInsn(PUTSTATIC, internalClassName, FAILURES, THROWABLE_ARRAY_DESCRIPTOR);
+
+        // a member failing to resolve, e.g. an invisible one, is recorded instead of failing the whole dispatcher
+        for (int i = 0, n = entries.size(); i < n; i++) {
+            Entry entry = entries.get(i);
+            if (null == entry) continue;
+
+            Label start = new Label();
+            Label end = new Label();
+            Label handler = new Label();
+            Label next = new Label();
+            mv.visitTryCatchBlock(start, end, handler, THROWABLE_INTERNAL_NAME);
+            mv.visitLabel(start);
+            entry.generator.visitFindMethodHandle(mv, entry.member, entry.parameterTypes, toSetAccessible);
+            mv.visitFieldInsn(PUTSTATIC, internalClassName, methodHandleFieldName(i), METHODHANDLE_DESCRIPTOR);
+            mv.visitLabel(end);
+            mv.visitJumpInsn(GOTO, next);
+            mv.visitLabel(handler);
+            mv.visitVarInsn(ASTORE, 1);
+            mv.visitFieldInsn(GETSTATIC, internalClassName, FAILURES, THROWABLE_ARRAY_DESCRIPTOR);
+            mv.visitLdcInsn(i);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitInsn(AASTORE);
+            mv.visitLabel(next);
+        }
+
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void generateConstructor(ClassWriter classWriter) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, INIT, CONSTRUCTOR_DESCRIPTOR, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitVarInsn(ALOAD, 3);
+        mv.visitMethodInsn(INVOKESPECIAL, DISPATCHER_INTERNAL_NAME, INIT, CONSTRUCTOR_DESCRIPTOR, false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void generateInvokeMethod(ClassWriter classWriter, String internalClassName, List<Entry> entries, int from, int to) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC | ACC_VARARGS, "invoke", "(ILjava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;", null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        Label[] labels = visitTableSwitch(mv, from, to, entries);
+        for (int i = from; i < to; i++) {
+            Entry entry = entries.get(i);
+            mv.visitLabel(labels[i - from]);
+            mv.visitFieldInsn(GETSTATIC, internalClassName, methodHandleFieldName(i), METHODHANDLE_DESCRIPTOR);
+            visitTargetObject(mv, entry.member, 2);
+            visitArgs(mv, entry.parameterTypes, 3);
+            visitInvokeExact(mv, entry);
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void generateNewInstanceMethod(ClassWriter classWriter, String internalClassName, List<Entry> entries, int from, int to) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC | ACC_VARARGS, "newInstance", "(I[Ljava/lang/Object;)Ljava/lang/Object;", null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        Label[] labels = visitTableSwitch(mv, from, to, entries);
+        for (int i = from; i < to; i++) {
+            Entry entry = entries.get(i);
+            mv.visitLabel(labels[i - from]);
+            mv.visitFieldInsn(GETSTATIC, internalClassName, methodHandleFieldName(i), METHODHANDLE_DESCRIPTOR);
+            visitArgs(mv, entry.parameterTypes, 2);
+            visitInvokeExact(mv, entry);
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void generateGetMethod(ClassWriter classWriter, String internalClassName, List<Entry> entries, int from, int to) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "get", "(ILjava/lang/Object;)Ljava/lang/Object;", null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        Label[] labels = visitTableSwitch(mv, from, to, entries);
+        for (int i = from; i < to; i++) {
+            Entry entry = entries.get(i);
+            mv.visitLabel(labels[i - from]);
+            mv.visitFieldInsn(GETSTATIC, internalClassName, methodHandleFieldName(i), METHODHANDLE_DESCRIPTOR);
+            visitTargetObject(mv, entry.member, 2);
+            visitInvokeExact(mv, entry);
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void generateSetMethod(ClassWriter classWriter, String internalClassName, List<Entry> entries, int from, int to) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "set", "(ILjava/lang/Object;Ljava/lang/Object;)V", null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        Label[] labels = visitTableSwitch(mv, from, to, entries);
+        for (int i = from; i < to; i++) {
+            Entry entry = entries.get(i);
+            if (null == entry) continue;
+            mv.visitLabel(labels[i - from]);
+            mv.visitFieldInsn(GETSTATIC, internalClassName, methodHandleFieldName(i), METHODHANDLE_DESCRIPTOR);
+            visitTargetObject(mv, entry.member, 2);
+            mv.visitVarInsn(ALOAD, 3);
+            castArgument(mv, entry.parameterTypes[0]);
+            mv.visitMethodInsn(INVOKEVIRTUAL, METHODHANDLE_INTERNAL_NAME, "invokeExact", entry.getInvokeExactMethodDescriptor(), false);
+            mv.visitInsn(RETURN);
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Generate the overrides of {@code invoke0..6}, {@code invokeAsInt} and so on, and {@code invoke1} taking a primitive,
+     * see {@link FastDispatcher#invoke0(int, Object)}
+     */
+    private void generateTypedInvokeMethods(ClassWriter classWriter, String internalClassName, List<Entry> entries, int from, int to) {
+        for (int arity = 0; arity <= FastExecutable.MAX_FIXED_ARITY; arity++) {
+            final int n = arity;
+            generateTypedMethod(classWriter, internalClassName, entries, from, to, "invoke" + n, fixedArityDescriptor(2, n), 0,
+                    entry -> entry.parameterTypes.length == n,
+                    (mv, entry, methodHandleLoader) -> {
+                        visitInvocation(mv, entry, methodHandleLoader, 2, (v, i) -> {
+                            v.visitVarInsn(ALOAD, 3 + i);
+                            castArgument(v, entry.parameterTypes[i]);
+                        });
+                        doReturn(mv, entry.returnType);
+                    });
+        }
+
+        for (Class<?> primitiveType : FastExecutableGenerator.PRIMITIVE_TYPES) {
+            final Type primitiveAsmType = Type.getType(primitiveType);
+            generateTypedMethod(classWriter, internalClassName, entries, from, to, "invokeAs" + FastExecutableGenerator.capitalize(primitiveType.getName()),
+                    "(I" + OBJECT_DESCRIPTOR + "[" + OBJECT_DESCRIPTOR + ")" + primitiveAsmType, ACC_VARARGS,
+                    entry -> FastExecutableGenerator.getWideningOpcode(entry.returnType, primitiveType) >= 0,
+                    (mv, entry, methodHandleLoader) -> {
+                        visitInvocation(mv, entry, methodHandleLoader, 2, (v, i) -> {
+                            v.visitVarInsn(ALOAD, 3);
+                            v.visitLdcInsn(i);
+                            v.visitInsn(AALOAD);
+                            castArgument(v, entry.parameterTypes[i]);
+                        });
+                        FastExecutableGenerator.visitWidening(mv, FastExecutableGenerator.getWideningOpcode(entry.returnType, primitiveType));
+                        mv.visitInsn(primitiveAsmType.getOpcode(IRETURN));
+                    });
+
+            generateTypedMethod(classWriter, internalClassName, entries, from, to, "invoke1",
+                    "(I" + OBJECT_DESCRIPTOR + primitiveAsmType + ")" + OBJECT_DESCRIPTOR, 0,
+                    entry -> 1 == entry.parameterTypes.length && FastExecutableGenerator.getWideningOpcode(primitiveType, entry.parameterTypes[0]) >= 0,
+                    (mv, entry, methodHandleLoader) -> {
+                        visitInvocation(mv, entry, methodHandleLoader, 2, (v, i) -> {
+                            v.visitVarInsn(primitiveAsmType.getOpcode(ILOAD), 3);
+                            FastExecutableGenerator.visitWidening(v, FastExecutableGenerator.getWideningOpcode(primitiveType, entry.parameterTypes[0]));
+                        });
+                        doReturn(mv, entry.returnType);
+                    });
+        }
+    }
+
+    private void generateTypedNewInstanceMethods(ClassWriter classWriter, String internalClassName, List<Entry> entries, int from, int to) {
+        for (int arity = 0; arity <= FastExecutable.MAX_FIXED_ARITY; arity++) {
+            final int n = arity;
+            generateTypedMethod(classWriter, internalClassName, entries, from, to, "newInstance" + n, fixedArityDescriptor(1, n), 0,
+                    entry -> entry.parameterTypes.length == n,
+                    (mv, entry, methodHandleLoader) -> {
+                        visitInvocation(mv, entry, methodHandleLoader, -1, (v, i) -> {
+                            v.visitVarInsn(ALOAD, 2 + i);
+                            castArgument(v, entry.parameterTypes[i]);
+                        });
+                        doReturn(mv, entry.returnType);
+                    });
+        }
+    }
+
+    private void generateTypedGetMethods(ClassWriter classWriter, String internalClassName, List<Entry> entries, int from, int to) {
+        for (Class<?> primitiveType : FastExecutableGenerator.PRIMITIVE_TYPES) {
+            final Type primitiveAsmType = Type.getType(primitiveType);
+            generateTypedMethod(classWriter, internalClassName, entries, from, to, "get" + FastExecutableGenerator.capitalize(primitiveType.getName()),
+                    "(I" + OBJECT_DESCRIPTOR + ")" + primitiveAsmType, 0,
+                    entry -> FastExecutableGenerator.getWideningOpcode(entry.returnType, primitiveType) >= 0,
+                    (mv, entry, methodHandleLoader) -> {
+                        visitInvocation(mv, entry, methodHandleLoader, 2, (v, i) -> {});
+                        FastExecutableGenerator.visitWidening(mv, FastExecutableGenerator.getWideningOpcode(entry.returnType, primitiveType));
+                        mv.visitInsn(primitiveAsmType.getOpcode(IRETURN));
+                    });
+        }
+    }
+
+    private void generateTypedSetMethods(ClassWriter classWriter, String internalClassName, List<Entry> entries, int from, int to) {
+        for (Class<?> primitiveType : FastExecutableGenerator.PRIMITIVE_TYPES) {
+            final Type primitiveAsmType = Type.getType(primitiveType);
+            generateTypedMethod(classWriter, internalClassName, entries, from, to, "set" + FastExecutableGenerator.capitalize(primitiveType.getName()),
+                    "(I" + OBJECT_DESCRIPTOR + primitiveAsmType + ")V", 0,
+                    entry -> FastExecutableGenerator.getWideningOpcode(primitiveType, entry.parameterTypes[0]) >= 0,
+                    (mv, entry, methodHandleLoader) -> {
+                        visitInvocation(mv, entry, methodHandleLoader, 2, (v, i) -> {
+                            v.visitVarInsn(primitiveAsmType.getOpcode(ILOAD), 3);
+                            FastExecutableGenerator.visitWidening(v, FastExecutableGenerator.getWideningOpcode(primitiveType, entry.parameterTypes[0]));
+                        });
+                        mv.visitInsn(RETURN);
+                    });
+        }
+    }
+
+    /**
+     * Generate the override of the typed entry point switching on the member id in local variable 1 to the members
+     * it applies to, the other ids fall back to the implementation of {@link FastDispatcher}. Nothing is generated
+     * if it applies to none of the members
+     */
+    private static void generateTypedMethod(ClassWriter classWriter, String internalClassName, List<Entry> entries, int from, int to,
+                                            String name, String descriptor, int access, Predicate<Entry> isApplicable, CaseVisitor caseVisitor) {
+        final int n = to - from;
+        final Label defaultLabel = new Label();
+        final Label[] labels = new Label[n];
+        boolean isApplicableToAny = false;
+        for (int i = 0; i < n; i++) {
+            Entry entry = entries.get(from + i);
+            if (null != entry && isApplicable.test(entry)) {
+                labels[i] = new Label();
+                isApplicableToAny = true;
+            } else {
+                labels[i] = defaultLabel;
+            }
+        }
+        if (!isApplicableToAny) {
+            return;
+        }
+
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC | access, name, descriptor, null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        mv.visitVarInsn(ILOAD, 1);
+        mv.visitTableSwitchInsn(0, n - 1, defaultLabel, labels);
+        for (int i = 0; i < n; i++) {
+            if (defaultLabel == labels[i]) continue;
+            final int index = from + i;
+            mv.visitLabel(labels[i]);
+            caseVisitor.visit(mv, entries.get(index), v -> v.visitFieldInsn(GETSTATIC, internalClassName, methodHandleFieldName(index), METHODHANDLE_DESCRIPTOR));
+        }
+
+        mv.visitLabel(defaultLabel);
+        mv.visitVarInsn(ALOAD, 0);
+        final Type methodType = Type.getMethodType(descriptor);
+        int slot = 1;
+        for (Type argumentType : methodType.getArgumentTypes()) {
+            mv.visitVarInsn(argumentType.getOpcode(ILOAD), slot);
+            slot += argumentType.getSize();
+        }
+        mv.visitMethodInsn(INVOKESPECIAL, DISPATCHER_INTERNAL_NAME, name, descriptor, false);
+        mv.visitInsn(methodType.getReturnType().getOpcode(IRETURN));
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * @param targetIndex the local variable of the target object, or {@code -1} for constructors
+     */
+    private static void visitInvocation(MethodVisitor mv, Entry entry, Consumer<MethodVisitor> methodHandleLoader, int targetIndex, ObjIntConsumer<MethodVisitor> argumentLoader) {
+        entry.generator.visitInvocation(mv, entry.member, entry.parameterTypes, methodHandleLoader,
+                v -> visitTargetObject(v, entry.member, targetIndex), argumentLoader);
+    }
+
+    /**
+     * The descriptor of {@code (int id, [Object obj,] Object arg0, ...)Object}
+     */
+    private static String fixedArityDescriptor(int leadingCount, int arity) {
+        StringBuilder descriptor = new StringBuilder("(I");
+        for (int i = 1; i < leadingCount + arity; i++) {
+            descriptor.append(OBJECT_DESCRIPTOR);
+        }
+        return descriptor.append(")").append(OBJECT_DESCRIPTOR).toString();
+    }
+
+    private void generateGetFailureMethod(ClassWriter classWriter, String internalClassName) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PROTECTED, "getFailure", "(I)" + THROWABLE_DESCRIPTOR, null, null);
+        mv.visitCode();
+        mv.visitFieldInsn(GETSTATIC, internalClassName, FAILURES, THROWABLE_ARRAY_DESCRIPTOR);
+        mv.visitVarInsn(ILOAD, 1);
+        mv.visitInsn(AALOAD);
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Switch on the member id in local variable 1, the absent entries and the default case throw {@link FastDispatcher#noSuchMember(int)}
+     */
+    private static Label[] visitTableSwitch(MethodVisitor mv, int from, int to, List<Entry> entries) {
+        final int n = to - from;
+        Label defaultLabel = new Label();
+        Label[] labels = new Label[n];
+        if (n > 0) {
+            for (int i = 0; i < n; i++) {
+                labels[i] = null == entries.get(from + i) ? defaultLabel : new Label();
+            }
+            mv.visitVarInsn(ILOAD, 1);
+            mv.visitTableSwitchInsn(0, n - 1, defaultLabel, labels);
+        }
+        mv.visitLabel(defaultLabel);
+        mv.visitVarInsn(ILOAD, 1);
+        mv.visitMethodInsn(INVOKESTATIC, DISPATCHER_INTERNAL_NAME, "noSuchMember", "(I)Ljava/lang/IllegalArgumentException;", false);
+        mv.visitInsn(ATHROW);
+        return labels;
+    }
+
+    private static void visitTargetObject(MethodVisitor mv, Member member, int targetIndex) {
+        if (!Modifier.isStatic(member.getModifiers()) && !(member instanceof Constructor)) {
+            mv.visitVarInsn(ALOAD, targetIndex);
+            cast(mv, member.getDeclaringClass());
+        }
+    }
+
+    private static void visitArgs(MethodVisitor mv, Class<?>[] parameterTypes, int argsIndex) {
+        for (int i = 0, n = parameterTypes.length; i < n; i++) {
+            mv.visitVarInsn(ALOAD, argsIndex);
+            mv.visitLdcInsn(i);
+            mv.visitInsn(AALOAD);
+            castArgument(mv, parameterTypes[i]);
+        }
+    }
+
+    private static void visitInvokeExact(MethodVisitor mv, Entry entry) {
+        mv.visitMethodInsn(INVOKEVIRTUAL, METHODHANDLE_INTERNAL_NAME, "invokeExact", entry.getInvokeExactMethodDescriptor(), false);
+        doReturn(mv, entry.returnType);
+    }
+
+    private static String methodHandleFieldName(int index) {
+        return "METHOD_HANDLE_" + index;
+    }
+
+    @FunctionalInterface
+    private interface CaseVisitor {
+        void visit(MethodVisitor mv, Entry entry, Consumer<MethodVisitor> methodHandleLoader);
+    }
+
+    private static final class Entry {
+        private final FastExecutableGenerator generator;
+        private final Member member;
+        private final Class<?>[] parameterTypes;
+        private final Class<?> returnType;
+
+        Entry(FastExecutableGenerator generator, Member member) {
+            this.generator = generator;
+            this.member = member;
+            this.parameterTypes = generator.getParameterTypes(member);
+            this.returnType = generator.getInvokeMethodReturnType(member);
+        }
+
+        String getInvokeExactMethodDescriptor() {
+            return generator.getInvokeExactMethodDescriptor(member, parameterTypes, returnType);
+        }
+    }
+
+    private FastDispatcherGenerator() {}
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final String INIT = "<init>";
+    private static final String FAILURES = "FAILURES";
+    private static final String DISPATCHER_CLASS_NAME = FastDispatcher.class.getName();
+    private static final String DISPATCHER_INTERNAL_NAME = getInternalName(FastDispatcher.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = "([Ljava/lang/reflect/Method;[Ljava/lang/reflect/Constructor;[Ljava/lang/reflect/Field;)V";
+    private static final String METHODHANDLE_DESCRIPTOR = FastExecutableGenerator.METHODHANDLE_DESCRIPTOR;
+    private static final String METHODHANDLE_INTERNAL_NAME = FastExecutableGenerator.METHODHANDLE_INTERNAL_NAME;
+    private static final String THROWABLE_INTERNAL_NAME = FastExecutableGenerator.THROWABLE_INTERNAL_NAME;
+    private static final String THROWABLE_DESCRIPTOR = FastExecutableGenerator.THROWABLE_DESCRIPTOR;
+    private static final String THROWABLE_ARRAY_DESCRIPTOR = "[" + getDescriptor(Throwable.class);
+    private static final String OBJECT_DESCRIPTOR = FastExecutableGenerator.OBJECT_DESCRIPTOR;
+}
@@ -0,0 +1,164 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection.generator;
+
+import me.sunlan.fastreflection.FastEquality;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static me.sunlan.fastreflection.generator.AsmUtils.generateConstructor;
+import static me.sunlan.fastreflection.generator.AsmUtils.generateGetterHandles;
+import static me.sunlan.fastreflection.generator.AsmUtils.getWrapper;
+import static me.sunlan.fastreflection.generator.AsmUtils.targetLoader;
+import static me.sunlan.fastreflection.generator.EncodingUtils.encode;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.IADD;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.IFNONNULL;
+import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.IF_ACMPNE;
+import static org.objectweb.asm.Opcodes.IF_ICMPNE;
+import static org.objectweb.asm.Opcodes.IMUL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.LCMP;
+import static org.objectweb.asm.Opcodes.V1_8;
+import static org.objectweb.asm.Type.getDescriptor;
+import static org.objectweb.asm.Type.getInternalName;
+
+public class FastEqualityGenerator {
+    public static final FastEqualityGenerator INSTANCE = new FastEqualityGenerator();
+
+    /**
+     * Generate the subclass of {@link FastEquality} comparing and hashing the fields one by one in the given order
+     */
+    public ClassData generate(Class<?> clazz, Field[] fields, boolean toSetAccessible) {
+        final String className = EQUALITY_CLASS_NAME + "_" + encode(clazz) + "_" + SEQUENCE.incrementAndGet() + "_" + (toSetAccessible ? "1" : "0");
+        final String internalClassName = className.replace('.', '/');
+
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        classWriter.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalClassName, null, EQUALITY_INTERNAL_NAME, null);
+
+        final List<Consumer<MethodVisitor>> getterLoaders = generateGetterHandles(classWriter, internalClassName, fields, toSetAccessible);
+        generateConstructor(classWriter, EQUALITY_INTERNAL_NAME, false);
+        generateEqualsMethod(classWriter, fields, getterLoaders);
+        generateHashCodeMethod(classWriter, fields, getterLoaders);
+
+        classWriter.visitEnd();
+
+        return new ClassData(className, classWriter.toByteArray());
+    }
+
+    private void generateEqualsMethod(ClassWriter classWriter, Field[] fields, List<Consumer<MethodVisitor>> getterLoaders) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "equals", "(" + OBJECT_DESCRIPTOR + OBJECT_DESCRIPTOR + ")Z", null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        Label notSame = new Label();
+        Label notEqual = new Label();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitJumpInsn(IF_ACMPNE, notSame);
+        mv.visitInsn(ICONST_1);
+        mv.visitInsn(IRETURN);
+        mv.visitLabel(notSame);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitJumpInsn(IFNULL, notEqual);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitJumpInsn(IFNULL, notEqual);
+        for (int i = 0; i < fields.length; i++) {
+            final Field field = fields[i];
+            final Class<?> type = field.getType();
+            FastFieldGetterGenerator.INSTANCE.visitInvocation(mv, field, EMPTY_CLASS_ARRAY, getterLoaders.get(i), targetLoader(field, 1), (v, j) -> {});
+            FastFieldGetterGenerator.INSTANCE.visitInvocation(mv, field, EMPTY_CLASS_ARRAY, getterLoaders.get(i), targetLoader(field, 2), (v, j) -> {});
+            if (long.class == type) {
+                mv.visitInsn(LCMP);
+                mv.visitJumpInsn(IFNE, notEqual);
+            } else if (float.class == type || double.class == type) {
+                // `compare` rather than `==`, so that NaN equals itself and 0.0 differs from -0.0 like the wrappers
+                final String descriptor = getDescriptor(type);
+                mv.visitMethodInsn(INVOKESTATIC, getInternalName(getWrapper(type)), "compare", "(" + descriptor + descriptor + ")I", false);
+                mv.visitJumpInsn(IFNE, notEqual);
+            } else if (type.isPrimitive()) {
+                mv.visitJumpInsn(IF_ICMPNE, notEqual);
+            } else {
+                mv.visitMethodInsn(INVOKESTATIC, OBJECTS_INTERNAL_NAME, "equals", "(" + OBJECT_DESCRIPTOR + OBJECT_DESCRIPTOR + ")Z", false);
+                mv.visitJumpInsn(IFEQ, notEqual);
+            }
+        }
+        mv.visitInsn(ICONST_1);
+        mv.visitInsn(IRETURN);
+        mv.visitLabel(notEqual);
+        mv.visitInsn(ICONST_0);
+        mv.visitInsn(IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void generateHashCodeMethod(ClassWriter classWriter, Field[] fields, List<Consumer<MethodVisitor>> getterLoaders) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "hashCode", "(" + OBJECT_DESCRIPTOR + ")I", null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        Label nonNull = new Label();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitJumpInsn(IFNONNULL, nonNull);
+        mv.visitInsn(ICONST_0);
+        mv.visitInsn(IRETURN);
+        mv.visitLabel(nonNull);
+        // the same mixing as `Arrays.hashCode(Object[])`, but the primitives are hashed by the static methods of the wrappers
+        mv.visitInsn(ICONST_1);
+        for (int i = 0; i < fields.length; i++) {
+            final Field field = fields[i];
+            final Class<?> type = field.getType();
+            mv.visitIntInsn(BIPUSH, 31);
+            mv.visitInsn(IMUL);
+            FastFieldGetterGenerator.INSTANCE.visitInvocation(mv, field, EMPTY_CLASS_ARRAY, getterLoaders.get(i), targetLoader(field, 1), (v, j) -> {});
+            if (type.isPrimitive()) {
+                mv.visitMethodInsn(INVOKESTATIC, getInternalName(getWrapper(type)), "hashCode", "(" + getDescriptor(type) + ")I", false);
+            } else {
+                mv.visitMethodInsn(INVOKESTATIC, OBJECTS_INTERNAL_NAME, "hashCode", "(" + OBJECT_DESCRIPTOR + ")I", false);
+            }
+            mv.visitInsn(IADD);
+        }
+        mv.visitInsn(IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private FastEqualityGenerator() {}
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final Class<?>[] EMPTY_CLASS_ARRAY = new Class<?>[0];
+    private static final String EQUALITY_CLASS_NAME = FastEquality.class.getName();
+    private static final String EQUALITY_INTERNAL_NAME = getInternalName(FastEquality.class);
+    private static final String OBJECTS_INTERNAL_NAME = getInternalName(Objects.class);
+    private static final String OBJECT_DESCRIPTOR = FastExecutableGenerator.OBJECT_DESCRIPTOR;
+    private static final String THROWABLE_INTERNAL_NAME = FastExecutableGenerator.THROWABLE_INTERNAL_NAME;
+}
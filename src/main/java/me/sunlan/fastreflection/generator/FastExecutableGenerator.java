@@ -1,23 +1,41 @@
 package me.sunlan.fastreflection.generator;
 
 import me.sunlan.fastreflection.AccessibleObjectHelper;
+import me.sunlan.fastreflection.FastExecutable;
 import me.sunlan.fastreflection.FastInstantiationException;
+import me.sunlan.fastreflection.FastMethod;
 import me.sunlan.fastreflection.MemberLoadable;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
 import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Handle;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
+import static me.sunlan.fastreflection.generator.AsmUtils.box;
 import static me.sunlan.fastreflection.generator.AsmUtils.cast;
+import static me.sunlan.fastreflection.generator.AsmUtils.castArgument;
 import static me.sunlan.fastreflection.generator.AsmUtils.doReturn;
+import static me.sunlan.fastreflection.generator.AsmUtils.getWrapper;
 import static me.sunlan.fastreflection.generator.AsmUtils.visitLdcTypeInsn;
+import static me.sunlan.fastreflection.generator.EncodingUtils.encode;
 import static org.objectweb.asm.Opcodes.AALOAD;
 import static org.objectweb.asm.Opcodes.AASTORE;
 import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
 import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
 import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
 import static org.objectweb.asm.Opcodes.ACC_STATIC;
@@ -30,13 +48,25 @@ import static org.objectweb.asm.Opcodes.ATHROW;
 import static org.objectweb.asm.Opcodes.DUP;
 import static org.objectweb.asm.Opcodes.GETSTATIC;
 import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.F2D;
+import static org.objectweb.asm.Opcodes.H_INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.I2D;
+import static org.objectweb.asm.Opcodes.I2F;
+import static org.objectweb.asm.Opcodes.I2L;
+import static org.objectweb.asm.Opcodes.ILOAD;
 import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
 import static org.objectweb.asm.Opcodes.INVOKESTATIC;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.L2D;
+import static org.objectweb.asm.Opcodes.L2F;
 import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.NOP;
 import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.POP2;
 import static org.objectweb.asm.Opcodes.PUTSTATIC;
 import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V11;
 import static org.objectweb.asm.Opcodes.V1_8;
 import static org.objectweb.asm.Type.getDescriptor;
 import static org.objectweb.asm.Type.getInternalName;
@@ -44,24 +74,213 @@ import static org.objectweb.asm.Type.getInternalName;
 abstract class FastExecutableGenerator implements FastMemberGenerator {
     @Override
     public MemberData generate(Member member, boolean toSetAccessible) {
+        return generate(member, toSetAccessible, 0);
+    }
+
+    @Override
+    public MemberData generate(Member member, boolean toSetAccessible, int discriminator) {
         ClassWriter classWriter = new ClassWriter(CLASSWRITER_FLAGS);
-        final String className = generateClassName(member) + "_" + (toSetAccessible ? "1" : "0");
+        final String className = generateClassName(member, toSetAccessible, discriminator);
         final String internalClassName = className.replace('.', '/');
         final String fastMemberInternalName = getInternalName(getFastMemberClass());
         classWriter.visit(V1_8, ACC_CLASS, internalClassName, null, fastMemberInternalName, null);
 
-        generateConstantMethodHandleField(classWriter);
+        // the member accessible from the generated class is invoked by plain bytecode instead of method handle
+        final boolean toInvokeDirectly = isDirectlyAccessible(member);
+        if (!toInvokeDirectly) {
+            generateConstantMethodHandleField(classWriter);
+        }
         generateConstructor(classWriter, fastMemberInternalName);
 
         final Class<?>[] parameterTypes = getParameterTypes(member);
-        generateInvokeMethod(member, classWriter, internalClassName, parameterTypes);
-        generateStaticBlock(member, classWriter, internalClassName, parameterTypes, toSetAccessible);
+        Consumer<MethodVisitor> methodHandleLoader = toInvokeDirectly ? null : mv -> mv.visitFieldInsn(GETSTATIC, internalClassName, "METHOD_HANDLE", METHODHANDLE_DESCRIPTOR);
+        generateInvokeMethod(member, classWriter, parameterTypes, methodHandleLoader);
+        generateFixedArityInvokeMethod(member, classWriter, parameterTypes, methodHandleLoader);
+        generatePrimitiveInvokeMethods(member, classWriter, parameterTypes, methodHandleLoader);
+        generateTypedMethods(member, classWriter, parameterTypes, methodHandleLoader);
+        if (!toInvokeDirectly) {
+            generateStaticBlock(member, classWriter, internalClassName, parameterTypes, toSetAccessible);
+        }
 
         classWriter.visitEnd();
 
         return new MemberData(member, className, classWriter.toByteArray());
     }
 
+    @Override
+    public MemberData generateHidden(Member member) {
+        ClassWriter classWriter = new ClassWriter(CLASSWRITER_FLAGS);
+        // the name is just a template, the JVM will append a suffix to make it unique
+        final String className = generateClassName(member);
+        final String internalClassName = className.replace('.', '/');
+        final String fastMemberInternalName = getInternalName(getFastMemberClass());
+        // condy requires class file version 55
+        classWriter.visit(V11, ACC_CLASS, internalClassName, null, fastMemberInternalName, null);
+
+        generateConstructor(classWriter, fastMemberInternalName);
+        final Class<?>[] parameterTypes = getParameterTypes(member);
+        Consumer<MethodVisitor> methodHandleLoader = mv -> mv.visitLdcInsn(CLASS_DATA);
+        generateInvokeMethod(member, classWriter, parameterTypes, methodHandleLoader);
+        generateFixedArityInvokeMethod(member, classWriter, parameterTypes, methodHandleLoader);
+        generatePrimitiveInvokeMethods(member, classWriter, parameterTypes, methodHandleLoader);
+        generateTypedMethods(member, classWriter, parameterTypes, methodHandleLoader);
+
+        classWriter.visitEnd();
+
+        return new MemberData(member, className, classWriter.toByteArray());
+    }
+
+    @Override
+    public ClassData generateFunction(Member member, Class<?> functionalInterface, boolean toSetAccessible) {
+        final Method functionalMethod = findFunctionalMethod(functionalInterface);
+        final Class<?>[] parameterTypes = getParameterTypes(member);
+        final Class<?>[] functionParameterTypes = functionalMethod.getParameterTypes();
+        // the target object of instance members is the first parameter of the functional method
+        final int targetCount = member instanceof Constructor || Modifier.isStatic(member.getModifiers()) ? 0 : 1;
+        if (functionParameterTypes.length != targetCount + parameterTypes.length || (1 == targetCount && functionParameterTypes[0].isPrimitive())) {
+            throw new IllegalArgumentException(functionalMethod + " does not match the parameters of " + member);
+        }
+
+        ClassWriter classWriter = new ClassWriter(CLASSWRITER_FLAGS);
+        final String className = generateClassName(member) + "$" + encode(functionalInterface) + "_" + SEQUENCE.incrementAndGet() + "_" + (toSetAccessible ? "1" : "0");
+        final String internalClassName = className.replace('.', '/');
+        classWriter.visit(V1_8, ACC_CLASS, internalClassName, null, OBJECT_INTERNAL_NAME, new String[]{getInternalName(functionalInterface)});
+
+        final boolean toInvokeDirectly = isDirectlyAccessible(member);
+        if (!toInvokeDirectly) {
+            generateConstantMethodHandleField(classWriter);
+        }
+
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, INIT, "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, OBJECT_INTERNAL_NAME, INIT, "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        final int[] slots = new int[functionParameterTypes.length];
+        for (int i = 0, slot = 1; i < slots.length; i++) {
+            slots[i] = slot;
+            slot += Type.getType(functionParameterTypes[i]).getSize();
+        }
+        Consumer<MethodVisitor> methodHandleLoader = toInvokeDirectly ? null : v -> v.visitFieldInsn(GETSTATIC, internalClassName, "METHOD_HANDLE", METHODHANDLE_DESCRIPTOR);
+        mv = classWriter.visitMethod(ACC_PUBLIC, functionalMethod.getName(), Type.getMethodDescriptor(functionalMethod), null, null);
+        mv.visitCode();
+        visitInvocation(mv, member, parameterTypes, methodHandleLoader, (v, i) -> {
+            final Class<?> functionParameterType = functionParameterTypes[targetCount + i];
+            v.visitVarInsn(Type.getType(functionParameterType).getOpcode(ILOAD), slots[targetCount + i]);
+            visitConversion(v, functionParameterType, parameterTypes[i]);
+        });
+        final Class<?> functionReturnType = functionalMethod.getReturnType();
+        visitConversion(mv, getInvokeMethodReturnType(member), functionReturnType);
+        mv.visitInsn(Type.getType(functionReturnType).getOpcode(IRETURN));
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        if (!toInvokeDirectly) {
+            generateStaticBlock(member, classWriter, internalClassName, parameterTypes, toSetAccessible);
+        }
+        classWriter.visitEnd();
+
+        return new ClassData(className, classWriter.toByteArray());
+    }
+
+    /**
+     * Find the single abstract method of the functional interface, the public methods of {@link Object} are ignored
+     */
+    private static Method findFunctionalMethod(Class<?> functionalInterface) {
+        if (!functionalInterface.isInterface() || !Modifier.isPublic(functionalInterface.getModifiers()) || !isExported(functionalInterface)) {
+            throw new IllegalArgumentException(functionalInterface + " is not a public interface");
+        }
+
+        Method result = null;
+        for (Method method : functionalInterface.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers()) || isObjectMethod(method)) {
+                continue;
+            }
+            if (null != result && !(result.getName().equals(method.getName()) && Arrays.equals(result.getParameterTypes(), method.getParameterTypes()))) {
+                throw new IllegalArgumentException(functionalInterface + " is not a functional interface");
+            }
+            result = method;
+        }
+        if (null == result) {
+            throw new IllegalArgumentException(functionalInterface + " is not a functional interface");
+        }
+        return result;
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        try {
+            return Modifier.isPublic(Object.class.getMethod(method.getName(), method.getParameterTypes()).getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Convert the value on the operand stack as {@code MethodHandle.asType} does, e.g. boxing, unboxing, widening and casting
+     */
+    static void visitConversion(MethodVisitor mv, Class<?> from, Class<?> to) {
+        if (from == to) {
+            return;
+        }
+        if (void.class == to) {
+            mv.visitInsn(2 == Type.getType(from).getSize() ? POP2 : POP);
+            return;
+        }
+        if (void.class == from) {
+            if (to.isPrimitive()) {
+                throw new IllegalArgumentException("can not convert void to " + to);
+            }
+            mv.visitInsn(ACONST_NULL);
+            return;
+        }
+
+        if (from.isPrimitive()) {
+            if (to.isPrimitive()) {
+                final int wideningOpcode = getWideningOpcode(from, to);
+                if (wideningOpcode < 0) {
+                    throw new IllegalArgumentException("can not convert " + from + " to " + to);
+                }
+                visitWidening(mv, wideningOpcode);
+                return;
+            }
+            if (!to.isAssignableFrom(getWrapper(from))) {
+                throw new IllegalArgumentException("can not convert " + from + " to " + to);
+            }
+            box(mv, from);
+            return;
+        }
+
+        if (to.isPrimitive()) {
+            for (Class<?> primitiveType : ALL_PRIMITIVE_TYPES) {
+                if (getWrapper(primitiveType) == from) {
+                    // unbox the wrapper, then widen it, e.g. `Integer` to `long`
+                    cast(mv, primitiveType);
+                    visitConversion(mv, primitiveType, to);
+                    return;
+                }
+            }
+            cast(mv, to);
+            return;
+        }
+        if (!to.isAssignableFrom(from)) {
+            cast(mv, to);
+        }
+    }
+
+    @Override
+    public String generateClassName(Member member) {
+        return getFastMemberClass().getName() + "_" + encode(member);
+    }
+
+    @Override
+    public String generateClassName(Member member, boolean toSetAccessible, int discriminator) {
+        final String className = generateClassName(member) + "_" + (toSetAccessible ? "1" : "0");
+        return 0 == discriminator ? className : className + "_" + discriminator;
+    }
+
     private void generateStaticBlock(Member member, ClassWriter classWriter, String internalClassName, Class<?>[] parameterTypes, boolean toSetAccessible) {
         MethodVisitor mv = classWriter.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
         mv.visitCode();
@@ -70,21 +289,7 @@ abstract class FastExecutableGenerator implements FastMemberGenerator {
         Label label2 = new Label();
         mv.visitTryCatchBlock(label0, label1, label2, THROWABLE_INTERNAL_NAME);
         mv.visitLabel(label0);
-        visitLdcTypeInsn(mv, member.getDeclaringClass());
-        visitMemberName(mv, member);
-        visitTypeArray(parameterTypes, mv);
-        visitGetMember(mv, member);
-        mv.visitVarInsn(ASTORE, 0);
-
-        if (toSetAccessible) {
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKESTATIC, ACCESSIBLEOBJECTHELPER_INTERNAL_NAME, "trySetAccessible", "(Ljava/lang/reflect/AccessibleObject;)Z", false);
-            mv.visitInsn(POP);
-        }
-
-        mv.visitMethodInsn(INVOKESTATIC, METHODHANDLES_INTERNAL_NAME, "lookup", "()" + LOOKUP_DESCRIPTOR, false);
-        mv.visitVarInsn(ALOAD, 0);
-        visitFindMethod(mv, member);
+        visitFindMethodHandle(mv, member, parameterTypes, toSetAccessible);
         mv.visitFieldInsn(PUTSTATIC, internalClassName, "METHOD_HANDLE", METHODHANDLE_DESCRIPTOR);
         mv.visitLabel(label1);
         Label label4 = new Label();
@@ -102,33 +307,263 @@ abstract class FastExecutableGenerator implements FastMemberGenerator {
         mv.visitEnd();
     }
 
-    private void generateInvokeMethod(Member member, ClassWriter classWriter, String internalClassName, Class<?>[] parameterTypes) {
+    /**
+     * Resolve the member reflectively and leave its method handle on the operand stack, local variable 0 is clobbered
+     */
+    void visitFindMethodHandle(MethodVisitor mv, Member member, Class<?>[] parameterTypes, boolean toSetAccessible) {
+        visitLdcTypeInsn(mv, member.getDeclaringClass());
+        visitMemberName(mv, member);
+        visitTypeArray(parameterTypes, mv);
+        visitGetMember(mv, member);
+        mv.visitVarInsn(ASTORE, 0);
+
+        if (toSetAccessible) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitMethodInsn(INVOKESTATIC, ACCESSIBLEOBJECTHELPER_INTERNAL_NAME, "trySetAccessible", "(Ljava/lang/reflect/AccessibleObject;)Z", false);
+            mv.visitInsn(POP);
+        }
+
+        mv.visitMethodInsn(INVOKESTATIC, METHODHANDLES_INTERNAL_NAME, "lookup", "()" + LOOKUP_DESCRIPTOR, false);
+        mv.visitVarInsn(ALOAD, 0);
+        visitFindMethod(mv, member);
+    }
+
+    private void generateInvokeMethod(Member member, ClassWriter classWriter, Class<?>[] parameterTypes, Consumer<MethodVisitor> methodHandleLoader) {
         MethodVisitor mv = classWriter.visitMethod(ACC_METHOD, "invoke", getInvokeMethodDescriptor(), null, new String[]{THROWABLE_INTERNAL_NAME});
         mv.visitCode();
-        Label label0 = new Label();
-        mv.visitLabel(label0);
-        mv.visitFieldInsn(GETSTATIC, internalClassName, "METHOD_HANDLE", METHODHANDLE_DESCRIPTOR);
+        final int argsIndex = getArgsIndex();
+        visitInvocation(mv, member, parameterTypes, methodHandleLoader, (v, i) -> {
+            v.visitVarInsn(ALOAD, argsIndex);
+            v.visitLdcInsn(i);
+            v.visitInsn(AALOAD);
+            castArgument(v, parameterTypes[i]);
+        });
+        doReturn(mv, getInvokeMethodReturnType(member));
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
 
-        visitTargetObject(member, mv);
+    /**
+     * Generate {@code invokeN} for the arity of the member, which takes the arguments from the local variables
+     * instead of the arguments array, see {@link FastExecutable#MAX_FIXED_ARITY}
+     */
+    private void generateFixedArityInvokeMethod(Member member, ClassWriter classWriter, Class<?>[] parameterTypes, Consumer<MethodVisitor> methodHandleLoader) {
+        final int arity = parameterTypes.length;
+        if (arity > FastExecutable.MAX_FIXED_ARITY) {
+            return;
+        }
 
         final int argsIndex = getArgsIndex();
-        for (int i = 0, n = parameterTypes.length; i < n; i++) {
-            mv.visitVarInsn(ALOAD, argsIndex);
-            mv.visitLdcInsn(i);
-            mv.visitInsn(AALOAD);
-            cast(mv, parameterTypes[i]);
+        StringBuilder descriptor = new StringBuilder("(");
+        // the target object of methods precedes the arguments
+        for (int i = 1, n = argsIndex + arity; i < n; i++) {
+            descriptor.append(OBJECT_DESCRIPTOR);
         }
+        descriptor.append(")").append(OBJECT_DESCRIPTOR);
 
-        final Class<?> invokeMethodReturnType = getInvokeMethodReturnType(member);
-        String invokeExactMethodDescriptor = getInvokeExactMethodDescriptor(member, parameterTypes, invokeMethodReturnType);
-        mv.visitMethodInsn(INVOKEVIRTUAL, METHODHANDLE_INTERNAL_NAME, "invokeExact", invokeExactMethodDescriptor, false);
-        doReturn(mv, invokeMethodReturnType);
-        Label label3 = new Label();
-        mv.visitLabel(label3);
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "invoke" + arity, descriptor.toString(), null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        visitInvocation(mv, member, parameterTypes, methodHandleLoader, (v, i) -> {
+            v.visitVarInsn(ALOAD, argsIndex + i);
+            castArgument(v, parameterTypes[i]);
+        });
+        doReturn(mv, getInvokeMethodReturnType(member));
         mv.visitMaxs(0, 0);
         mv.visitEnd();
     }
 
+    /**
+     * Generate the entry points of {@link FastMethod} returning primitive values without boxing, e.g. {@code invokeAsInt},
+     * and the ones taking a primitive argument without unboxing, e.g. {@code invoke1(Object, int)}.
+     * The primitive values are widened as Java does, e.g. {@code invokeAsLong} of the method returning {@code int}
+     */
+    private void generatePrimitiveInvokeMethods(Member member, ClassWriter classWriter, Class<?>[] parameterTypes, Consumer<MethodVisitor> methodHandleLoader) {
+        if (!FastMethod.class.isAssignableFrom(getFastMemberClass())) {
+            return;
+        }
+
+        final int argsIndex = getArgsIndex();
+        final Class<?> returnType = getInvokeMethodReturnType(member);
+        for (Class<?> primitiveType : PRIMITIVE_TYPES) {
+            final int wideningOpcode = getWideningOpcode(returnType, primitiveType);
+            if (wideningOpcode < 0) {
+                continue;
+            }
+
+            final String methodName = "invokeAs" + capitalize(primitiveType.getName());
+            final Type primitiveAsmType = Type.getType(primitiveType);
+            MethodVisitor mv = classWriter.visitMethod(ACC_METHOD, methodName, "(" + OBJECT_DESCRIPTOR + "[" + OBJECT_DESCRIPTOR + ")" + primitiveAsmType, null, new String[]{THROWABLE_INTERNAL_NAME});
+            mv.visitCode();
+            visitInvocation(mv, member, parameterTypes, methodHandleLoader, (v, i) -> {
+                v.visitVarInsn(ALOAD, argsIndex);
+                v.visitLdcInsn(i);
+                v.visitInsn(AALOAD);
+                castArgument(v, parameterTypes[i]);
+            });
+            visitWidening(mv, wideningOpcode);
+            mv.visitInsn(primitiveAsmType.getOpcode(IRETURN));
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            if (0 == parameterTypes.length) {
+                mv = classWriter.visitMethod(ACC_PUBLIC, methodName, "(" + OBJECT_DESCRIPTOR + ")" + primitiveAsmType, null, new String[]{THROWABLE_INTERNAL_NAME});
+                mv.visitCode();
+                visitInvocation(mv, member, parameterTypes, methodHandleLoader, (v, i) -> {});
+                visitWidening(mv, wideningOpcode);
+                mv.visitInsn(primitiveAsmType.getOpcode(IRETURN));
+                mv.visitMaxs(0, 0);
+                mv.visitEnd();
+            }
+        }
+
+        if (1 != parameterTypes.length) {
+            return;
+        }
+        for (Class<?> primitiveType : PRIMITIVE_TYPES) {
+            final int wideningOpcode = getWideningOpcode(primitiveType, parameterTypes[0]);
+            if (wideningOpcode < 0) {
+                continue;
+            }
+
+            final Type primitiveAsmType = Type.getType(primitiveType);
+            MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "invoke1", "(" + OBJECT_DESCRIPTOR + primitiveAsmType + ")" + OBJECT_DESCRIPTOR, null, new String[]{THROWABLE_INTERNAL_NAME});
+            mv.visitCode();
+            visitInvocation(mv, member, parameterTypes, methodHandleLoader, (v, i) -> {
+                v.visitVarInsn(primitiveAsmType.getOpcode(ILOAD), argsIndex);
+                visitWidening(v, wideningOpcode);
+            });
+            doReturn(mv, returnType);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+    }
+
+    /**
+     * Generate the entry points specific to the kind of the member, e.g. the typed getters of fields
+     */
+    void generateTypedMethods(Member member, ClassWriter classWriter, Class<?>[] parameterTypes, Consumer<MethodVisitor> methodHandleLoader) {
+    }
+
+    /**
+     * Invoke the member and leave its result on the operand stack. The member is invoked by the method handle
+     * loaded by {@code methodHandleLoader}, or by plain bytecode if {@code methodHandleLoader} is {@code null},
+     * see {@link #isDirectlyAccessible(Member)}
+     */
+    void visitInvocation(MethodVisitor mv, Member member, Class<?>[] parameterTypes, Consumer<MethodVisitor> methodHandleLoader, ObjIntConsumer<MethodVisitor> argumentLoader) {
+        visitInvocation(mv, member, parameterTypes, methodHandleLoader, null, argumentLoader);
+    }
+
+    /**
+     * @param targetLoader push the target object instead of taking it from the first parameter if not {@code null}
+     */
+    void visitInvocation(MethodVisitor mv, Member member, Class<?>[] parameterTypes, Consumer<MethodVisitor> methodHandleLoader, Consumer<MethodVisitor> targetLoader, ObjIntConsumer<MethodVisitor> argumentLoader) {
+        if (null == methodHandleLoader) {
+            if (null == targetLoader) {
+                visitDirectTargetObject(member, mv);
+            } else {
+                targetLoader.accept(mv);
+            }
+            for (int i = 0, n = parameterTypes.length; i < n; i++) {
+                argumentLoader.accept(mv, i);
+            }
+            visitDirectInvocation(mv, member);
+            return;
+        }
+
+        methodHandleLoader.accept(mv);
+        if (null == targetLoader) {
+            visitTargetObject(member, mv);
+        } else {
+            targetLoader.accept(mv);
+        }
+        for (int i = 0, n = parameterTypes.length; i < n; i++) {
+            argumentLoader.accept(mv, i);
+        }
+        String invokeExactMethodDescriptor = getInvokeExactMethodDescriptor(member, parameterTypes, getInvokeMethodReturnType(member));
+        mv.visitMethodInsn(INVOKEVIRTUAL, METHODHANDLE_INTERNAL_NAME, "invokeExact", invokeExactMethodDescriptor, false);
+    }
+
+    /**
+     * The member is accessible from the generated class if both the member and its declaring class are public,
+     * and the package of the declaring class is exported on JDK 9+
+     */
+    @Override
+    public boolean isDirectlyAccessible(Member member) {
+        final Class<?> declaringClass = member.getDeclaringClass();
+        return Modifier.isPublic(member.getModifiers()) && Modifier.isPublic(declaringClass.getModifiers()) && isExported(declaringClass);
+    }
+
+    /**
+     * Push the target object before the arguments when invoking the member directly
+     */
+    void visitDirectTargetObject(Member member, MethodVisitor mv) {
+        visitTargetObject(member, mv);
+    }
+
+    /**
+     * Invoke the member directly, e.g. {@code invokevirtual} or {@code getfield}, the target object and the arguments are on the operand stack
+     */
+    abstract void visitDirectInvocation(MethodVisitor mv, Member member);
+
+    private static boolean isExported(Class<?> type) {
+        if (null == GET_MODULE) {
+            // all packages are accessible before JDK 9
+            return true;
+        }
+        final String className = type.getName();
+        final int lastDotIndex = className.lastIndexOf('.');
+        final String packageName = lastDotIndex < 0 ? "" : className.substring(0, lastDotIndex);
+        try {
+            return (boolean) IS_EXPORTED.invoke(GET_MODULE.invoke(type), packageName);
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    static void visitWidening(MethodVisitor mv, int wideningOpcode) {
+        if (NOP != wideningOpcode) {
+            mv.visitInsn(wideningOpcode);
+        }
+    }
+
+    /**
+     * @return the opcode of the widening primitive conversion, {@code NOP} if identical, or {@code -1} if not convertible
+     */
+    static int getWideningOpcode(Class<?> from, Class<?> to) {
+        if (!from.isPrimitive() || void.class == from) {
+            return -1;
+        }
+        if (from == to) {
+            return NOP;
+        }
+        if (boolean.class == from || boolean.class == to) {
+            return -1;
+        }
+
+        // byte, short and char are represented as int on the operand stack
+        final boolean isIntLike = byte.class == from || short.class == from || char.class == from || int.class == from;
+        if (short.class == to) {
+            return byte.class == from ? NOP : -1;
+        }
+        if (int.class == to) {
+            return isIntLike ? NOP : -1;
+        }
+        if (long.class == to) {
+            return isIntLike ? I2L : -1;
+        }
+        if (float.class == to) {
+            return isIntLike ? I2F : long.class == from ? L2F : -1;
+        }
+        if (double.class == to) {
+            return isIntLike ? I2D : long.class == from ? L2D : float.class == from ? F2D : -1;
+        }
+        return -1;
+    }
+
     private void generateConstructor(ClassWriter classWriter, String fastMemberInternalName) {
         final String constructorDescriptor = "(" + getMemberDescriptor() + MEMBERLOADABLE_DESCRIPTOR + ")V";
         MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, INIT, constructorDescriptor, null, null);
@@ -146,7 +581,7 @@ abstract class FastExecutableGenerator implements FastMemberGenerator {
         mv.visitEnd();
     }
 
-    private void generateConstantMethodHandleField(ClassWriter classWriter) {
+    void generateConstantMethodHandleField(ClassWriter classWriter) {
         FieldVisitor fv = classWriter.visitField(ACC_FIELD, "METHOD_HANDLE", METHODHANDLE_DESCRIPTOR, null, null);
         fv.visitEnd();
     }
@@ -162,12 +597,12 @@ abstract class FastExecutableGenerator implements FastMemberGenerator {
         }
     }
 
-    private static final int CLASSWRITER_FLAGS = ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES;
-    private static final int ACC_CLASS = ACC_PUBLIC | ACC_FINAL | ACC_SUPER;
+    static final int CLASSWRITER_FLAGS = ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES;
+    static final int ACC_CLASS = ACC_PUBLIC | ACC_FINAL | ACC_SUPER;
     private static final int ACC_INNERCLASS = ACC_PUBLIC | ACC_FINAL | ACC_STATIC;
     private static final int ACC_FIELD = ACC_PRIVATE | ACC_FINAL | ACC_STATIC;
     private static final int ACC_METHOD = ACC_PUBLIC | ACC_VARARGS;
-    private static final String INIT = "<init>";
+    static final String INIT = "<init>";
     private static final String ACCESSIBLEOBJECTHELPER_INTERNAL_NAME = getInternalName(AccessibleObjectHelper.class);
     protected static final String METHODHANDLE_DESCRIPTOR = getDescriptor(MethodHandle.class);
     protected static final String METHODHANDLE_INTERNAL_NAME = getInternalName(MethodHandle.class);
@@ -178,4 +613,27 @@ abstract class FastExecutableGenerator implements FastMemberGenerator {
     protected static final String MEMBERLOADABLE_DESCRIPTOR = getDescriptor(MemberLoadable.class);
     protected static final String LOOKUP_DESCRIPTOR = getDescriptor(MethodHandles.Lookup.class);
     protected static final String CLASS_INTERNAL_NAME = getInternalName(Class.class);
+    static final String OBJECT_DESCRIPTOR = getDescriptor(Object.class);
+    static final Class<?>[] PRIMITIVE_TYPES = {int.class, long.class, double.class, boolean.class};
+    static final Class<?>[] ALL_PRIMITIVE_TYPES = {boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class};
+    private static final ConstantDynamic CLASS_DATA = new ConstantDynamic("_", METHODHANDLE_DESCRIPTOR,
+            new Handle(H_INVOKESTATIC, METHODHANDLES_INTERNAL_NAME, "classData", "(" + LOOKUP_DESCRIPTOR + "Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;", false));
+    static final String OBJECT_INTERNAL_NAME = getInternalName(Object.class);
+    static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final MethodHandle GET_MODULE;
+    private static final MethodHandle IS_EXPORTED;
+    static {
+        MethodHandle getModule = null;
+        MethodHandle isExported = null;
+        try {
+            final Class<?> moduleClass = Class.forName("java.lang.Module");
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            getModule = lookup.findVirtual(Class.class, "getModule", MethodType.methodType(moduleClass)).asType(MethodType.methodType(Object.class, Class.class));
+            isExported = lookup.findVirtual(moduleClass, "isExported", MethodType.methodType(boolean.class, String.class)).asType(MethodType.methodType(boolean.class, Object.class, String.class));
+        } catch (ReflectiveOperationException e) {
+            // modules are available since JDK 9
+        }
+        GET_MODULE = getModule;
+        IS_EXPORTED = isExported;
+    }
 }
@@ -19,14 +19,24 @@
 package me.sunlan.fastreflection.generator;
 
 import me.sunlan.fastreflection.FastFieldGetter;
+import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.Member;
 import java.lang.reflect.Modifier;
+import java.util.function.Consumer;
 
-import static me.sunlan.fastreflection.generator.EncodingUtils.md5;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Type.getDescriptor;
+import static org.objectweb.asm.Type.getInternalName;
 
 public class FastFieldGetterGenerator extends FastMethodGenerator {
     public static final FastFieldGetterGenerator INSTANCE = new FastFieldGetterGenerator();
@@ -37,11 +47,6 @@ public class FastFieldGetterGenerator extends FastMethodGenerator {
         return FastFieldGetter.class;
     }
 
-    @Override
-    public String generateClassName(Member member) {
-        return getFastMemberClass().getName() + "_" + md5(((Field) member).toGenericString());
-    }
-
     @Override
     public Class<?> getInvokeMethodReturnType(Member member) {
         return ((Field) member).getType();
@@ -68,10 +73,45 @@ public class FastFieldGetterGenerator extends FastMethodGenerator {
         mv.visitMethodInsn(INVOKEVIRTUAL, LOOKUP_INTERNAL_NAME, "unreflectGetter", "(Ljava/lang/reflect/Field;)Ljava/lang/invoke/MethodHandle;", false);
     }
 
+    @Override
+    public MethodHandle unreflect(MethodHandles.Lookup lookup, Member member) throws IllegalAccessException {
+        return lookup.unreflectGetter((Field) member);
+    }
+
+    @Override
+    void visitDirectInvocation(MethodVisitor mv, Member member) {
+        final Field field = (Field) member;
+        final int opcode = Modifier.isStatic(field.getModifiers()) ? GETSTATIC : GETFIELD;
+        mv.visitFieldInsn(opcode, getInternalName(field.getDeclaringClass()), field.getName(), getDescriptor(field.getType()));
+    }
+
     @Override
     public void visitTypeArray(Class<?>[] parameterTypes, MethodVisitor mv) {
         // do nothing
     }
 
+    /**
+     * Generate the typed getters, e.g. {@code getInt}, for the types the field type can be widened to
+     */
+    @Override
+    void generateTypedMethods(Member member, ClassWriter classWriter, Class<?>[] parameterTypes, Consumer<MethodVisitor> methodHandleLoader) {
+        final Class<?> fieldType = ((Field) member).getType();
+        for (Class<?> primitiveType : ALL_PRIMITIVE_TYPES) {
+            final int wideningOpcode = getWideningOpcode(fieldType, primitiveType);
+            if (wideningOpcode < 0) {
+                continue;
+            }
+
+            final Type primitiveAsmType = Type.getType(primitiveType);
+            MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "get" + capitalize(primitiveType.getName()), "(" + OBJECT_DESCRIPTOR + ")" + primitiveAsmType, null, new String[]{THROWABLE_INTERNAL_NAME});
+            mv.visitCode();
+            visitInvocation(mv, member, parameterTypes, methodHandleLoader, (v, i) -> {});
+            visitWidening(mv, wideningOpcode);
+            mv.visitInsn(primitiveAsmType.getOpcode(IRETURN));
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+    }
+
     private FastFieldGetterGenerator() {}
 }
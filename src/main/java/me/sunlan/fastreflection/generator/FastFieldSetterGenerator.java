@@ -19,14 +19,25 @@
 package me.sunlan.fastreflection.generator;
 
 import me.sunlan.fastreflection.FastFieldSetter;
+import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.Member;
 import java.lang.reflect.Modifier;
+import java.util.function.Consumer;
 
-import static me.sunlan.fastreflection.generator.EncodingUtils.md5;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ILOAD;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Type.getDescriptor;
+import static org.objectweb.asm.Type.getInternalName;
 
 public class FastFieldSetterGenerator extends FastMethodGenerator {
     public static final FastFieldSetterGenerator INSTANCE = new FastFieldSetterGenerator();
@@ -36,11 +47,6 @@ public class FastFieldSetterGenerator extends FastMethodGenerator {
         return FastFieldSetter.class;
     }
 
-    @Override
-    public String generateClassName(Member member) {
-        return getFastMemberClass().getName() + "_" + md5(((Field) member).toGenericString());
-    }
-
     @Override
     public Class<?> getInvokeMethodReturnType(Member member) {
         return void.class;
@@ -67,10 +73,55 @@ public class FastFieldSetterGenerator extends FastMethodGenerator {
         mv.visitMethodInsn(INVOKEVIRTUAL, LOOKUP_INTERNAL_NAME, "unreflectSetter", "(Ljava/lang/reflect/Field;)Ljava/lang/invoke/MethodHandle;", false);
     }
 
+    @Override
+    public MethodHandle unreflect(MethodHandles.Lookup lookup, Member member) throws IllegalAccessException {
+        return lookup.unreflectSetter((Field) member);
+    }
+
+    /**
+     * Final fields can only be set via method handle, which requires the field to be set accessible
+     */
+    @Override
+    public boolean isDirectlyAccessible(Member member) {
+        return !Modifier.isFinal(member.getModifiers()) && super.isDirectlyAccessible(member);
+    }
+
+    @Override
+    void visitDirectInvocation(MethodVisitor mv, Member member) {
+        final Field field = (Field) member;
+        final int opcode = Modifier.isStatic(field.getModifiers()) ? PUTSTATIC : PUTFIELD;
+        mv.visitFieldInsn(opcode, getInternalName(field.getDeclaringClass()), field.getName(), getDescriptor(field.getType()));
+    }
+
     @Override
     public void visitTypeArray(Class<?>[] parameterTypes, MethodVisitor mv) {
         // do nothing
     }
 
+    /**
+     * Generate the typed setters, e.g. {@code setInt}, for the types which can be widened to the field type
+     */
+    @Override
+    void generateTypedMethods(Member member, ClassWriter classWriter, Class<?>[] parameterTypes, Consumer<MethodVisitor> methodHandleLoader) {
+        final Class<?> fieldType = ((Field) member).getType();
+        for (Class<?> primitiveType : ALL_PRIMITIVE_TYPES) {
+            final int wideningOpcode = getWideningOpcode(primitiveType, fieldType);
+            if (wideningOpcode < 0) {
+                continue;
+            }
+
+            final Type primitiveAsmType = Type.getType(primitiveType);
+            MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "set" + capitalize(primitiveType.getName()), "(" + OBJECT_DESCRIPTOR + primitiveAsmType + ")V", null, new String[]{THROWABLE_INTERNAL_NAME});
+            mv.visitCode();
+            visitInvocation(mv, member, parameterTypes, methodHandleLoader, (v, i) -> {
+                v.visitVarInsn(primitiveAsmType.getOpcode(ILOAD), getArgsIndex());
+                visitWidening(v, wideningOpcode);
+            });
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+    }
+
     private FastFieldSetterGenerator() {}
 }
@@ -0,0 +1,216 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection.generator;
+
+import me.sunlan.fastreflection.FastMapConverter;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static me.sunlan.fastreflection.generator.AsmUtils.box;
+import static me.sunlan.fastreflection.generator.AsmUtils.castArgument;
+import static me.sunlan.fastreflection.generator.AsmUtils.generateConstructor;
+import static me.sunlan.fastreflection.generator.AsmUtils.generateStaticBlock;
+import static me.sunlan.fastreflection.generator.AsmUtils.methodHandleLoader;
+import static me.sunlan.fastreflection.generator.AsmUtils.targetLoader;
+import static me.sunlan.fastreflection.generator.AsmUtils.visitStringSwitch;
+import static me.sunlan.fastreflection.generator.EncodingUtils.encode;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.V1_8;
+import static org.objectweb.asm.Type.getInternalName;
+
+public class FastMapConverterGenerator {
+    public static final FastMapConverterGenerator INSTANCE = new FastMapConverterGenerator();
+
+    /**
+     * Generate the subclass of {@link FastMapConverter} implementing {@code toMap} and {@code fromMap}, the latter switches
+     * on the hash codes of the keys
+     *
+     * @param fields the non-static fields to convert, the final ones are only read
+     */
+    public ClassData generate(Class<?> clazz, Field[] fields, boolean toSetAccessible) {
+        final String className = CONVERTER_CLASS_NAME + "_" + encode(clazz) + "_" + SEQUENCE.incrementAndGet() + "_" + (toSetAccessible ? "1" : "0");
+        final String internalClassName = className.replace('.', '/');
+
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        classWriter.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalClassName, null, CONVERTER_INTERNAL_NAME, null);
+
+        final boolean[] toGetDirectly = new boolean[fields.length];
+        final boolean[] toSet = new boolean[fields.length];
+        boolean toResolveMethodHandles = false;
+        for (int i = 0; i < fields.length; i++) {
+            toGetDirectly[i] = FastFieldGetterGenerator.INSTANCE.isDirectlyAccessible(fields[i]);
+            toSet[i] = !Modifier.isFinal(fields[i].getModifiers());
+            if (!toGetDirectly[i]) {
+                classWriter.visitField(ACC_PRIVATE | ACC_FINAL | ACC_STATIC, GETTER + i, METHODHANDLE_DESCRIPTOR, null, null).visitEnd();
+                if (toSet[i]) {
+                    classWriter.visitField(ACC_PRIVATE | ACC_FINAL | ACC_STATIC, SETTER + i, METHODHANDLE_DESCRIPTOR, null, null).visitEnd();
+                }
+                toResolveMethodHandles = true;
+            }
+        }
+
+        generateConstructor(classWriter, CONVERTER_INTERNAL_NAME);
+        generateToMapMethod(classWriter, internalClassName, fields, toGetDirectly);
+        generateFromMapMethod(classWriter, internalClassName, fields, toGetDirectly, toSet);
+        if (toResolveMethodHandles) {
+            generateStaticBlock(classWriter, mv -> {
+                for (int i = 0; i < fields.length; i++) {
+                    if (toGetDirectly[i]) continue;
+                    FastFieldGetterGenerator.INSTANCE.visitFindMethodHandle(mv, fields[i], EMPTY_CLASS_ARRAY, toSetAccessible);
+                    mv.visitFieldInsn(PUTSTATIC, internalClassName, GETTER + i, METHODHANDLE_DESCRIPTOR);
+                    if (!toSet[i]) continue;
+                    FastFieldSetterGenerator.INSTANCE.visitFindMethodHandle(mv, fields[i], new Class<?>[]{fields[i].getType()}, toSetAccessible);
+                    mv.visitFieldInsn(PUTSTATIC, internalClassName, SETTER + i, METHODHANDLE_DESCRIPTOR);
+                }
+            });
+        }
+
+        classWriter.visitEnd();
+
+        return new ClassData(className, classWriter.toByteArray());
+    }
+
+    private void generateToMapMethod(ClassWriter classWriter, String internalClassName, Field[] fields, boolean[] toGetDirectly) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "toMap", "(" + OBJECT_DESCRIPTOR + ")" + MAP_DESCRIPTOR, null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        // presized to hold all the fields without rehashing under the default load factor
+        mv.visitTypeInsn(NEW, LINKEDHASHMAP_INTERNAL_NAME);
+        mv.visitInsn(DUP);
+        mv.visitLdcInsn(fields.length * 4 / 3 + 1);
+        mv.visitMethodInsn(INVOKESPECIAL, LINKEDHASHMAP_INTERNAL_NAME, INIT, "(I)V", false);
+        for (int i = 0; i < fields.length; i++) {
+            final Field field = fields[i];
+            final Consumer<MethodVisitor> getterLoader = toGetDirectly[i] ? null : methodHandleLoader(internalClassName, GETTER + i);
+            mv.visitInsn(DUP);
+            mv.visitLdcInsn(field.getName());
+            FastFieldGetterGenerator.INSTANCE.visitInvocation(mv, field, EMPTY_CLASS_ARRAY, getterLoader, targetLoader(field, 1), (v, j) -> {});
+            if (field.getType().isPrimitive()) {
+                box(mv, field.getType());
+            }
+            mv.visitMethodInsn(INVOKEINTERFACE, MAP_INTERNAL_NAME, "put", "(" + OBJECT_DESCRIPTOR + OBJECT_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR, true);
+            mv.visitInsn(POP);
+        }
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void generateFromMapMethod(ClassWriter classWriter, String internalClassName, Field[] fields, boolean[] toGetDirectly, boolean[] toSet) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "fromMap", "(" + MAP_DESCRIPTOR + OBJECT_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR, null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+
+        final Map<String, Integer> settableFields = new LinkedHashMap<>();
+        for (int i = 0; i < fields.length; i++) {
+            if (toSet[i]) {
+                settableFields.put(fields[i].getName(), i);
+            }
+        }
+
+        if (!settableFields.isEmpty()) {
+            final int iteratorIndex = 3;
+            final int entryIndex = 4;
+            final int keyIndex = 5;
+            Label loop = new Label();
+            Label end = new Label();
+
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitMethodInsn(INVOKEINTERFACE, MAP_INTERNAL_NAME, "entrySet", "()" + Type.getDescriptor(Set.class), true);
+            mv.visitMethodInsn(INVOKEINTERFACE, getInternalName(Set.class), "iterator", "()" + Type.getDescriptor(Iterator.class), true);
+            mv.visitVarInsn(ASTORE, iteratorIndex);
+            mv.visitLabel(loop);
+            mv.visitVarInsn(ALOAD, iteratorIndex);
+            mv.visitMethodInsn(INVOKEINTERFACE, ITERATOR_INTERNAL_NAME, "hasNext", "()Z", true);
+            mv.visitJumpInsn(IFEQ, end);
+            mv.visitVarInsn(ALOAD, iteratorIndex);
+            mv.visitMethodInsn(INVOKEINTERFACE, ITERATOR_INTERNAL_NAME, "next", "()" + OBJECT_DESCRIPTOR, true);
+            mv.visitTypeInsn(CHECKCAST, ENTRY_INTERNAL_NAME);
+            mv.visitVarInsn(ASTORE, entryIndex);
+            mv.visitVarInsn(ALOAD, entryIndex);
+            mv.visitMethodInsn(INVOKEINTERFACE, ENTRY_INTERNAL_NAME, "getKey", "()" + OBJECT_DESCRIPTOR, true);
+            mv.visitInsn(DUP);
+            mv.visitVarInsn(ASTORE, keyIndex);
+            mv.visitJumpInsn(IFNULL, loop);
+
+            // the field of the key is found by switching on the hash code of the key instead of matching the names one by one
+            visitStringSwitch(mv, keyIndex, settableFields.keySet(), loop, (v, name) -> {
+                final int i = settableFields.get(name);
+                final Field field = fields[i];
+                final Consumer<MethodVisitor> setterLoader = toGetDirectly[i] ? null : methodHandleLoader(internalClassName, SETTER + i);
+                FastFieldSetterGenerator.INSTANCE.visitInvocation(v, field, new Class<?>[]{field.getType()}, setterLoader, targetLoader(field, 2), (w, j) -> {
+                    w.visitVarInsn(ALOAD, entryIndex);
+                    w.visitMethodInsn(INVOKEINTERFACE, ENTRY_INTERNAL_NAME, "getValue", "()" + OBJECT_DESCRIPTOR, true);
+                    castArgument(w, field.getType());
+                });
+                v.visitJumpInsn(GOTO, loop);
+            });
+            mv.visitLabel(end);
+        }
+
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private FastMapConverterGenerator() {}
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final String INIT = "<init>";
+    private static final String GETTER = "GETTER";
+    private static final String SETTER = "SETTER";
+    private static final Class<?>[] EMPTY_CLASS_ARRAY = new Class<?>[0];
+    private static final String CONVERTER_CLASS_NAME = FastMapConverter.class.getName();
+    private static final String CONVERTER_INTERNAL_NAME = getInternalName(FastMapConverter.class);
+    private static final String MAP_INTERNAL_NAME = getInternalName(Map.class);
+    private static final String MAP_DESCRIPTOR = Type.getDescriptor(Map.class);
+    private static final String ENTRY_INTERNAL_NAME = getInternalName(Map.Entry.class);
+    private static final String ITERATOR_INTERNAL_NAME = getInternalName(Iterator.class);
+    private static final String LINKEDHASHMAP_INTERNAL_NAME = getInternalName(LinkedHashMap.class);
+    private static final String OBJECT_DESCRIPTOR = FastExecutableGenerator.OBJECT_DESCRIPTOR;
+    private static final String METHODHANDLE_DESCRIPTOR = FastExecutableGenerator.METHODHANDLE_DESCRIPTOR;
+    private static final String THROWABLE_INTERNAL_NAME = FastExecutableGenerator.THROWABLE_INTERNAL_NAME;
+}
@@ -21,25 +21,54 @@ package me.sunlan.fastreflection.generator;
 import me.sunlan.fastreflection.FastMember;
 import org.objectweb.asm.MethodVisitor;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Member;
 
 import static org.objectweb.asm.Type.getInternalName;
 
-interface FastMemberGenerator {
+public interface FastMemberGenerator {
     String LOOKUP_INTERNAL_NAME = getInternalName(MethodHandles.Lookup.class);
 
+    /**
+     * The version of the format of the generated classes, which has to be bumped once the generated bytecode changes,
+     * so that the classes pregenerated or persisted by the older generators are not loaded
+     */
+    int FORMAT_VERSION = 1;
+
     MemberData generate(Member member, boolean toSetAccessible);
+    MemberData generate(Member member, boolean toSetAccessible, int discriminator);
+
+    /**
+     * Generate the class to be defined as a hidden class, which loads the method handle from its class data
+     * instead of resolving the member in the static block, see {@code MethodHandles.classData}
+     */
+    MemberData generateHidden(Member member);
+
+    /**
+     * Check whether the generated class can access the member without method handle, i.e. by plain bytecode
+     */
+    boolean isDirectlyAccessible(Member member);
+
+    /**
+     * Generate the class implementing the functional interface by invoking the member, which is instantiated by its
+     * public no-arg constructor. The parameters and the result of the functional method are converted to the types
+     * of the member, e.g. unboxing and widening primitive conversion, or {@link IllegalArgumentException} is thrown
+     * if not convertible
+     */
+    ClassData generateFunction(Member member, Class<?> functionalInterface, boolean toSetAccessible);
     String getInvokeMethodDescriptor();
     String getInvokeExactMethodDescriptor(Member member, Class<?>[] parameterTypes, Class<?> returnType);
     int getArgsIndex();
     void visitTargetObject(Member member, MethodVisitor mv);
     void visitMemberName(MethodVisitor mv, Member member);
     void visitFindMethod(MethodVisitor mv, Member member);
+    MethodHandle unreflect(MethodHandles.Lookup lookup, Member member) throws IllegalAccessException;
     Class<?> getInvokeMethodReturnType(Member member);
     void visitGetMember(MethodVisitor mv, Member member);
     Class<?>[] getParameterTypes(Member member);
     String getMemberDescriptor();
     Class<? extends FastMember> getFastMemberClass();
     String generateClassName(Member member);
+    String generateClassName(Member member, boolean toSetAccessible, int discriminator);
 }
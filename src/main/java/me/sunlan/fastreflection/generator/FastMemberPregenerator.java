@@ -0,0 +1,192 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection.generator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the classes of members at build time, which are found by {@link PregeneratedMemberDataStore} at runtime
+ * instead of being generated again. The output directory is meant to be packaged into the jar, e.g. with Gradle:
+ * <pre>
+ * tasks.register('pregenerateFastMembers', JavaExec) {
+ *     classpath = sourceSets.main.runtimeClasspath
+ *     mainClass = 'me.sunlan.fastreflection.generator.FastMemberPregenerator'
+ *     args "$buildDir/fast-reflection", '@src/main/fast-reflection/classes.txt'
+ *     outputs.dir "$buildDir/fast-reflection"
+ * }
+ * jar {
+ *     from tasks.named('pregenerateFastMembers')
+ * }
+ * </pre>
+ */
+public class FastMemberPregenerator {
+    /**
+     * Usage: {@code [--accessible] <outputDir> <className | @fileOfClassNames>...}
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        boolean toSetAccessible = arguments.remove("--accessible");
+        if (arguments.size() < 2) {
+            System.err.println("Usage: FastMemberPregenerator [--accessible] <outputDir> <className | @fileOfClassNames>...");
+            System.exit(1);
+        }
+
+        Path outputDir = Paths.get(arguments.get(0));
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        List<Class<?>> classes = new ArrayList<>();
+        for (String className : readClassNames(arguments.subList(1, arguments.size()))) {
+            classes.add(Class.forName(className, false, classLoader));
+        }
+
+        int count = pregenerate(outputDir, classes, false);
+        if (toSetAccessible) {
+            count += pregenerate(outputDir, classes, true);
+        }
+        System.out.println(count + " classes of members pregenerated into " + outputDir);
+    }
+
+    /**
+     * Generate the classes of all members of the classes into the output directory, the existing index is merged
+     *
+     * @return the number of classes generated
+     */
+    public static int pregenerate(Path outputDir, Collection<? extends Class<?>> classes, boolean toSetAccessible) throws IOException {
+        final Path resourceDir = outputDir.resolve(PregeneratedMemberDataStore.RESOURCE_PREFIX);
+        final Path indexFile = outputDir.resolve(PregeneratedMemberDataStore.INDEX_RESOURCE_NAME);
+        Files.createDirectories(resourceDir);
+        Map<String, String> index = readIndex(indexFile);
+
+        int count = 0;
+        for (Class<?> c : classes) {
+            for (Entry entry : collectEntries(c)) {
+                String className = entry.generator.generateClassName(entry.member, toSetAccessible, 0);
+                String signature = PregeneratedMemberDataStore.signatureOf(entry.member);
+                String existingSignature = index.putIfAbsent(className, signature);
+                if (null != existingSignature && !existingSignature.equals(signature)) {
+                    // the class name clashes with another member, which will be generated at runtime
+                    continue;
+                }
+
+                MemberData memberData = entry.generator.generate(entry.member, toSetAccessible, 0);
+                Files.write(resourceDir.resolve(className + PregeneratedMemberDataStore.RESOURCE_SUFFIX), memberData.getBytes());
+                count++;
+            }
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8)) {
+            writer.write(PregeneratedMemberDataStore.VERSION_HEADER);
+            writer.newLine();
+            for (Map.Entry<String, String> e : index.entrySet()) {
+                writer.write(e.getKey() + '\t' + e.getValue());
+                writer.newLine();
+            }
+        }
+
+        return count;
+    }
+
+    private static List<Entry> collectEntries(Class<?> c) {
+        List<Entry> entries = new ArrayList<>();
+        for (Member method : union(c.getMethods(), c.getDeclaredMethods())) {
+            entries.add(new Entry(FastMethodGenerator.INSTANCE, method));
+        }
+        for (Member constructor : c.getDeclaredConstructors()) {
+            entries.add(new Entry(FastConstructorGenerator.INSTANCE, constructor));
+        }
+        for (Field field : union(c.getFields(), c.getDeclaredFields())) {
+            entries.add(new Entry(FastFieldGetterGenerator.INSTANCE, field));
+            if (!Modifier.isFinal(field.getModifiers())) {
+                entries.add(new Entry(FastFieldSetterGenerator.INSTANCE, field));
+            }
+        }
+        return entries;
+    }
+
+    private static <M extends Member> Set<M> union(M[] members, M[] declaredMembers) {
+        Set<M> result = new LinkedHashSet<>(Arrays.asList(members));
+        result.addAll(Arrays.asList(declaredMembers));
+        return result;
+    }
+
+    private static Map<String, String> readIndex(Path indexFile) throws IOException {
+        Map<String, String> result = new LinkedHashMap<>();
+        if (!Files.exists(indexFile)) {
+            return result;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            if (!PregeneratedMemberDataStore.VERSION_HEADER.equals(reader.readLine())) {
+                return result;
+            }
+            for (String line; null != (line = reader.readLine()); ) {
+                int tabIndex = line.indexOf('\t');
+                if (tabIndex > 0) {
+                    result.put(line.substring(0, tabIndex), line.substring(tabIndex + 1));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<String> readClassNames(List<String> arguments) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (String argument : arguments) {
+            if (argument.startsWith("@")) {
+                for (String line : Files.readAllLines(Paths.get(argument.substring(1)), StandardCharsets.UTF_8)) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        result.add(line);
+                    }
+                }
+            } else {
+                result.add(argument);
+            }
+        }
+        return result;
+    }
+
+    private static final class Entry {
+        private final FastMemberGenerator generator;
+        private final Member member;
+
+        Entry(FastMemberGenerator generator, Member member) {
+            this.generator = generator;
+            this.member = member;
+        }
+    }
+
+    private FastMemberPregenerator() {}
+}
@@ -18,20 +18,52 @@
  */
 package me.sunlan.fastreflection.generator;
 
+import me.sunlan.fastreflection.BatchFastMethod;
+import me.sunlan.fastreflection.BoundFastMethod;
+import me.sunlan.fastreflection.FastExecutable;
 import me.sunlan.fastreflection.FastMethod;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static me.sunlan.fastreflection.generator.AsmUtils.cast;
+import static me.sunlan.fastreflection.generator.AsmUtils.castArgument;
+import static me.sunlan.fastreflection.generator.AsmUtils.doReturn;
 import static me.sunlan.fastreflection.generator.AsmUtils.getMethodDescriptor;
-import static me.sunlan.fastreflection.generator.EncodingUtils.md5;
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_VARARGS;
 import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.IASTORE;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.IF_ICMPGE;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.ISTORE;
+import static org.objectweb.asm.Opcodes.NOP;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+import static org.objectweb.asm.Type.getDescriptor;
+import static org.objectweb.asm.Type.getInternalName;
 
 public class FastMethodGenerator extends FastExecutableGenerator {
     public static final FastMethodGenerator INSTANCE = new FastMethodGenerator();
@@ -43,16 +75,270 @@ public class FastMethodGenerator extends FastExecutableGenerator {
         return FastMethod.class;
     }
 
-    @Override
-    public String generateClassName(Member member) {
-        return getFastMemberClass().getName() + "_" + md5(((Method) member).toGenericString());
-    }
-
     @Override
     public Class<?> getInvokeMethodReturnType(Member member) {
         return ((Method) member).getReturnType();
     }
 
+    /**
+     * Generate the subclass of {@link BoundFastMethod} holding the target object and the first {@code boundCount} arguments
+     * in final fields. The constructor takes the fast method and the bound values, which are the method handle if the method
+     * is not directly accessible, the target object if the method is not static, and the bound arguments, in order.
+     * The class does not hold any static state, so it can be defined as a hidden class
+     */
+    public ClassData generateBound(Member member, int boundCount) {
+        final Class<?>[] parameterTypes = getParameterTypes(member);
+        if (boundCount < 0 || boundCount > parameterTypes.length) {
+            throw new IllegalArgumentException(boundCount + " arguments can not be bound to " + member);
+        }
+
+        ClassWriter classWriter = new ClassWriter(CLASSWRITER_FLAGS);
+        final String className = generateClassName(member) + "_bound_" + SEQUENCE.incrementAndGet();
+        final String internalClassName = className.replace('.', '/');
+        classWriter.visit(V1_8, ACC_CLASS, internalClassName, null, BOUNDFASTMETHOD_INTERNAL_NAME, null);
+
+        final boolean toInvokeDirectly = isDirectlyAccessible(member);
+        final boolean isStatic = Modifier.isStatic(member.getModifiers());
+        if (!toInvokeDirectly) {
+            classWriter.visitField(ACC_BOUND_FIELD, "methodHandle", METHODHANDLE_DESCRIPTOR, null, null).visitEnd();
+        }
+        if (!isStatic) {
+            classWriter.visitField(ACC_BOUND_FIELD, "target", getDescriptor(member.getDeclaringClass()), null, null).visitEnd();
+        }
+        for (int i = 0; i < boundCount; i++) {
+            classWriter.visitField(ACC_BOUND_FIELD, "arg" + i, getDescriptor(parameterTypes[i]), null, null).visitEnd();
+        }
+
+        final String superConstructorDescriptor = "(" + getDescriptor(FastMethod.class) + ")V";
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, INIT, "(" + getDescriptor(FastMethod.class) + "[" + OBJECT_DESCRIPTOR + ")V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKESPECIAL, BOUNDFASTMETHOD_INTERNAL_NAME, INIT, superConstructorDescriptor, false);
+        int valueIndex = 0;
+        if (!toInvokeDirectly) {
+            visitBoundValue(mv, internalClassName, "methodHandle", MethodHandle.class, valueIndex++);
+        }
+        if (!isStatic) {
+            visitBoundValue(mv, internalClassName, "target", member.getDeclaringClass(), valueIndex++);
+        }
+        for (int i = 0; i < boundCount; i++) {
+            visitBoundValue(mv, internalClassName, "arg" + i, parameterTypes[i], valueIndex++);
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        final Consumer<MethodVisitor> methodHandleLoader = toInvokeDirectly ? null : v -> visitGetBoundValue(v, internalClassName, "methodHandle", MethodHandle.class);
+        final Consumer<MethodVisitor> targetLoader = isStatic ? v -> {} : v -> visitGetBoundValue(v, internalClassName, "target", member.getDeclaringClass());
+        final Class<?> returnType = getInvokeMethodReturnType(member);
+        mv = classWriter.visitMethod(ACC_PUBLIC | ACC_VARARGS, "call", "([" + OBJECT_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR, null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        visitInvocation(mv, member, parameterTypes, methodHandleLoader, targetLoader, (v, i) -> {
+            if (i < boundCount) {
+                visitGetBoundValue(v, internalClassName, "arg" + i, parameterTypes[i]);
+            } else {
+                v.visitVarInsn(ALOAD, 1);
+                v.visitLdcInsn(i - boundCount);
+                v.visitInsn(AALOAD);
+                castArgument(v, parameterTypes[i]);
+            }
+        });
+        doReturn(mv, returnType);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        final int arity = parameterTypes.length - boundCount;
+        if (arity <= FastExecutable.MAX_FIXED_ARITY) {
+            StringBuilder descriptor = new StringBuilder("(");
+            for (int i = 0; i < arity; i++) {
+                descriptor.append(OBJECT_DESCRIPTOR);
+            }
+            descriptor.append(")").append(OBJECT_DESCRIPTOR);
+
+            mv = classWriter.visitMethod(ACC_PUBLIC, "call", descriptor.toString(), null, new String[]{THROWABLE_INTERNAL_NAME});
+            mv.visitCode();
+            visitInvocation(mv, member, parameterTypes, methodHandleLoader, targetLoader, (v, i) -> {
+                if (i < boundCount) {
+                    visitGetBoundValue(v, internalClassName, "arg" + i, parameterTypes[i]);
+                } else {
+                    v.visitVarInsn(ALOAD, 1 + i - boundCount);
+                    castArgument(v, parameterTypes[i]);
+                }
+            });
+            doReturn(mv, returnType);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        classWriter.visitEnd();
+
+        return new ClassData(className, classWriter.toByteArray());
+    }
+
+    /**
+     * Generate the subclass of {@link BatchFastMethod} overriding its batch entry points, e.g. {@code invokeAll} and
+     * {@code invokeAllAsLong}, which loop over the target objects inside the generated class, so that the invocation
+     * in the loop is monomorphic. The arguments shared by the invocations are cast once before the loop.
+     * The constructor takes the fast method and the method handle, which is {@code null} if the method is directly accessible.
+     * The class does not hold any static state, so it can be defined as a hidden class
+     */
+    public ClassData generateBatch(Member member) {
+        ClassWriter classWriter = new ClassWriter(CLASSWRITER_FLAGS);
+        final String className = generateClassName(member) + "_batch_" + SEQUENCE.incrementAndGet();
+        final String internalClassName = className.replace('.', '/');
+        classWriter.visit(V1_8, ACC_CLASS, internalClassName, null, BATCHFASTMETHOD_INTERNAL_NAME, null);
+
+        final boolean toInvokeDirectly = isDirectlyAccessible(member);
+        if (!toInvokeDirectly) {
+            classWriter.visitField(ACC_BOUND_FIELD, "methodHandle", METHODHANDLE_DESCRIPTOR, null, null).visitEnd();
+        }
+
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, INIT, "(" + getDescriptor(FastMethod.class) + METHODHANDLE_DESCRIPTOR + ")V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKESPECIAL, BATCHFASTMETHOD_INTERNAL_NAME, INIT, "(" + getDescriptor(FastMethod.class) + ")V", false);
+        if (!toInvokeDirectly) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitFieldInsn(PUTFIELD, internalClassName, "methodHandle", METHODHANDLE_DESCRIPTOR);
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        final Class<?>[] parameterTypes = getParameterTypes(member);
+        final Consumer<MethodVisitor> methodHandleLoader = toInvokeDirectly ? null : v -> visitGetBoundValue(v, internalClassName, "methodHandle", MethodHandle.class);
+        final Class<?> returnType = getInvokeMethodReturnType(member);
+        generateArrayBatchInvokeMethod(member, classWriter, parameterTypes, methodHandleLoader, "invokeAll", Object.class, NOP);
+        for (Class<?> primitiveType : PRIMITIVE_TYPES) {
+            final int wideningOpcode = getWideningOpcode(returnType, primitiveType);
+            if (wideningOpcode >= 0) {
+                generateArrayBatchInvokeMethod(member, classWriter, parameterTypes, methodHandleLoader, "invokeAllAs" + capitalize(primitiveType.getName()), primitiveType, wideningOpcode);
+            }
+        }
+
+        // invokeAll(List<?> receivers, Consumer<?> action, Object... args)
+        final int argsIndex = 3;
+        final int sizeIndex = 4;
+        final int index = 5;
+        mv = classWriter.visitMethod(ACC_BATCH_METHOD, "invokeAll", "(" + LIST_DESCRIPTOR + CONSUMER_DESCRIPTOR + "[" + OBJECT_DESCRIPTOR + ")V", null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        final int[] argSlots = visitStoreArgs(mv, parameterTypes, argsIndex, index + 1);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKEINTERFACE, LIST_INTERNAL_NAME, "size", "()I", true);
+        mv.visitVarInsn(ISTORE, sizeIndex);
+        mv.visitInsn(ICONST_0);
+        mv.visitVarInsn(ISTORE, index);
+        Label condition = new Label();
+        Label end = new Label();
+        mv.visitLabel(condition);
+        mv.visitVarInsn(ILOAD, index);
+        mv.visitVarInsn(ILOAD, sizeIndex);
+        mv.visitJumpInsn(IF_ICMPGE, end);
+        mv.visitVarInsn(ALOAD, 2);
+        visitInvocation(mv, member, parameterTypes, methodHandleLoader, v -> {
+            if (!Modifier.isStatic(member.getModifiers())) {
+                v.visitVarInsn(ALOAD, 1);
+                v.visitVarInsn(ILOAD, index);
+                v.visitMethodInsn(INVOKEINTERFACE, LIST_INTERNAL_NAME, "get", "(I)" + OBJECT_DESCRIPTOR, true);
+                cast(v, member.getDeclaringClass());
+            }
+        }, (v, i) -> v.visitVarInsn(Type.getType(parameterTypes[i]).getOpcode(ILOAD), argSlots[i]));
+        visitConversion(mv, returnType, Object.class);
+        mv.visitMethodInsn(INVOKEINTERFACE, CONSUMER_INTERNAL_NAME, "accept", "(" + OBJECT_DESCRIPTOR + ")V", true);
+        mv.visitIincInsn(index, 1);
+        mv.visitJumpInsn(GOTO, condition);
+        mv.visitLabel(end);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        classWriter.visitEnd();
+
+        return new ClassData(className, classWriter.toByteArray());
+    }
+
+    /**
+     * Generate {@code name(Object[] receivers, int fromIndex, int toIndex, T[] out, Object... args)}, where {@code T} is the component type
+     */
+    private void generateArrayBatchInvokeMethod(Member member, ClassWriter classWriter, Class<?>[] parameterTypes, Consumer<MethodVisitor> methodHandleLoader, String name, Class<?> componentType, int wideningOpcode) {
+        final int fromIndex = 2;
+        final int toIndex = 3;
+        final int outIndex = 4;
+        final int argsIndex = 5;
+        final int index = 6;
+        final Type componentAsmType = Type.getType(componentType);
+        MethodVisitor mv = classWriter.visitMethod(ACC_BATCH_METHOD, name, "([" + OBJECT_DESCRIPTOR + "II[" + componentAsmType + "[" + OBJECT_DESCRIPTOR + ")V", null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        final int[] argSlots = visitStoreArgs(mv, parameterTypes, argsIndex, index + 1);
+        mv.visitVarInsn(ILOAD, fromIndex);
+        mv.visitVarInsn(ISTORE, index);
+        Label condition = new Label();
+        Label end = new Label();
+        mv.visitLabel(condition);
+        mv.visitVarInsn(ILOAD, index);
+        mv.visitVarInsn(ILOAD, toIndex);
+        mv.visitJumpInsn(IF_ICMPGE, end);
+        mv.visitVarInsn(ALOAD, outIndex);
+        mv.visitVarInsn(ILOAD, index);
+        visitInvocation(mv, member, parameterTypes, methodHandleLoader, v -> {
+            if (!Modifier.isStatic(member.getModifiers())) {
+                v.visitVarInsn(ALOAD, 1);
+                v.visitVarInsn(ILOAD, index);
+                v.visitInsn(AALOAD);
+                cast(v, member.getDeclaringClass());
+            }
+        }, (v, i) -> v.visitVarInsn(Type.getType(parameterTypes[i]).getOpcode(ILOAD), argSlots[i]));
+        if (componentType.isPrimitive()) {
+            visitWidening(mv, wideningOpcode);
+        } else {
+            visitConversion(mv, getInvokeMethodReturnType(member), componentType);
+        }
+        mv.visitInsn(componentAsmType.getOpcode(IASTORE));
+        mv.visitIincInsn(index, 1);
+        mv.visitJumpInsn(GOTO, condition);
+        mv.visitLabel(end);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Cast the arguments and store them into the local variables from {@code firstSlot}
+     *
+     * @return the slots of the arguments
+     */
+    private static int[] visitStoreArgs(MethodVisitor mv, Class<?>[] parameterTypes, int argsIndex, int firstSlot) {
+        final int[] slots = new int[parameterTypes.length];
+        for (int i = 0, slot = firstSlot; i < parameterTypes.length; i++) {
+            final Type type = Type.getType(parameterTypes[i]);
+            mv.visitVarInsn(ALOAD, argsIndex);
+            mv.visitLdcInsn(i);
+            mv.visitInsn(AALOAD);
+            castArgument(mv, parameterTypes[i]);
+            mv.visitVarInsn(type.getOpcode(ISTORE), slot);
+            slots[i] = slot;
+            slot += type.getSize();
+        }
+        return slots;
+    }
+
+    private static void visitBoundValue(MethodVisitor mv, String internalClassName, String fieldName, Class<?> type, int valueIndex) {
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitLdcInsn(valueIndex);
+        mv.visitInsn(AALOAD);
+        cast(mv, type);
+        mv.visitFieldInsn(PUTFIELD, internalClassName, fieldName, getDescriptor(type));
+    }
+
+    private static void visitGetBoundValue(MethodVisitor mv, String internalClassName, String fieldName, Class<?> type) {
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, internalClassName, fieldName, getDescriptor(type));
+    }
+
     @Override
     public void visitGetMember(MethodVisitor mv, Member member) {
         boolean isPublic = Modifier.isPublic(member.getModifiers());
@@ -74,6 +360,11 @@ public class FastMethodGenerator extends FastExecutableGenerator {
         mv.visitMethodInsn(INVOKEVIRTUAL, LOOKUP_INTERNAL_NAME, "unreflect", "(Ljava/lang/reflect/Method;)Ljava/lang/invoke/MethodHandle;", false);
     }
 
+    @Override
+    public MethodHandle unreflect(MethodHandles.Lookup lookup, Member member) throws IllegalAccessException {
+        return lookup.unreflect((Method) member);
+    }
+
     @Override
     public void visitMemberName(MethodVisitor mv, Member member) {
         mv.visitLdcInsn(member.getName());
@@ -87,6 +378,15 @@ public class FastMethodGenerator extends FastExecutableGenerator {
         }
     }
 
+    @Override
+    void visitDirectInvocation(MethodVisitor mv, Member member) {
+        final Method method = (Method) member;
+        final Class<?> declaringClass = method.getDeclaringClass();
+        final boolean isInterface = declaringClass.isInterface();
+        final int opcode = Modifier.isStatic(method.getModifiers()) ? INVOKESTATIC : isInterface ? INVOKEINTERFACE : INVOKEVIRTUAL;
+        mv.visitMethodInsn(opcode, getInternalName(declaringClass), method.getName(), getMethodDescriptor(method.getReturnType(), method.getParameterTypes()), isInterface);
+    }
+
     @Override
     public int getArgsIndex() {
         return 2;
@@ -106,4 +406,13 @@ public class FastMethodGenerator extends FastExecutableGenerator {
     public String getInvokeMethodDescriptor() {
         return "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
     }
+
+    private static final int ACC_BOUND_FIELD = ACC_PRIVATE | ACC_FINAL;
+    private static final int ACC_BATCH_METHOD = ACC_PUBLIC | ACC_VARARGS;
+    private static final String BOUNDFASTMETHOD_INTERNAL_NAME = getInternalName(BoundFastMethod.class);
+    private static final String BATCHFASTMETHOD_INTERNAL_NAME = getInternalName(BatchFastMethod.class);
+    private static final String LIST_INTERNAL_NAME = getInternalName(List.class);
+    private static final String LIST_DESCRIPTOR = getDescriptor(List.class);
+    private static final String CONSUMER_INTERNAL_NAME = getInternalName(Consumer.class);
+    private static final String CONSUMER_DESCRIPTOR = getDescriptor(Consumer.class);
 }
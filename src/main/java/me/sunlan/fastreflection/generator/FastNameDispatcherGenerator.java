@@ -0,0 +1,344 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection.generator;
+
+import me.sunlan.fastreflection.FastNameDispatcher;
+import org.objectweb.asm.ClassTooLargeException;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodTooLargeException;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static me.sunlan.fastreflection.generator.AsmUtils.castArgument;
+import static me.sunlan.fastreflection.generator.AsmUtils.doReturn;
+import static me.sunlan.fastreflection.generator.AsmUtils.generateConstructor;
+import static me.sunlan.fastreflection.generator.AsmUtils.generateStaticBlock;
+import static me.sunlan.fastreflection.generator.AsmUtils.getWrapper;
+import static me.sunlan.fastreflection.generator.AsmUtils.methodHandleLoader;
+import static me.sunlan.fastreflection.generator.AsmUtils.targetLoader;
+import static me.sunlan.fastreflection.generator.AsmUtils.visitApplicabilityCheck;
+import static me.sunlan.fastreflection.generator.AsmUtils.visitStringSwitch;
+import static me.sunlan.fastreflection.generator.EncodingUtils.encode;
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACC_VARARGS;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARRAYLENGTH;
+import static org.objectweb.asm.Opcodes.ATHROW;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.POP2;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+import static org.objectweb.asm.Type.getInternalName;
+
+public class FastNameDispatcherGenerator {
+    public static final FastNameDispatcherGenerator INSTANCE = new FastNameDispatcherGenerator();
+
+    /**
+     * Generate the name dispatcher class, or {@code null} if the members do not fit into one class
+     *
+     * @param methods the methods to invoke by name
+     * @param propertyNames the names of the properties
+     * @param readers the getters or fields reading the properties, {@code null} for the write-only ones
+     * @param writers the setters or fields writing the properties, {@code null} for the read-only ones
+     */
+    public ClassData generate(Class<?> clazz, Method[] methods, String[] propertyNames, Member[] readers, Member[] writers, boolean toSetAccessible) {
+        final String className = NAME_DISPATCHER_CLASS_NAME + "_" + encode(clazz) + "_" + SEQUENCE.incrementAndGet() + "_" + (toSetAccessible ? "1" : "0");
+        final String internalClassName = className.replace('.', '/');
+
+        // the entries are indexed in the order: methods, readers, writers
+        final List<Entry> entries = new ArrayList<>(methods.length + readers.length + writers.length);
+        for (Method method : methods) {
+            entries.add(new Entry(FastMethodGenerator.INSTANCE, method));
+        }
+        for (Member reader : readers) {
+            entries.add(null == reader ? null : new Entry(reader instanceof Field ? FastFieldGetterGenerator.INSTANCE : FastMethodGenerator.INSTANCE, reader));
+        }
+        for (Member writer : writers) {
+            entries.add(null == writer ? null : new Entry(writer instanceof Field ? FastFieldSetterGenerator.INSTANCE : FastMethodGenerator.INSTANCE, writer));
+        }
+
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        classWriter.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalClassName, null, NAME_DISPATCHER_INTERNAL_NAME, null);
+
+        boolean toResolveMethodHandles = false;
+        for (int i = 0, n = entries.size(); i < n; i++) {
+            final Entry entry = entries.get(i);
+            if (null == entry || entry.toInvokeDirectly) continue;
+            entry.methodHandleLoader = methodHandleLoader(internalClassName, METHOD_HANDLE + i);
+            classWriter.visitField(ACC_PRIVATE | ACC_FINAL | ACC_STATIC, METHOD_HANDLE + i, METHODHANDLE_DESCRIPTOR, null, null).visitEnd();
+            toResolveMethodHandles = true;
+        }
+
+        generateConstructor(classWriter, NAME_DISPATCHER_INTERNAL_NAME, false);
+        generateInvokeMethod(classWriter, entries.subList(0, methods.length));
+        generateGetMethod(classWriter, propertyNames, entries.subList(methods.length, methods.length + readers.length));
+        generateSetMethod(classWriter, propertyNames, entries.subList(methods.length + readers.length, entries.size()));
+        if (toResolveMethodHandles) {
+            generateStaticBlock(classWriter, mv -> {
+                for (int i = 0, n = entries.size(); i < n; i++) {
+                    final Entry entry = entries.get(i);
+                    if (null == entry || entry.toInvokeDirectly) continue;
+                    entry.generator.visitFindMethodHandle(mv, entry.member, entry.parameterTypes, toSetAccessible);
+                    mv.visitFieldInsn(PUTSTATIC, internalClassName, METHOD_HANDLE + i, METHODHANDLE_DESCRIPTOR);
+                }
+            });
+        }
+
+        classWriter.visitEnd();
+
+        try {
+            return new ClassData(className, classWriter.toByteArray());
+        } catch (MethodTooLargeException | ClassTooLargeException e) {
+            return null;
+        }
+    }
+
+    private void generateInvokeMethod(ClassWriter classWriter, List<Entry> entries) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC | ACC_VARARGS, "invoke", "(" + OBJECT_DESCRIPTOR + STRING_DESCRIPTOR + OBJECT_ARRAY_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR, null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+
+        // the methods grouped by name, then by arity
+        final Map<String, Map<Integer, List<Entry>>> overloads = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            overloads.computeIfAbsent(entry.member.getName(), name -> new TreeMap<>())
+                    .computeIfAbsent(entry.parameterTypes.length, arity -> new ArrayList<>())
+                    .add(entry);
+        }
+
+        Label noSuchMethod = new Label();
+        visitStringSwitch(mv, 2, overloads.keySet(), noSuchMethod, (v, name) -> {
+            final Map<Integer, List<Entry>> arities = overloads.get(name);
+            final int[] keys = new int[arities.size()];
+            final Label[] labels = new Label[arities.size()];
+            int i = 0;
+            for (Integer arity : arities.keySet()) {
+                keys[i] = arity;
+                labels[i++] = new Label();
+            }
+            v.visitVarInsn(ALOAD, 3);
+            v.visitInsn(ARRAYLENGTH);
+            v.visitLookupSwitchInsn(noSuchMethod, keys, labels);
+
+            i = 0;
+            for (List<Entry> candidates : arities.values()) {
+                v.visitLabel(labels[i++]);
+                // the sole candidate is checked too, so that the arguments not applicable are reported as the unknown names are
+                for (Entry entry : sortByPhase(candidates)) {
+                    final Class<?>[] parameterTypes = entry.parameterTypes;
+                    Label notApplicable = new Label();
+                    for (int j = 0; j < parameterTypes.length; j++) {
+                        final int index = j;
+                        visitApplicabilityCheck(v, parameterTypes[j], w -> visitArg(w, index), notApplicable);
+                    }
+                    entry.generator.visitInvocation(v, entry.member, parameterTypes, entry.methodHandleLoader, entry.targetLoader(), (w, j) -> {
+                        visitArg(w, j);
+                        castArgument(w, parameterTypes[j]);
+                    });
+                    doReturn(v, entry.returnType);
+                    v.visitLabel(notApplicable);
+                }
+                v.visitJumpInsn(GOTO, noSuchMethod);
+            }
+        });
+
+        mv.visitLabel(noSuchMethod);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitVarInsn(ALOAD, 3);
+        mv.visitMethodInsn(INVOKESTATIC, NAME_DISPATCHER_INTERNAL_NAME, "noSuchMethod", "(" + STRING_DESCRIPTOR + OBJECT_ARRAY_DESCRIPTOR + ")" + ILLEGALARGUMENTEXCEPTION_DESCRIPTOR, false);
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void generateGetMethod(ClassWriter classWriter, String[] propertyNames, List<Entry> readers) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "get", "(" + OBJECT_DESCRIPTOR + STRING_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR, null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        final Map<String, Entry> readersByName = byName(propertyNames, readers);
+        Label noSuchProperty = new Label();
+        visitStringSwitch(mv, 2, readersByName.keySet(), noSuchProperty, (v, name) -> {
+            final Entry entry = readersByName.get(name);
+            entry.generator.visitInvocation(v, entry.member, entry.parameterTypes, entry.methodHandleLoader, entry.targetLoader(), (w, j) -> {});
+            doReturn(v, entry.returnType);
+        });
+        visitNoSuchProperty(mv, noSuchProperty);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void generateSetMethod(ClassWriter classWriter, String[] propertyNames, List<Entry> writers) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "set", "(" + OBJECT_DESCRIPTOR + STRING_DESCRIPTOR + OBJECT_DESCRIPTOR + ")V", null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        final Map<String, Entry> writersByName = byName(propertyNames, writers);
+        Label noSuchProperty = new Label();
+        visitStringSwitch(mv, 2, writersByName.keySet(), noSuchProperty, (v, name) -> {
+            final Entry entry = writersByName.get(name);
+            final Class<?> parameterType = entry.parameterTypes[0];
+            entry.generator.visitInvocation(v, entry.member, entry.parameterTypes, entry.methodHandleLoader, entry.targetLoader(), (w, j) -> {
+                w.visitVarInsn(ALOAD, 3);
+                castArgument(w, parameterType);
+            });
+            // the result of the fluent setters is discarded
+            if (void.class != entry.returnType) {
+                v.visitInsn(Type.getType(entry.returnType).getSize() == 2 ? POP2 : POP);
+            }
+            v.visitInsn(RETURN);
+        });
+        visitNoSuchProperty(mv, noSuchProperty);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void visitNoSuchProperty(MethodVisitor mv, Label noSuchProperty) {
+        mv.visitLabel(noSuchProperty);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitMethodInsn(INVOKESTATIC, NAME_DISPATCHER_INTERNAL_NAME, "noSuchProperty", "(" + STRING_DESCRIPTOR + ")" + ILLEGALARGUMENTEXCEPTION_DESCRIPTOR, false);
+        mv.visitInsn(ATHROW);
+    }
+
+    private static void visitArg(MethodVisitor mv, int index) {
+        mv.visitVarInsn(ALOAD, 3);
+        mv.visitLdcInsn(index);
+        mv.visitInsn(AALOAD);
+    }
+
+    private static Map<String, Entry> byName(String[] names, List<Entry> entries) {
+        final Map<String, Entry> result = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            if (null != entries.get(i)) {
+                result.put(names[i], entries.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sort the overloads of the same arity in the phases of {@link me.sunlan.fastreflection.FastOverloads}: the ones
+     * taking only reference types, which are applicable by subtyping, go before the ones taking primitive types, which
+     * are applicable by unboxing and widening, e.g. {@code h(Object)} before {@code h(int)} for an {@code Integer}.
+     * Each phase is sorted by specificity
+     */
+    private static List<Entry> sortByPhase(List<Entry> candidates) {
+        final List<Entry> bySubtyping = new ArrayList<>(candidates.size());
+        final List<Entry> byConversion = new ArrayList<>(candidates.size());
+        for (Entry candidate : candidates) {
+            (Arrays.stream(candidate.parameterTypes).anyMatch(Class::isPrimitive) ? byConversion : bySubtyping).add(candidate);
+        }
+        final List<Entry> result = sortBySpecificity(bySubtyping);
+        result.addAll(sortBySpecificity(byConversion));
+        return result;
+    }
+
+    /**
+     * Sort the overloads of the same arity so that each one goes before the less specific ones, e.g.
+     * {@code append(String)} before {@code append(Object)}, then the first applicable one is chosen like {@code javac} does
+     */
+    private static List<Entry> sortBySpecificity(List<Entry> candidates) {
+        final List<Entry> remaining = new ArrayList<>(candidates);
+        final List<Entry> result = new ArrayList<>(candidates.size());
+        while (!remaining.isEmpty()) {
+            Entry next = remaining.get(0);
+            for (Entry candidate : remaining) {
+                boolean isMostSpecific = true;
+                for (Entry other : remaining) {
+                    if (other != candidate && isMoreSpecific(other.parameterTypes, candidate.parameterTypes) && !isMoreSpecific(candidate.parameterTypes, other.parameterTypes)) {
+                        isMostSpecific = false;
+                        break;
+                    }
+                }
+                if (isMostSpecific) {
+                    next = candidate;
+                    break;
+                }
+            }
+            remaining.remove(next);
+            result.add(next);
+        }
+        return result;
+    }
+
+    private static boolean isMoreSpecific(Class<?>[] parameterTypes, Class<?>[] otherParameterTypes) {
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!isSubtype(parameterTypes[i], otherParameterTypes[i])) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSubtype(Class<?> type, Class<?> otherType) {
+        if (type.isPrimitive()) {
+            return otherType.isPrimitive() ? FastExecutableGenerator.getWideningOpcode(type, otherType) >= 0 : otherType.isAssignableFrom(getWrapper(type));
+        }
+        return !otherType.isPrimitive() && otherType.isAssignableFrom(type);
+    }
+
+    private static final class Entry {
+        private final FastExecutableGenerator generator;
+        private final Member member;
+        private final Class<?>[] parameterTypes;
+        private final Class<?> returnType;
+        private final boolean toInvokeDirectly;
+        private Consumer<MethodVisitor> methodHandleLoader;
+
+        Entry(FastExecutableGenerator generator, Member member) {
+            this.generator = generator;
+            this.member = member;
+            this.parameterTypes = generator.getParameterTypes(member);
+            this.returnType = generator.getInvokeMethodReturnType(member);
+            this.toInvokeDirectly = generator.isDirectlyAccessible(member);
+        }
+
+        Consumer<MethodVisitor> targetLoader() {
+            return Modifier.isStatic(member.getModifiers()) ? mv -> {} : AsmUtils.targetLoader(member, 1);
+        }
+    }
+
+    private FastNameDispatcherGenerator() {}
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final String METHOD_HANDLE = "METHOD_HANDLE_";
+    private static final String NAME_DISPATCHER_CLASS_NAME = FastNameDispatcher.class.getName();
+    private static final String NAME_DISPATCHER_INTERNAL_NAME = getInternalName(FastNameDispatcher.class);
+    private static final String STRING_DESCRIPTOR = Type.getDescriptor(String.class);
+    private static final String OBJECT_ARRAY_DESCRIPTOR = Type.getDescriptor(Object[].class);
+    private static final String ILLEGALARGUMENTEXCEPTION_DESCRIPTOR = Type.getDescriptor(IllegalArgumentException.class);
+    private static final String OBJECT_DESCRIPTOR = FastExecutableGenerator.OBJECT_DESCRIPTOR;
+    private static final String METHODHANDLE_DESCRIPTOR = FastExecutableGenerator.METHODHANDLE_DESCRIPTOR;
+    private static final String THROWABLE_INTERNAL_NAME = FastExecutableGenerator.THROWABLE_INTERNAL_NAME;
+}
@@ -0,0 +1,119 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection.generator;
+
+import me.sunlan.fastreflection.FastStringifier;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static me.sunlan.fastreflection.generator.AsmUtils.generateConstructor;
+import static me.sunlan.fastreflection.generator.AsmUtils.generateGetterHandles;
+import static me.sunlan.fastreflection.generator.AsmUtils.targetLoader;
+import static me.sunlan.fastreflection.generator.EncodingUtils.encode;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.IFNONNULL;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.V1_8;
+import static org.objectweb.asm.Type.getDescriptor;
+import static org.objectweb.asm.Type.getInternalName;
+
+public class FastStringifierGenerator {
+    public static final FastStringifierGenerator INSTANCE = new FastStringifierGenerator();
+
+    /**
+     * Generate the subclass of {@link FastStringifier} appending the constant names and the values of the fields in the given order
+     */
+    public ClassData generate(Class<?> clazz, Field[] fields, boolean toSetAccessible) {
+        final String className = STRINGIFIER_CLASS_NAME + "_" + encode(clazz) + "_" + SEQUENCE.incrementAndGet() + "_" + (toSetAccessible ? "1" : "0");
+        final String internalClassName = className.replace('.', '/');
+
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        classWriter.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalClassName, null, STRINGIFIER_INTERNAL_NAME, null);
+
+        final List<Consumer<MethodVisitor>> getterLoaders = generateGetterHandles(classWriter, internalClassName, fields, toSetAccessible);
+        generateConstructor(classWriter, STRINGIFIER_INTERNAL_NAME, false);
+        generateAppendMethod(classWriter, clazz, fields, getterLoaders);
+
+        classWriter.visitEnd();
+
+        return new ClassData(className, classWriter.toByteArray());
+    }
+
+    private void generateAppendMethod(ClassWriter classWriter, Class<?> clazz, Field[] fields, List<Consumer<MethodVisitor>> getterLoaders) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "append", "(" + STRINGBUILDER_DESCRIPTOR + OBJECT_DESCRIPTOR + ")" + STRINGBUILDER_DESCRIPTOR, null, new String[]{THROWABLE_INTERNAL_NAME});
+        mv.visitCode();
+        Label nonNull = new Label();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitJumpInsn(IFNONNULL, nonNull);
+        visitAppendString(mv, "null");
+        mv.visitInsn(ARETURN);
+        mv.visitLabel(nonNull);
+        // the field names are merged with the punctuation into the constant strings, e.g. `Point{x=` and `, y=`
+        String prefix = clazz.getSimpleName() + "{";
+        for (int i = 0; i < fields.length; i++) {
+            final Field field = fields[i];
+            visitAppendString(mv, prefix + field.getName() + "=");
+            FastFieldGetterGenerator.INSTANCE.visitInvocation(mv, field, EMPTY_CLASS_ARRAY, getterLoaders.get(i), targetLoader(field, 2), (v, j) -> {});
+            mv.visitMethodInsn(INVOKEVIRTUAL, STRINGBUILDER_INTERNAL_NAME, "append", "(" + getAppendedDescriptor(field.getType()) + ")" + STRINGBUILDER_DESCRIPTOR, false);
+            prefix = ", ";
+        }
+        visitAppendString(mv, 0 == fields.length ? prefix + "}" : "}");
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void visitAppendString(MethodVisitor mv, String str) {
+        mv.visitLdcInsn(str);
+        mv.visitMethodInsn(INVOKEVIRTUAL, STRINGBUILDER_INTERNAL_NAME, "append", "(" + STRING_DESCRIPTOR + ")" + STRINGBUILDER_DESCRIPTOR, false);
+    }
+
+    /**
+     * Get the descriptor of the parameter of the {@code StringBuilder.append} overload, the arrays of {@code char}
+     * are appended as objects like {@link String#valueOf(Object)} does
+     */
+    private static String getAppendedDescriptor(Class<?> type) {
+        if (byte.class == type || short.class == type) return "I";
+        if (type.isPrimitive() || String.class == type) return getDescriptor(type);
+        return OBJECT_DESCRIPTOR;
+    }
+
+    private FastStringifierGenerator() {}
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final Class<?>[] EMPTY_CLASS_ARRAY = new Class<?>[0];
+    private static final String STRINGIFIER_CLASS_NAME = FastStringifier.class.getName();
+    private static final String STRINGIFIER_INTERNAL_NAME = getInternalName(FastStringifier.class);
+    private static final String STRINGBUILDER_INTERNAL_NAME = getInternalName(StringBuilder.class);
+    private static final String STRINGBUILDER_DESCRIPTOR = getDescriptor(StringBuilder.class);
+    private static final String STRING_DESCRIPTOR = getDescriptor(String.class);
+    private static final String OBJECT_DESCRIPTOR = FastExecutableGenerator.OBJECT_DESCRIPTOR;
+    private static final String THROWABLE_INTERNAL_NAME = FastExecutableGenerator.THROWABLE_INTERNAL_NAME;
+}
@@ -20,24 +20,15 @@ package me.sunlan.fastreflection.generator;
 
 import java.lang.reflect.Member;
 
-public class MemberData {
+public class MemberData extends ClassData {
     private final Member member;
-    private final String name;
-    private final byte[] bytes;
 
     public MemberData(Member member, String name, byte[] bytes) {
+        super(name, bytes);
         this.member = member;
-        this.name = name;
-        this.bytes = bytes;
     }
 
     public Member getMember() {
         return member;
     }
-    public String getName() {
-        return name;
-    }
-    public byte[] getBytes() {
-        return bytes;
-    }
 }
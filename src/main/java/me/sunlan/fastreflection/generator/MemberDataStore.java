@@ -0,0 +1,42 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection.generator;
+
+import java.lang.reflect.Member;
+
+/**
+ * The store consulted by the loader before generating the class of a member,
+ * e.g. the classes pregenerated at build time
+ */
+public interface MemberDataStore {
+    /**
+     * Find the class data of the member
+     *
+     * @param className the class name expected by the loader, which encodes the kind of the member and the accessible flag
+     * @param member the member
+     * @return the class data, or {@code null} if absent or stale
+     */
+    MemberData find(String className, Member member);
+
+    /**
+     * Store the class data just generated, stores are read-only by default
+     */
+    default void store(MemberData memberData) {
+    }
+}
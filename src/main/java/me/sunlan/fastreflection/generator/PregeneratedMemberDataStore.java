@@ -0,0 +1,122 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection.generator;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Member;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds the classes written by {@link FastMemberPregenerator} into the class path, see {@link #INDEX_RESOURCE_NAME}
+ */
+public class PregeneratedMemberDataStore implements MemberDataStore {
+    public static final String RESOURCE_PREFIX = "META-INF/fast-reflection/";
+    public static final String RESOURCE_SUFFIX = ".bytes";
+    public static final String INDEX_RESOURCE_NAME = RESOURCE_PREFIX + "members.idx";
+    /**
+     * The implementation version is not part of the header, which is absent when running from the classes
+     */
+    static final String VERSION_HEADER = "#fast-reflection format " + FastMemberGenerator.FORMAT_VERSION;
+
+    public PregeneratedMemberDataStore(ClassLoader classLoader) {
+        this.classLoader = null == classLoader ? ClassLoader.getSystemClassLoader() : classLoader;
+    }
+
+    @Override
+    public MemberData find(String className, Member member) {
+        String signature = getIndex().get(className);
+        if (null == signature || !signature.equals(signatureOf(member))) {
+            return null;
+        }
+
+        try (InputStream inputStream = classLoader.getResourceAsStream(RESOURCE_PREFIX + className + RESOURCE_SUFFIX)) {
+            if (null == inputStream) {
+                return null;
+            }
+            return new MemberData(member, className, readAllBytes(inputStream));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The signature recorded in the index to verify the pregenerated class still matches the member, modifiers included
+     */
+    static String signatureOf(Member member) {
+        return member.toString();
+    }
+
+    private Map<String, String> getIndex() {
+        Map<String, String> result = index;
+        if (null == result) {
+            synchronized (this) {
+                result = index;
+                if (null == result) {
+                    index = result = readIndex();
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<String, String> readIndex() {
+        Map<String, String> result = new HashMap<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INDEX_RESOURCE_NAME);
+            while (urls.hasMoreElements()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(urls.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                    if (!VERSION_HEADER.equals(reader.readLine())) {
+                        // generated by another format of the generator
+                        continue;
+                    }
+                    for (String line; null != (line = reader.readLine()); ) {
+                        int tabIndex = line.indexOf('\t');
+                        if (tabIndex > 0) {
+                            result.putIfAbsent(line.substring(0, tabIndex), line.substring(tabIndex + 1));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    private static byte[] readAllBytes(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(4096);
+        byte[] buffer = new byte[4096];
+        for (int n; -1 != (n = inputStream.read(buffer)); ) {
+            outputStream.write(buffer, 0, n);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private final ClassLoader classLoader;
+    private volatile Map<String, String> index;
+}
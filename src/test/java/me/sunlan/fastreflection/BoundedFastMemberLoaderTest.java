@@ -0,0 +1,135 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import me.sunlan.fastreflection.generator.FastMethodGenerator;
+import me.sunlan.fastreflection.generator.MemberData;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedFastMemberLoaderTest {
+    @Test
+    public void testEvictLeastRecentlyUsedSegment() throws Throwable {
+        BoundedFastMemberLoader memberLoader = BoundedFastMemberLoader.withMaxMembers(BoundedFastMemberLoaderTest.class.getClassLoader(), 8);
+        Method lengthMethod = String.class.getMethod("length");
+        FastMethod length = FastMethod.create(lengthMethod, memberLoader, false);
+
+        Method[] methods = String.class.getMethods();
+        for (Method method : methods) {
+            FastMethod.create(method, memberLoader, false);
+            assertTrue(memberLoader.getMemberCount() <= 9, "members: " + memberLoader.getMemberCount());
+            assertTrue(memberLoader.getSegmentCount() <= BoundedFastMemberLoader.SEGMENT_COUNT + 1);
+        }
+
+        // the evicted member is generated again transparently
+        FastMethod length2 = FastMethod.create(lengthMethod, memberLoader, false);
+        assertNotSame(length, length2);
+        assertEquals(3, length2.invoke("abc"));
+        assertEquals(3, length.invoke("abc"));
+        assertSame(length2, FastMethod.create(lengthMethod, memberLoader, false));
+    }
+
+    @Test
+    public void testConcurrentLoadAndRetire() throws Throwable {
+        BoundedFastMemberLoader memberLoader = BoundedFastMemberLoader.withMaxMembers(BoundedFastMemberLoaderTest.class.getClassLoader(), 8);
+        List<Method> methods = new ArrayList<>();
+        Collections.addAll(methods, String.class.getMethods());
+        Collections.addAll(methods, StringBuilder.class.getMethods());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                final int offset = i * 7;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < methods.size(); j++) {
+                        FastMethod.create(methods.get((offset + j) % methods.size()), memberLoader, false);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // every member is in a segment still managed, so that it is evicted when its segment is retired
+        assertEquals(0, memberLoader.getRetiredMemberCount());
+    }
+
+    @Test
+    public void testRecentlyUsedSegmentSurvives() throws Throwable {
+        BoundedFastMemberLoader memberLoader = BoundedFastMemberLoader.withMaxMembers(BoundedFastMemberLoaderTest.class.getClassLoader(), 16);
+        Method lengthMethod = String.class.getMethod("length");
+        FastMethod length = FastMethod.create(lengthMethod, memberLoader, false);
+
+        for (Method method : String.class.getMethods()) {
+            FastMethod.create(method, memberLoader, false);
+            assertSame(length, FastMethod.create(lengthMethod, memberLoader, false));
+        }
+    }
+
+    @Test
+    public void testMaxBytes() throws Throwable {
+        BoundedFastMemberLoader memberLoader = BoundedFastMemberLoader.withMaxBytes(BoundedFastMemberLoaderTest.class.getClassLoader(), 64 * 1024);
+        for (Method method : String.class.getMethods()) {
+            FastMethod fm = FastMethod.create(method, memberLoader, false);
+            assertEquals(FastClass.create(method.getDeclaringClass(), memberLoader), fm.getDeclaringClass());
+        }
+        assertTrue(memberLoader.getSegmentCount() <= BoundedFastMemberLoader.SEGMENT_COUNT + 1);
+        assertThrows(IllegalArgumentException.class, () -> BoundedFastMemberLoader.withMaxBytes(null, 0));
+    }
+
+    @Test
+    public void testLoadedMemberDataNotWeighedAgain() throws Throwable {
+        BoundedFastMemberLoader memberLoader = BoundedFastMemberLoader.withMaxMembers(BoundedFastMemberLoaderTest.class.getClassLoader(), 80);
+        MemberData memberData = FastMethodGenerator.INSTANCE.generate(String.class.getMethod("length"), false);
+        FastMethod length = memberLoader.load(memberData);
+        for (int i = 0; i < 20; i++) {
+            assertSame(length, memberLoader.load(memberData));
+        }
+        assertEquals(1, memberLoader.getSegmentCount());
+    }
+
+    @Test
+    public void testStatsOfRetiredSegments() throws Throwable {
+        BoundedFastMemberLoader memberLoader = BoundedFastMemberLoader.withMaxMembers(BoundedFastMemberLoaderTest.class.getClassLoader(), 8);
+        FastMemberLoaderStats stats = new FastMemberLoaderStats();
+        memberLoader.setListener(stats);
+        for (Method method : String.class.getMethods()) {
+            FastMethod.create(method, memberLoader, false);
+        }
+        assertTrue(stats.getRetiredClassCount() > 0);
+        assertTrue(stats.getClassCount() <= BoundedFastMemberLoader.SEGMENT_COUNT + 1, "classes: " + stats.getClassCount());
+        assertEquals(stats.getMissCount(), stats.getClassCount() + stats.getRetiredClassCount());
+    }
+}
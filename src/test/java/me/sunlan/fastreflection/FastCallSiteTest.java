@@ -0,0 +1,110 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FastCallSiteTest {
+    @Test
+    public void testPolymorphic() throws Throwable {
+        FastCallSite callSite = FastCallSite.create("size", 0);
+        assertEquals("size", callSite.getName());
+        assertEquals(0, callSite.getArity());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(2, callSite.invoke(Arrays.asList(1, 2)));
+            assertEquals(1, callSite.invoke(new ArrayList<>(Collections.singletonList(1))));
+            assertEquals(0, callSite.invoke(Collections.emptyMap()));
+        }
+    }
+
+    @Test
+    public void testMegamorphic() throws Throwable {
+        FastCallSite callSite = FastCallSite.create("getId", 0, FastMemberLoader.getDefaultLoader(), 1);
+        List<Object> receivers = Arrays.asList(new A(), new B(), new C(), new A(), new C());
+        for (int i = 0; i < 3; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (Object receiver : receivers) {
+                sb.append(callSite.invoke(receiver));
+            }
+            assertEquals("abcac", sb.toString());
+        }
+    }
+
+    @Test
+    public void testArguments() throws Throwable {
+        FastCallSite callSite = FastCallSite.create("indexOf", 1);
+        assertEquals(1, callSite.invoke("abc", "b"));
+        assertEquals(2, callSite.invoke("abc", (int) 'c'));
+        assertEquals(0, callSite.invoke(Arrays.asList("b", "c"), "b"));
+    }
+
+    @Test
+    public void testSoleMethod() throws Throwable {
+        // the sole method of the arity is invoked by the direct method handle, which widens the narrower wrappers too
+        FastCallSite callSite = FastCallSite.create("charAt", 1);
+        assertEquals('b', callSite.invoke("abc", 1));
+        assertEquals('c', callSite.invoke(new StringBuilder("abc"), (short) 2));
+        assertThrows(ClassCastException.class, () -> callSite.invoke("abc", "1"));
+    }
+
+    @Test
+    public void testInvalidReceivers() throws Throwable {
+        FastCallSite callSite = FastCallSite.create("getId", 0);
+        assertThrows(NullPointerException.class, () -> callSite.invoke(null));
+        assertThrows(IllegalArgumentException.class, () -> callSite.invoke("abc"));
+        assertEquals("a", callSite.invoke(new A()));
+        // the guards linked test the receiver class
+        NullPointerException e = assertThrows(NullPointerException.class, () -> callSite.invoke(null));
+        assertEquals("the receiver of getId is null", e.getMessage());
+    }
+
+    @Test
+    public void testIllegalName() {
+        // the name is sanitized for the class name
+        FastCallSite callSite = FastCallSite.create("a/b", 0);
+        assertEquals("a/b", callSite.getName());
+        assertThrows(IllegalArgumentException.class, () -> callSite.invoke("abc"));
+    }
+
+    public static class A {
+        public String getId() {
+            return "a";
+        }
+    }
+
+    public static class B {
+        public String getId() {
+            return "b";
+        }
+    }
+
+    public static class C {
+        public String getId() {
+            return "c";
+        }
+    }
+}
@@ -18,15 +18,32 @@
  */
 package me.sunlan.fastreflection;
 
+import me.sunlan.fastreflection.generator.MemberData;
 import org.junit.jupiter.api.Test;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FastClassTest {
@@ -233,4 +250,466 @@ class FastClassTest {
         String result = (String) ff.get(person);
         assertEquals(name, result);
     }
+
+    @Test
+    public void testPreload() throws Throwable {
+        AtomicInteger loadCount = new AtomicInteger();
+        FastMemberLoader memberLoader = new FastMemberLoader() {
+            @Override
+            public <T extends FastMember> T load(MemberData memberData) {
+                loadCount.incrementAndGet();
+                return super.load(memberData);
+            }
+        };
+        FastClass<String> fc = FastClass.create(String.class, memberLoader);
+        fc.preload().join();
+
+        int preloadedCount = loadCount.get();
+        assertTrue(preloadedCount > 0);
+        FastMethod fm = fc.getMethod("startsWith", String.class);
+        assertTrue((boolean) fm.invoke("abc", "a"));
+        assertEquals(preloadedCount, loadCount.get());
+    }
+
+    @Test
+    public void testPreloadAll() throws Throwable {
+        FastMemberLoader memberLoader = new FastMemberLoader();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            FastClass.preloadAll(Arrays.asList(Person.class, ArrayList.class), memberLoader, executorService).join();
+        } finally {
+            executorService.shutdown();
+        }
+
+        FastField ff = FastClass.create(Person.class, memberLoader).getField("name");
+        assertEquals("Daniel", ff.get(new Person("Daniel")));
+
+        // invisible members are reported as usual after preloading
+        FastInstantiationException exception = assertThrows(FastInstantiationException.class,
+                () -> FastClass.create(ArrayList.class, memberLoader).getDeclaredMethod("elementData", int.class));
+        assertTrue(exception.getCause() instanceof IllegalAccessException);
+    }
+
+    @Test
+    public void testCanonical() throws Throwable {
+        assertSame(FastClass.create(String.class), FastClass.create(String.class));
+        FastMemberLoader memberLoader = new FastMemberLoader();
+        FastClass<String> fc = FastClass.create(String.class, memberLoader);
+        assertSame(fc, FastClass.create(String.class, memberLoader));
+        assertNotSame(fc, FastClass.create(String.class));
+        assertNotSame(fc, FastClass.create(String.class, memberLoader, true));
+        assertNotEquals(fc, FastClass.create(String.class, memberLoader, true));
+        assertSame(FastClass.create(String.class, memberLoader, true), FastClass.create(String.class, memberLoader, true));
+
+        FastMethod fm = fc.getMethod("startsWith", String.class);
+        assertSame(fm, fc.getMethod("startsWith", String.class));
+        assertSame(fc, fm.getDeclaringClass());
+        assertEquals(1, fm.getParameterCount());
+        assertSame(fc, fm.getParameterType(0));
+        assertSame(fm.getParameterType(0), fm.getParameterTypes()[0]);
+        assertSame(FastClass.create(boolean.class, memberLoader), fm.getReturnType());
+        assertSame(fm.getReturnType(), fm.getReturnType());
+
+        FastMethod[] fms = fc.getMethods();
+        FastMethod[] fms2 = fc.getMethods();
+        assertNotSame(fms, fms2);
+        for (int i = 0; i < fms.length; i++) {
+            assertSame(fms[i], fms2[i]);
+        }
+        assertSame(fc.getField("CASE_INSENSITIVE_ORDER"), fc.getField("CASE_INSENSITIVE_ORDER"));
+
+        FastClass<String> dfc = FastClass.create(String.class, memberLoader, true);
+        assertSame(dfc.getMethod("startsWith", String.class), dfc.getMethod("startsWith", String.class));
+    }
+
+    @Test
+    public void testCopier() throws Throwable {
+        Dto src = new Dto();
+        src.setId("1");
+        src.version = 2;
+        src.setName("a");
+        src.count = 3L;
+
+        FastCopier<Dto> copier = FastClass.create(Dto.class).copier(true);
+        assertSame(copier, FastClass.create(Dto.class).copier(true));
+        Dto dst = new Dto();
+        copier.copy(src, dst);
+        assertEquals("1", dst.getId());
+        assertEquals(2, dst.version);
+        assertEquals("a", dst.getName());
+        assertEquals(Long.valueOf(3L), dst.count);
+
+        Dto clone = copier.copy(src);
+        assertNotSame(src, clone);
+        assertEquals("a", clone.getName());
+        assertEquals(Long.valueOf(3L), clone.count);
+
+        Dto patch = new Dto();
+        patch.setName("b");
+        patch.version = 5;
+        copier.copyNonNull(patch, dst);
+        assertEquals("1", dst.getId());
+        assertEquals(5, dst.version);
+        assertEquals("b", dst.getName());
+        assertEquals(Long.valueOf(3L), dst.count);
+
+        // only the public fields are copied without setting accessible
+        Dto publicCopy = FastClass.create(Dto.class).copier().copy(src);
+        assertNull(publicCopy.getId());
+        assertNull(publicCopy.getName());
+        assertEquals(2, publicCopy.version);
+        assertEquals(Long.valueOf(3L), publicCopy.count);
+    }
+
+    @Test
+    public void testMapConverter() throws Throwable {
+        Dto src = new Dto();
+        src.setId("1");
+        src.version = 2;
+        src.setName("a");
+
+        FastMapConverter<Dto> converter = FastClass.create(Dto.class).mapConverter(true);
+        assertSame(converter, FastClass.create(Dto.class).mapConverter(true));
+        Map<String, Object> map = converter.toMap(src);
+        assertEquals(Arrays.asList("fixed", "name", "count", "id", "version"), new ArrayList<>(map.keySet()));
+        assertEquals("fixed", map.get("fixed"));
+        assertEquals("a", map.get("name"));
+        assertNull(map.get("count"));
+        assertEquals("1", map.get("id"));
+        assertEquals(2, map.get("version"));
+
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("name", "b");
+        patch.put("version", (short) 3);
+        patch.put("fixed", "changed");
+        patch.put("unknown", "ignored");
+        patch.put(null, "ignored");
+        Dto dst = converter.fromMap(patch, src);
+        assertSame(src, dst);
+        assertEquals("b", dst.getName());
+        assertEquals(3, dst.version);
+        assertEquals("1", dst.getId());
+        assertEquals(map, converter.toMap(converter.fromMap(map)));
+
+        // "Aa" and "BB" share the hash code
+        FastMapConverter<Collision> collision = FastClass.create(Collision.class).mapConverter();
+        Map<String, Object> values = new HashMap<>();
+        values.put("BB", 2);
+        values.put("Aa", 1);
+        Collision c = collision.fromMap(values);
+        assertEquals(1, c.Aa);
+        assertEquals(2, c.BB);
+
+        // only the public fields are converted without setting accessible
+        assertEquals(Arrays.asList("count", "version"), new ArrayList<>(FastClass.create(Dto.class).mapConverter().toMap(src).keySet()));
+    }
+
+    @Test
+    public void testEqualityAndStringifier() throws Throwable {
+        Point p1 = new Point(1, 2.5, "a");
+        Point p2 = new Point(1, 2.5, "a");
+        Point p3 = new Point(1, Double.NaN, null);
+
+        FastEquality<Point> equality = FastClass.create(Point.class).equality(true);
+        assertSame(equality, FastClass.create(Point.class).equality(true));
+        assertTrue(equality.equals(p1, p2));
+        assertTrue(equality.equals(p3, new Point(1, Double.NaN, null)));
+        assertFalse(equality.equals(p1, p3));
+        assertFalse(equality.equals(p1, null));
+        assertEquals(Objects.hash(1, 2.5, "a"), equality.hashCode(p1));
+        assertEquals(Objects.hash(1, Double.NaN, null), equality.hashCode(p3));
+        assertEquals(0, equality.hashCode(null));
+
+        FastEquality<Point> byX = FastClass.create(Point.class).equality(true, "x");
+        assertTrue(byX.equals(p1, p3));
+        assertEquals(Objects.hash(1), byX.hashCode(p3));
+        assertThrows(IllegalArgumentException.class, () -> FastClass.create(Point.class).equality(true, "z"));
+        // the private fields are not found without setting accessible
+        assertThrows(IllegalArgumentException.class, () -> FastClass.create(Point.class).equality("x"));
+        assertThrows(IllegalArgumentException.class, () -> FastClass.create(Point.class).stringifier("x"));
+
+        FastStringifier<Point> stringifier = FastClass.create(Point.class).stringifier(true);
+        assertEquals("Point{x=1, y=2.5, label=a}", stringifier.toString(p1));
+        assertEquals("Point{x=1, y=NaN, label=null}", stringifier.toString(p3));
+        assertEquals("null", stringifier.toString(null));
+        assertEquals("p=Point{label=a, x=1}", FastClass.create(Point.class).stringifier(true, "label", "x").append(new StringBuilder("p="), p1).toString());
+        assertEquals("Point{}", FastClass.create(Point.class).stringifier().toString(p1));
+    }
+
+    public static class Point {
+        private final int x;
+        private final double y;
+        private final String label;
+
+        Point(int x, double y, String label) {
+            this.x = x;
+            this.y = y;
+            this.label = label;
+        }
+    }
+
+    @Test
+    public void testProperties() throws Throwable {
+        FastClass<Bean> fastClass = FastClass.create(Bean.class);
+        FastProperty[] properties = fastClass.getProperties();
+        assertEquals(Arrays.asList("URL", "active", "count", "id", "name", "tag"), Arrays.stream(properties).map(FastProperty::getName).collect(Collectors.toList()));
+        assertSame(properties[0], fastClass.getProperties()[0]);
+
+        Bean bean = new Bean();
+        FastProperty name = fastClass.getProperty("name");
+        assertEquals(String.class, name.getType());
+        name.set(bean, "a");
+        assertEquals("a", name.get(bean));
+
+        FastProperty active = fastClass.getProperty("active");
+        active.setBoolean(bean, true);
+        assertTrue(active.getBoolean(bean));
+
+        FastProperty count = fastClass.getProperty("count");
+        assertEquals(int.class, count.getType());
+        count.setInt(bean, 3);
+        assertEquals(3, count.getInt(bean));
+        assertEquals(3L, count.getLong(bean));
+
+        FastProperty tag = fastClass.getProperty("tag");
+        assertNull(tag.getReadMethod());
+        tag.set(bean, "t");
+        assertEquals("t", bean.tag);
+
+        FastProperty id = fastClass.getProperty("id");
+        assertTrue(id.isReadable());
+        assertFalse(id.isWritable());
+        assertEquals(7L, id.getLong(bean));
+        assertThrows(IllegalAccessException.class, () -> id.setLong(bean, 1L));
+
+        FastProperty url = fastClass.getProperty("URL");
+        assertFalse(url.isReadable());
+        url.set(bean, "u");
+        assertThrows(IllegalAccessException.class, () -> url.get(bean));
+        assertNull(fastClass.getProperty("class"));
+
+        FastClass<Fluent> fluentClass = FastClass.create(Fluent.class);
+        assertEquals(0, fluentClass.getProperties().length);
+        FastProperty size = fluentClass.getProperties(true)[0];
+        assertEquals("size", size.getName());
+        Fluent fluent = new Fluent();
+        size.setInt(fluent, 5);
+        assertEquals(5, size.getInt(fluent));
+    }
+
+    @Test
+    public void testNameDispatcher() throws Throwable {
+        FastClass<StringBuilder> fastClass = FastClass.create(StringBuilder.class);
+        StringBuilder sb = new StringBuilder();
+        assertSame(sb, fastClass.invokeByName(sb, "append", "a"));
+        fastClass.invokeByName(sb, "append", 1);
+        fastClass.invokeByName(sb, "append", 'c');
+        fastClass.invokeByName(sb, "append", 2L);
+        fastClass.invokeByName(sb, "append", "xyz", 1, 2);
+        assertEquals("a1c2y", sb.toString());
+        assertEquals(5, fastClass.invokeByName(sb, "length"));
+        assertEquals("1", FastClass.create(String.class).invokeByName(null, "valueOf", 1));
+        assertEquals("true", FastClass.create(String.class).invokeByName(null, "valueOf", true));
+        assertSame(fastClass.nameDispatcher(), fastClass.nameDispatcher());
+        assertThrows(IllegalArgumentException.class, () -> fastClass.invokeByName(sb, "length", 1));
+        assertThrows(IllegalArgumentException.class, () -> fastClass.invokeByName(sb, "unknown"));
+        assertThrows(IllegalArgumentException.class, () -> fastClass.invokeByName(sb, "insert", "0", "a"));
+        assertThrows(IllegalArgumentException.class, () -> fastClass.invokeByName(sb, "charAt", "0"));
+        assertThrows(IllegalArgumentException.class, () -> fastClass.invokeByName(sb, null));
+
+        FastClass<Bean> beanClass = FastClass.create(Bean.class);
+        Bean bean = new Bean();
+        beanClass.setByName(bean, "name", "a");
+        beanClass.setByName(bean, "count", (short) 3);
+        beanClass.setByName(bean, "tag", "t");
+        assertEquals("a", beanClass.getByName(bean, "name"));
+        assertEquals(3, beanClass.getByName(bean, "count"));
+        assertEquals("t", beanClass.getByName(bean, "tag"));
+        assertEquals(7L, beanClass.getByName(bean, "id"));
+        assertThrows(IllegalArgumentException.class, () -> beanClass.setByName(bean, "id", 1L));
+        assertThrows(IllegalArgumentException.class, () -> beanClass.getByName(bean, "URL"));
+        assertThrows(IllegalArgumentException.class, () -> beanClass.getByName(bean, "unknown"));
+        assertThrows(IllegalArgumentException.class, () -> beanClass.getByName(bean, null));
+        assertThrows(IllegalArgumentException.class, () -> beanClass.setByName(bean, null, "a"));
+    }
+
+    @Test
+    public void testOverloads() throws Throwable {
+        FastOverloads overloads = FastClass.create(Overloaded.class).getOverloads("m");
+        assertSame(overloads, FastClass.create(Overloaded.class).getOverloads("m"));
+        Overloaded target = new Overloaded();
+        assertEquals("Number", overloads.invoke(target, 1));
+        assertEquals("String", overloads.invoke(target, "a"));
+        assertEquals("CharSequence", overloads.invoke(target, new StringBuilder()));
+        assertEquals("long", overloads.invoke(target, 'c'));
+        assertEquals("varargs2", overloads.invoke(target, "a", "b", "c"));
+        assertEquals("varargs1", overloads.invoke(target, "a", "b"));
+        assertEquals("ints6", overloads.invoke(target, 1, 2, (short) 3));
+        assertSame(overloads.resolve(1), overloads.resolve(2));
+        assertEquals("m", overloads.resolve("a").getName());
+        assertThrows(IllegalArgumentException.class, () -> overloads.resolve((Object) null));
+        assertThrows(IllegalArgumentException.class, () -> overloads.invoke(target, true));
+        // the failed resolution is cached and thrown again
+        assertThrows(IllegalArgumentException.class, () -> overloads.invoke(target, true));
+        assertThrows(NoSuchMethodException.class, () -> FastClass.create(Overloaded.class).getOverloads("unknown"));
+    }
+
+    @Test
+    public void testMembersCachedForOtherLoaders() throws Throwable {
+        AtomicInteger loadCount = new AtomicInteger();
+        MemberLoadable memberLoader = new MemberLoadable() {
+            @Override
+            public <T extends FastMember> T load(MemberData memberData) {
+                loadCount.incrementAndGet();
+                return new FastMemberLoader().load(memberData);
+            }
+        };
+        FastClass<String> fastClass = FastClass.create(String.class, memberLoader);
+        FastMethod startsWith = fastClass.getMethod("startsWith", String.class);
+        assertSame(startsWith, fastClass.getMethod("startsWith", String.class));
+        assertSame(fastClass.getConstructor(String.class), fastClass.getConstructor(String.class));
+        assertEquals(2, loadCount.get());
+    }
+
+    @Test
+    public void testOverloadsNotPinningArgumentLoader() throws Throwable {
+        // the cached selection of a JDK method does not keep the class loader of the argument
+        WeakReference<ClassLoader> loaderReference = invokeValueOfWithProxy();
+        for (int i = 0; i < 100 && null != loaderReference.get(); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(loaderReference.get());
+    }
+
+    private static WeakReference<ClassLoader> invokeValueOfWithProxy() throws Throwable {
+        ClassLoader loader = new URLClassLoader(new URL[0], FastClassTest.class.getClassLoader());
+        Object proxy = Proxy.newProxyInstance(loader, new Class<?>[]{Runnable.class}, (p, m, a) -> "toString".equals(m.getName()) ? "proxy" : null);
+        assertSame(loader, proxy.getClass().getClassLoader());
+        assertEquals("proxy", FastClass.create(String.class).getOverloads("valueOf").invoke(null, proxy));
+        return new WeakReference<>(loader);
+    }
+
+    @Test
+    public void testNameDispatcherConsistentWithOverloads() throws Throwable {
+        FastClass<Overloaded> fastClass = FastClass.create(Overloaded.class);
+        FastOverloads overloads = fastClass.getOverloads("m");
+        Overloaded target = new Overloaded();
+        for (Object arg : new Object[]{1, 1L, 'c', (short) 1, "a", new StringBuilder()}) {
+            assertEquals(overloads.invoke(target, arg), fastClass.invokeByName(target, "m", arg));
+        }
+        assertEquals("Number", fastClass.invokeByName(target, "m", 5));
+        assertEquals("ints6", fastClass.invokeByName(target, "m", 1, new int[]{2, 3}));
+    }
+
+    public static class Overloaded {
+        public String m(long x) {
+            return "long";
+        }
+
+        public String m(Number x) {
+            return "Number";
+        }
+
+        public String m(String s) {
+            return "String";
+        }
+
+        public String m(CharSequence s) {
+            return "CharSequence";
+        }
+
+        public String m(String s, String... rest) {
+            return "varargs" + rest.length;
+        }
+
+        public String m(int i, int... rest) {
+            return "ints" + (i + Arrays.stream(rest).sum());
+        }
+    }
+
+    public static class Bean {
+        public String tag;
+        public final long id = 7L;
+        private String name;
+        private boolean active;
+        private int count;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public void setCount(String count) {
+            this.count = Integer.parseInt(count);
+        }
+
+        public void setURL(String url) {
+        }
+    }
+
+    public static class Fluent {
+        private int size;
+
+        public int size() {
+            return size;
+        }
+
+        public Fluent size(int size) {
+            this.size = size;
+            return this;
+        }
+    }
+
+    public static class Collision {
+        public int Aa;
+        public int BB;
+    }
+
+    public static class BaseDto {
+        private String id;
+        public int version;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+    }
+
+    public static class Dto extends BaseDto {
+        public static String shared = "shared";
+        private final String fixed = "fixed";
+        private String name;
+        public Long count;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
 }
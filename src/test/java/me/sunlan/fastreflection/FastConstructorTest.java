@@ -24,9 +24,13 @@ import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class FastConstructorTest {
     @Test
@@ -72,4 +76,33 @@ class FastConstructorTest {
         FastConstructor<String> fc = FastConstructor.create(stringCtor);
         assertEquals(stringCtor.toString(), fc.toString());
     }
+
+    @Test
+    public void testFixedArityInvoke() throws Throwable {
+        FastConstructor<StringBuilder> fc0 = FastConstructor.create(StringBuilder.class.getConstructor());
+        assertEquals("", fc0.invoke0().toString());
+
+        FastConstructor<String> fc1 = FastConstructor.create(String.class.getConstructor(char[].class));
+        assertEquals("abc", fc1.invoke1("abc".toCharArray()));
+
+        FastConstructor<String> fc3 = FastConstructor.create(String.class.getConstructor(char[].class, int.class, int.class));
+        assertEquals("bc", fc3.invoke3("abc".toCharArray(), 1, 2));
+        assertEquals("bc", fc3.invoke("abc".toCharArray(), 1, 2));
+    }
+
+    @Test
+    public void testAs() throws Throwable {
+        FastConstructor<StringBuilder> fc = FastConstructor.create(StringBuilder.class.getConstructor(String.class));
+        Function<String, StringBuilder> function = fc.as(Function.class);
+        assertEquals("abc", function.apply("abc").toString());
+        assertSame(function, fc.as(Function.class));
+
+        FastConstructor<StringBuilder> capacity = FastConstructor.create(StringBuilder.class.getConstructor(int.class));
+        IntFunction<Object> intFunction = capacity.as(IntFunction.class);
+        assertEquals(16, ((StringBuilder) intFunction.apply(16)).capacity());
+        Supplier<?> supplier = FastConstructor.create(StringBuilder.class.getConstructor()).as(Supplier.class);
+        assertEquals("", supplier.get().toString());
+
+        assertThrows(IllegalArgumentException.class, () -> capacity.as(Supplier.class));
+    }
 }
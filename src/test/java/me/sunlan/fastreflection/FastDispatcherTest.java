@@ -0,0 +1,176 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import me.sunlan.fastreflection.generator.ClassData;
+import me.sunlan.fastreflection.generator.FastDispatcherGenerator;
+import me.sunlan.fastreflection.generator.MemberData;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FastDispatcherTest {
+    @Test
+    public void testGetMethod() throws Throwable {
+        FastClass<String> fc = FastClass.create(String.class, FastMemberLoader.getDefaultLoader(), true);
+        FastMethod startsWith = fc.getMethod("startsWith", String.class);
+        FastMethod valueOf = fc.getMethod("valueOf", int.class);
+        assertTrue((boolean) startsWith.invoke("abc", "a"));
+        assertEquals("123", valueOf.invoke(null, 123));
+        assertTrue(startsWith instanceof DispatchedFastMethod);
+        assertSame(startsWith.getClass(), valueOf.getClass());
+        assertEquals(FastMethod.create(String.class.getMethod("startsWith", String.class)), startsWith);
+    }
+
+    @Test
+    public void testLoaderWithoutDefine() throws Throwable {
+        MemberLoadable memberLoader = new MemberLoadable() {
+            @Override
+            public <T extends FastMember> T load(MemberData memberData) {
+                return FastMemberLoader.getDefaultLoader().load(memberData);
+            }
+        };
+        FastClass<String> fc = FastClass.create(String.class, memberLoader, true);
+        assertTrue((boolean) fc.getMethod("startsWith", String.class).invoke("abc", "a"));
+    }
+
+    @Test
+    public void testGetDeclaredMethods() throws Throwable {
+        FastClass<String> fc = FastClass.create(String.class, FastMemberLoader.getDefaultLoader(), true);
+        FastMethod substring = Arrays.stream(fc.getDeclaredMethods())
+                .filter(fm -> {
+                    try {
+                        return fm.getName().equals("substring") && fm.getParameterTypes().length == 2;
+                    } catch (FastInstantiationException e) {
+                        return false;
+                    }
+                })
+                .findAny()
+                .orElseThrow(() -> new AssertionError("method `substring` not found"));
+        assertEquals("b", substring.invoke("abc", 1, 2));
+    }
+
+    @Test
+    public void testGetConstructor() throws Throwable {
+        FastClass<String> fc = FastClass.create(String.class, FastMemberLoader.getDefaultLoader(), true);
+        FastConstructor<String> fctor = fc.getConstructor(char[].class, int.class, int.class);
+        assertEquals("bc", fctor.invoke(new char[]{'a', 'b', 'c'}, 1, 2));
+    }
+
+    @Test
+    public void testGetAndSetField() throws Throwable {
+        FastClass<Person> fc = FastClass.create(Person.class, FastMemberLoader.getDefaultLoader(), true);
+        FastField ff = fc.getField("name");
+        Person person = new Person("Daniel");
+        assertEquals("Daniel", ff.get(person));
+        ff.set(person, "sunlan");
+        assertEquals("sunlan", person.name);
+    }
+
+    @Test
+    public void testFinalField() throws Throwable {
+        FastClass<Integer> fc = FastClass.create(Integer.class, FastMemberLoader.getDefaultLoader(), true);
+        FastField ff = fc.getField("SIZE");
+        assertEquals(Integer.SIZE, ff.get(null));
+        assertThrows(IllegalAccessException.class, () -> ff.set(null, 1));
+    }
+
+    @Test
+    public void testInvisibleMethod() {
+        FastClass<ArrayList> fc = FastClass.create(ArrayList.class, FastMemberLoader.getDefaultLoader(), true);
+        FastInstantiationException exception = assertThrows(FastInstantiationException.class, () -> fc.getDeclaredMethod("elementData", int.class));
+        assertTrue(exception.getCause() instanceof IllegalAccessException);
+    }
+
+    @Test
+    public void testDispatchById() throws Throwable {
+        Method[] methods = {String.class.getMethod("length"), String.class.getMethod("valueOf", long.class)};
+        Constructor<?>[] constructors = {};
+        Field[] fields = {};
+        ClassData classData = FastDispatcherGenerator.INSTANCE.generate(String.class, methods, constructors, fields, false);
+        FastDispatcher dispatcher = (FastDispatcher) FastMemberLoader.getDefaultLoader().define(classData)
+                .getConstructor(Method[].class, Constructor[].class, Field[].class)
+                .newInstance(methods, constructors, fields);
+
+        assertEquals(1, dispatcher.getMethodId(methods[1]));
+        assertEquals(-1, dispatcher.getMethodId(String.class.getMethod("isEmpty")));
+        assertEquals(3, dispatcher.invoke(0, "abc"));
+        assertEquals("6", dispatcher.invoke(1, null, 6L));
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.invoke(2, "abc"));
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.newInstance(0));
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.get(0, "abc"));
+        assertEquals(3, dispatcher.invokeAsInt(0, "abc"));
+        assertEquals("6", dispatcher.invoke1(1, null, 6L));
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.invoke0(2, "abc"));
+        assertEquals(dispatcher.getClass(), dispatcher.getClass().getDeclaredMethod("invokeAsInt", int.class, Object.class, Object[].class).getDeclaringClass());
+    }
+
+    @Test
+    public void testTypedMethodEntryPoints() throws Throwable {
+        FastClass<String> fc = FastClass.create(String.class, FastMemberLoader.getDefaultLoader(), true);
+        FastMethod length = Arrays.stream(fc.getMethods())
+                .filter(fm -> fm.getName().equals("length"))
+                .findAny()
+                .orElseThrow(() -> new AssertionError("method `length` not found"));
+        FastMethod charAt = fc.getMethod("charAt", int.class);
+        FastMethod valueOf = fc.getMethod("valueOf", long.class);
+        assertEquals(3, length.invokeAsInt("abc"));
+        assertEquals(3, length.invoke0("abc"));
+        assertEquals('b', charAt.invoke1("abc", 1));
+        assertEquals("6", valueOf.invoke1(null, 6L));
+
+        int[] out = new int[2];
+        length.invokeAllAsInt(new Object[]{"a", "abc"}, out);
+        assertEquals(1, out[0]);
+        assertEquals(3, out[1]);
+    }
+
+    @Test
+    public void testTypedConstructorEntryPoints() throws Throwable {
+        FastClass<String> fc = FastClass.create(String.class, FastMemberLoader.getDefaultLoader(), true);
+        FastConstructor<String> fctor = fc.getConstructor(char[].class, int.class, int.class);
+        assertEquals("bc", fctor.invoke3(new char[]{'a', 'b', 'c'}, 1, 2));
+        assertEquals("", fc.getConstructor().invoke0());
+    }
+
+    @Test
+    public void testTypedFieldEntryPoints() throws Throwable {
+        FastClass<Counter> fc = FastClass.create(Counter.class, FastMemberLoader.getDefaultLoader(), true);
+        FastField ff = fc.getField("count");
+        Counter counter = new Counter();
+        ff.setInt(counter, 6);
+        assertEquals(6, counter.count);
+        assertEquals(6, ff.getInt(counter));
+        assertEquals(6L, ff.getLong(counter));
+        assertEquals(6, ff.get(counter));
+    }
+
+    public static class Counter {
+        public int count;
+    }
+}
@@ -29,6 +29,8 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class FastFieldTest {
     @Test
@@ -94,4 +96,78 @@ public class FastFieldTest {
         assertEquals(field.toString(), ff.toString());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void testPrimitiveAccessors() throws Throwable {
+        FastClass<Values> fc = FastClass.create(Values.class);
+        Values values = new Values();
+
+        FastField i = fc.getField("i");
+        i.setInt(values, 1);
+        assertEquals(1, i.getInt(values));
+        assertEquals(1L, i.getLong(values));
+        assertEquals(1.0f, i.getFloat(values));
+        assertEquals(1.0, i.getDouble(values));
+        assertThrows(ClassCastException.class, () -> i.getShort(values));
+        i.setShort(values, (short) 2);
+        assertEquals(2, values.i);
+        i.setChar(values, 'a');
+        assertEquals('a', values.i);
+        assertThrows(ClassCastException.class, () -> i.setLong(values, 1L));
+        // generated without boxing
+        assertEquals(int.class, FastFieldGetter.create(Values.class.getField("i")).getClass().getDeclaredMethod("getInt", Object.class).getReturnType());
+
+        FastField l = fc.getField("l");
+        l.setLong(values, Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, l.getLong(values));
+        l.setInt(values, 3);
+        assertEquals(3L, values.l);
+        assertThrows(ClassCastException.class, () -> l.getInt(values));
+
+        FastField d = fc.getField("d");
+        d.setDouble(values, 1.5);
+        assertEquals(1.5, d.getDouble(values));
+        d.setFloat(values, 2.5f);
+        assertEquals(2.5, values.d);
+
+        FastField f = fc.getField("f");
+        f.setFloat(values, 1.5f);
+        assertEquals(1.5f, f.getFloat(values));
+        assertEquals(1.5, f.getDouble(values));
+
+        FastField z = fc.getField("z");
+        z.setBoolean(values, true);
+        assertTrue(z.getBoolean(values));
+        assertThrows(ClassCastException.class, () -> z.getInt(values));
+
+        FastField b = fc.getField("b");
+        b.setByte(values, (byte) 7);
+        assertEquals((byte) 7, b.getByte(values));
+        assertEquals((short) 7, b.getShort(values));
+
+        FastField c = fc.getField("c");
+        c.setChar(values, 'x');
+        assertEquals('x', c.getChar(values));
+        assertEquals('x', c.getInt(values));
+
+        FastField s = fc.getField("s");
+        s.setShort(values, (short) 9);
+        assertEquals((short) 9, s.getShort(values));
+
+        FastField constant = fc.getField("CONSTANT");
+        assertEquals(42, constant.getInt(null));
+        assertThrows(IllegalAccessException.class, () -> constant.setInt(null, 1));
+    }
+
+    public static class Values {
+        public static final int CONSTANT = 42;
+        public boolean z;
+        public byte b;
+        public char c;
+        public short s;
+        public int i;
+        public long l;
+        public float f;
+        public double d;
+    }
+}
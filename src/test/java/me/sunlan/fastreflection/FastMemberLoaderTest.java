@@ -0,0 +1,279 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import me.sunlan.fastreflection.generator.DiskMemberDataStore;
+import me.sunlan.fastreflection.generator.FastConstructorGenerator;
+import me.sunlan.fastreflection.generator.FastMemberGenerator;
+import me.sunlan.fastreflection.generator.FastMemberPregenerator;
+import me.sunlan.fastreflection.generator.FastMethodGenerator;
+import me.sunlan.fastreflection.generator.MemberData;
+import me.sunlan.fastreflection.generator.MemberDataStore;
+import me.sunlan.fastreflection.generator.PregeneratedMemberDataStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FastMemberLoaderTest {
+    @Test
+    public void testMemberCacheHitSkipsGeneration() throws Throwable {
+        CountingFastMemberLoader memberLoader = new CountingFastMemberLoader();
+        Method startsWithMethod = String.class.getMethod("startsWith", String.class);
+        FastMethod fm1 = FastMethod.create(startsWithMethod, memberLoader, false);
+        FastMethod fm2 = FastMethod.create(String.class.getMethod("startsWith", String.class), memberLoader, false);
+        assertSame(fm1, fm2);
+        assertEquals(1, memberLoader.loadCount.get());
+
+        FastClass<String> fc = FastClass.create(String.class, memberLoader);
+        assertSame(fm1, fc.getDeclaredMethod("startsWith", String.class));
+        assertEquals(1, memberLoader.loadCount.get());
+    }
+
+    @Test
+    public void testMemberCacheDistinguishesAccessibleFlag() throws Throwable {
+        CountingFastMemberLoader memberLoader = new CountingFastMemberLoader();
+        Method startsWithMethod = String.class.getMethod("startsWith", String.class);
+        FastMethod fm1 = FastMethod.create(startsWithMethod, memberLoader, false);
+        FastMethod fm2 = FastMethod.create(startsWithMethod, memberLoader, true);
+        assertEquals(2, memberLoader.loadCount.get());
+        assertEquals(fm1.invoke("abc", "a"), fm2.invoke("abc", "a"));
+    }
+
+    @Test
+    public void testConcurrentCreation() throws Throwable {
+        CountingFastMemberLoader memberLoader = new CountingFastMemberLoader();
+        Method substringMethod = String.class.getMethod("substring", int.class, int.class);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<FastMethod>> tasks = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                tasks.add(() -> FastMethod.create(substringMethod, memberLoader, false));
+            }
+            List<Future<FastMethod>> futures = executorService.invokeAll(tasks);
+            FastMethod expected = futures.get(0).get();
+            for (Future<FastMethod> future : futures) {
+                assertSame(expected, future.get());
+            }
+            assertEquals(1, memberLoader.loadCount.get());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testReadableClassName() throws Throwable {
+        FastMethod fm = FastMethod.create(String.class.getMethod("startsWith", String.class));
+        String className = fm.getClass().getName();
+        assertTrue(className.matches("me\\.sunlan\\.fastreflection\\.FastMethod_String\\$startsWith_[0-9a-f]{8}_0"), className);
+
+        FastConstructor<String> fc = FastConstructor.create(String.class.getConstructor(char[].class));
+        assertTrue(fc.getClass().getName().startsWith("me.sunlan.fastreflection.FastConstructor_String$new_"));
+    }
+
+    @Test
+    public void testOverloadsHaveDistinctClassNames() throws Throwable {
+        FastMethod fm1 = FastMethod.create(String.class.getMethod("valueOf", int.class));
+        FastMethod fm2 = FastMethod.create(String.class.getMethod("valueOf", char[].class));
+        assertNotEquals(fm1.getClass().getName(), fm2.getClass().getName());
+    }
+
+    @Test
+    public void testClassNameTakenByAnotherMember() throws Throwable {
+        FastMemberLoader memberLoader = new FastMemberLoader();
+        MemberData memberData = FastMethodGenerator.INSTANCE.generate(String.class.getMethod("startsWith", String.class), false);
+        memberLoader.load(memberData);
+
+        Method endsWithMethod = String.class.getMethod("endsWith", String.class);
+        assertThrows(FastInstantiationException.class, () -> memberLoader.load(new MemberData(endsWithMethod, memberData.getName(), memberData.getBytes())));
+    }
+
+    @Test
+    public void testPregeneratedMemberData(@TempDir Path outputDir) throws Throwable {
+        assertTrue(FastMemberPregenerator.pregenerate(outputDir, Collections.singletonList(Person.class), false) > 0);
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {outputDir.toUri().toURL()}, FastMemberLoaderTest.class.getClassLoader())) {
+            Constructor<Person> constructor = Person.class.getConstructor(String.class);
+            String className = FastConstructorGenerator.INSTANCE.generateClassName(constructor, false, 0);
+            PregeneratedMemberDataStore store = new PregeneratedMemberDataStore(classLoader);
+            assertNotNull(store.find(className, constructor));
+            assertNull(store.find(className, String.class.getConstructor(String.class)));
+            assertNull(store.find(FastConstructorGenerator.INSTANCE.generateClassName(constructor, true, 0), constructor));
+
+            AtomicInteger foundCount = new AtomicInteger();
+            FastMemberLoader memberLoader = new FastMemberLoader(classLoader, new MemberDataStore() {
+                @Override
+                public MemberData find(String className, Member member) {
+                    MemberData result = store.find(className, member);
+                    if (null != result) {
+                        foundCount.incrementAndGet();
+                    }
+                    return result;
+                }
+            });
+            FastConstructor<Person> fc = FastConstructor.create(constructor, memberLoader, false);
+            assertEquals("Daniel", ((Person) fc.invoke("Daniel")).name);
+            assertEquals(className, fc.getClass().getName());
+            assertEquals(1, foundCount.get());
+
+            // the classes generated in another format are not loaded
+            Path index = outputDir.resolve(PregeneratedMemberDataStore.INDEX_RESOURCE_NAME);
+            List<String> lines = new ArrayList<>(Files.readAllLines(index));
+            lines.set(0, "#fast-reflection format " + (FastMemberGenerator.FORMAT_VERSION - 1));
+            Files.write(index, lines);
+            assertNull(new PregeneratedMemberDataStore(classLoader).find(className, constructor));
+        }
+    }
+
+    @Test
+    public void testDiskMemberDataStore(@TempDir Path directory) throws Throwable {
+        Constructor<Person> constructor = Person.class.getConstructor(String.class);
+        String className = FastConstructorGenerator.INSTANCE.generateClassName(constructor, false, 0);
+
+        byte[] bytes;
+        try (DiskMemberDataStore store = DiskMemberDataStore.open(directory)) {
+            assertNull(store.find(className, constructor));
+            FastMemberLoader memberLoader = new FastMemberLoader(FastMemberLoaderTest.class.getClassLoader(), store);
+            FastConstructor<Person> fc = FastConstructor.create(constructor, memberLoader, false);
+            assertEquals("Daniel", ((Person) fc.invoke("Daniel")).name);
+            bytes = store.find(className, constructor).getBytes();
+        }
+
+        // the record partially written is dropped
+        Files.write(indexFileOf(directory), new byte[] {0, 0, 0, 9, 1}, StandardOpenOption.APPEND);
+
+        try (DiskMemberDataStore store = DiskMemberDataStore.open(directory)) {
+            MemberData memberData = store.find(className, constructor);
+            assertNotNull(memberData);
+            assertArrayEquals(bytes, memberData.getBytes());
+            assertNull(store.find(FastConstructorGenerator.INSTANCE.generateClassName(constructor, true, 0), constructor));
+
+            CountingFastMemberLoader memberLoader = new CountingFastMemberLoader(store);
+            FastConstructor<Person> fc = FastConstructor.create(constructor, memberLoader, false);
+            assertEquals("Daniel", ((Person) fc.invoke("Daniel")).name);
+            assertEquals(className, fc.getClass().getName());
+
+            FastMethod fm = FastMethod.create(String.class.getMethod("startsWith", String.class), memberLoader, false);
+            assertEquals(true, fm.invoke("abc", "a"));
+            assertNotNull(store.find(fm.getClass().getName(), String.class.getMethod("startsWith", String.class)));
+        }
+    }
+
+    @Test
+    public void testDiskMemberDataStoreRotation(@TempDir Path directory) throws Throwable {
+        // written by another format, which is left as is
+        Path otherFormatFile = directory.resolve("members.idx");
+        Files.write(otherFormatFile, new byte[] {1, 2, 3});
+
+        Method startsWith = String.class.getMethod("startsWith", String.class);
+        Method endsWith = String.class.getMethod("endsWith", String.class);
+        try (DiskMemberDataStore store = DiskMemberDataStore.open(directory, 1)) {
+            FastMemberLoader memberLoader = new FastMemberLoader(FastMemberLoaderTest.class.getClassLoader(), store);
+            FastMethod startsWithFm = FastMethod.create(startsWith, memberLoader, false);
+            assertNotNull(store.find(startsWithFm.getClass().getName(), startsWith));
+            Path indexFile = indexFileOf(directory);
+
+            // the blob exceeds the maximum size, so rotate to the next generation
+            FastMethod endsWithFm = FastMethod.create(endsWith, memberLoader, false);
+            assertNotNull(store.find(endsWithFm.getClass().getName(), endsWith));
+            assertNull(store.find(startsWithFm.getClass().getName(), startsWith));
+            assertTrue(Files.notExists(indexFile));
+            assertNotEquals(indexFile, indexFileOf(directory));
+            assertEquals(true, startsWithFm.invoke("abc", "a"));
+        }
+
+        try (DiskMemberDataStore store = DiskMemberDataStore.open(directory)) {
+            assertNotNull(store.find(FastMethodGenerator.INSTANCE.generateClassName(endsWith, false, 0), endsWith));
+        }
+        assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(otherFormatFile));
+    }
+
+    private static Path indexFileOf(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(p -> p.getFileName().toString().matches("members-.+-\\d+\\.idx")).findAny().orElseThrow(AssertionError::new);
+        }
+    }
+
+    @Test
+    public void testStats() throws Throwable {
+        FastMemberLoader memberLoader = new FastMemberLoader();
+        FastMemberLoaderStats stats = new FastMemberLoaderStats();
+        memberLoader.setListener(stats);
+
+        Method startsWithMethod = String.class.getMethod("startsWith", String.class);
+        FastMethod.create(startsWithMethod, memberLoader, false);
+        FastMethod.create(startsWithMethod, memberLoader, false);
+        FastMethod.create(startsWithMethod, memberLoader, false);
+        FastField.create(Person.class.getField("name"), memberLoader, false);
+
+        assertEquals(2, stats.getHitCount());
+        assertEquals(3, stats.getMissCount());
+        assertEquals(3, stats.getGeneratedCount());
+        assertEquals(3, stats.getClassCount());
+        assertTrue(stats.getClassBytes() > 0);
+        assertTrue(stats.getGenerationNanos() > 0);
+        assertTrue(stats.getDefinitionNanos() > 0);
+        assertTrue(stats.getInitializationNanos() > 0);
+        assertEquals(0, stats.getFoundCount());
+
+        memberLoader.setListener(null);
+        FastMethod.create(startsWithMethod, memberLoader, false);
+        assertEquals(2, stats.getHitCount());
+    }
+
+    private static class CountingFastMemberLoader extends FastMemberLoader {
+        private final AtomicInteger loadCount = new AtomicInteger();
+
+        CountingFastMemberLoader(MemberDataStore... stores) {
+            super(FastMemberLoaderTest.class.getClassLoader(), stores);
+        }
+
+        @Override
+        public <T extends FastMember> T load(MemberData memberData) {
+            loadCount.incrementAndGet();
+            return super.load(memberData);
+        }
+    }
+}
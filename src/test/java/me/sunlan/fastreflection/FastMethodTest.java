@@ -20,6 +20,7 @@ package me.sunlan.fastreflection;
 
 import org.junit.jupiter.api.Test;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.AbstractList;
@@ -31,9 +32,18 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -171,4 +181,249 @@ public class FastMethodTest {
         String[] parts = version.split("\\.");
         return Integer.parseInt(parts[0]);
     }
+
+    @Test
+    public void testFixedArityInvoke() throws Throwable {
+        FastMethod length = FastMethod.create(String.class.getMethod("length"));
+        assertEquals(3, length.invoke0("abc"));
+
+        FastMethod startsWith = FastMethod.create(String.class.getMethod("startsWith", String.class));
+        assertEquals(true, startsWith.invoke1("abc", "a"));
+
+        FastMethod substring = FastMethod.create(String.class.getMethod("substring", int.class, int.class));
+        assertEquals("b", substring.invoke2("abc", 1, 2));
+
+        FastMethod valueOf = FastMethod.create(String.class.getMethod("valueOf", char[].class, int.class, int.class));
+        assertEquals("bc", valueOf.invoke3(null, "abc".toCharArray(), 1, 2));
+
+        FastMethod regionMatches = FastMethod.create(String.class.getMethod("regionMatches", boolean.class, int.class, String.class, int.class, int.class));
+        assertEquals(true, regionMatches.invoke5("abc", true, 1, "XBC", 1, 2));
+
+        // the arity mismatched falls back to the arguments array
+        assertEquals("b", substring.invoke("abc", 1, 2));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> substring.invoke1("abc", 1));
+
+        FastMethod lazyLength = Arrays.stream(FastClass.create(String.class).getMethods())
+                .filter(fm -> fm.getName().equals("length"))
+                .findAny()
+                .orElseThrow(() -> new AssertionError("method `length` not found"));
+        assertEquals(3, lazyLength.invoke0("abc"));
+    }
+
+    @Test
+    public void testPrimitiveInvoke() throws Throwable {
+        FastMethod length = FastMethod.create(String.class.getMethod("length"));
+        assertEquals(3, length.invokeAsInt("abc"));
+        assertEquals(3L, length.invokeAsLong("abc"));
+        assertEquals(3.0, length.invokeAsDouble("abc"));
+        // generated without boxing
+        assertEquals(int.class, length.getClass().getDeclaredMethod("invokeAsInt", Object.class).getReturnType());
+
+        FastMethod startsWith = FastMethod.create(String.class.getMethod("startsWith", String.class));
+        assertTrue(startsWith.invokeAsBoolean("abc", "a"));
+        assertThrows(ClassCastException.class, () -> startsWith.invokeAsInt("abc", "a"));
+
+        FastMethod charAt = FastMethod.create(String.class.getMethod("charAt", int.class));
+        assertEquals('b', charAt.invoke1("abc", 1));
+        assertEquals((int) 'b', charAt.invokeAsInt("abc", 1));
+        assertEquals(Object.class, charAt.getClass().getDeclaredMethod("invoke1", Object.class, int.class).getReturnType());
+
+        FastMethod toHexString = FastMethod.create(Long.class.getMethod("toHexString", long.class));
+        assertEquals("ff", toHexString.invoke1(null, 255));
+        assertEquals("ff", toHexString.invoke1(null, 255L));
+
+        FastMethod sqrt = FastMethod.create(Math.class.getMethod("sqrt", double.class));
+        assertEquals(2.0, sqrt.invokeAsDouble(null, 4.0));
+        assertEquals(2.0, sqrt.invoke1(null, 4));
+        assertThrows(ClassCastException.class, () -> sqrt.invokeAsLong(null, 4.0));
+
+        FastFieldGetter size = FastFieldGetter.create(Integer.class.getField("SIZE"));
+        assertEquals(32, size.invokeAsInt(null));
+    }
+
+    @Test
+    public void testDirectInvocation() throws Throwable {
+        // public members of public classes are invoked by plain bytecode, so no method handle is resolved
+        FastMethod startsWith = FastMethod.create(String.class.getMethod("startsWith", String.class));
+        assertFalse(hasMethodHandle(startsWith));
+        assertEquals(true, startsWith.invoke("abc", "ab"));
+
+        FastMethod size = FastMethod.create(Map.class.getMethod("size"));
+        assertFalse(hasMethodHandle(size));
+        assertEquals(1, size.invokeAsInt(Collections.singletonMap("a", "b")));
+
+        FastMethod max = FastMethod.create(Math.class.getMethod("max", long.class, long.class));
+        assertFalse(hasMethodHandle(max));
+        assertEquals(3L, max.invoke2(null, 1L, 3L));
+
+        FastMethod secret = FastMethod.create(FastMethodTest.class.getDeclaredMethod("secret", String.class), true);
+        assertTrue(hasMethodHandle(secret));
+        assertEquals("secret:a", secret.invoke1(null, "a"));
+    }
+
+    private static String secret(String s) {
+        return "secret:" + s;
+    }
+
+    private static boolean hasMethodHandle(FastMethod fm) {
+        return Arrays.stream(fm.getClass().getDeclaredFields()).anyMatch(f -> "METHOD_HANDLE".equals(f.getName()));
+    }
+
+    @Test
+    public void testAs() throws Throwable {
+        FastMethod length = FastMethod.create(String.class.getMethod("length"));
+        ToIntFunction<String> toIntFunction = length.as(ToIntFunction.class);
+        assertEquals(3, toIntFunction.applyAsInt("abc"));
+        assertSame(toIntFunction, length.as(ToIntFunction.class));
+        // widened to the return type of the functional method
+        ToLongFunction<String> toLongFunction = length.as(ToLongFunction.class);
+        assertEquals(3L, toLongFunction.applyAsLong("abc"));
+
+        FastMethod charAt = FastMethod.create(String.class.getMethod("charAt", int.class));
+        CharAt charAtFunction = charAt.as(CharAt.class);
+        assertEquals('b', charAtFunction.charAt("abc", 1));
+        BiFunction<String, Integer, Character> biFunction = charAt.as(BiFunction.class);
+        assertEquals(Character.valueOf('c'), biFunction.apply("abc", 2));
+
+        FastMethod max = FastMethod.create(Math.class.getMethod("max", long.class, long.class));
+        LongBinaryOperator longBinaryOperator = max.as(LongBinaryOperator.class);
+        assertEquals(5L, longBinaryOperator.applyAsLong(5L, 3L));
+
+        FastMethod secret = FastMethod.create(FastMethodTest.class.getDeclaredMethod("secret", String.class), true);
+        UnaryOperator<String> unaryOperator = secret.as(UnaryOperator.class, true);
+        assertEquals("secret:a", unaryOperator.apply("a"));
+
+        FastMethod clear = FastMethod.create(List.class.getMethod("clear"));
+        Consumer<List<?>> consumer = clear.as(Consumer.class);
+        List<String> list = new ArrayList<>(Arrays.asList("a", "b"));
+        consumer.accept(list);
+        assertTrue(list.isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> length.as(Runnable.class));
+        assertThrows(IllegalArgumentException.class, () -> length.as(List.class));
+        assertThrows(IllegalArgumentException.class, () -> charAt.as(IntUnaryOperator.class));
+        assertThrows(IllegalArgumentException.class, () -> max.as(IntBinaryOperator.class));
+    }
+
+    public interface CharAt {
+        char charAt(String str, int index);
+    }
+
+    @Test
+    public void testBindTo() throws Throwable {
+        FastMethod startsWith = FastMethod.create(String.class.getMethod("startsWith", String.class));
+        BoundFastMethod bound = startsWith.bindTo("abc");
+        assertSame(startsWith, bound.getMethod());
+        assertEquals(true, bound.call("ab"));
+        assertEquals(false, bound.call((Object) "bc"));
+        assertEquals(true, bound.call(new Object[]{"a"}));
+        assertEquals(true, startsWith.bindTo("abc", "a").call());
+
+        FastMethod substring = FastMethod.create(String.class.getMethod("substring", int.class, int.class));
+        BoundFastMethod boundSubstring = substring.bindTo("abcd", 1);
+        assertEquals("bc", boundSubstring.call(3));
+        assertEquals("b", boundSubstring.call(new Object[]{2}));
+
+        FastMethod max = FastMethod.create(Math.class.getMethod("max", long.class, long.class));
+        assertEquals(5L, max.bindTo(null, 5L).call(3L));
+
+        FastMethod secret = FastMethod.create(FastMethodTest.class.getDeclaredMethod("secret", String.class), true);
+        assertEquals("secret:a", secret.bindTo(null).call("a"));
+
+        assertThrows(IllegalArgumentException.class, () -> startsWith.bindTo(1));
+        assertEquals("bc", substring.bindTo("abcd", (short) 1).call('\3'));
+        assertThrows(IllegalArgumentException.class, () -> substring.bindTo("abcd", 1L));
+        assertThrows(IllegalArgumentException.class, () -> startsWith.bindTo("abc", 1));
+        assertThrows(IllegalArgumentException.class, () -> substring.bindTo("abc", (Object) null));
+        assertThrows(IllegalArgumentException.class, () -> startsWith.bindTo("abc", "a", "b"));
+    }
+
+    @Test
+    public void testBoundClassUnloaded() throws Throwable {
+        // the bound class holds the target object, so both are collected once the bound method becomes unreachable
+        WeakReference<?>[] references = bindSize();
+        for (int i = 0; i < 100 && (null != references[0].get() || null != references[1].get()); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(references[0].get());
+        assertNull(references[1].get());
+    }
+
+    private static WeakReference<?>[] bindSize() throws Throwable {
+        List<Integer> target = new ArrayList<>(Arrays.asList(1, 2));
+        BoundFastMethod bound = FastMethod.create(ArrayList.class.getMethod("size")).bindTo(target);
+        assertEquals(2, bound.call());
+        return new WeakReference<?>[]{new WeakReference<>(bound.getClass()), new WeakReference<>(target)};
+    }
+
+    @Test
+    public void testArgumentWidening() throws Throwable {
+        // the wrappers of narrower primitive types are accepted as `Method.invoke` does
+        FastMethod max = FastMethod.create(Math.class.getMethod("max", long.class, long.class));
+        assertEquals(3L, max.invoke(null, 1, 3L));
+        assertEquals(3L, max.invoke2(null, (short) 3, (byte) 1));
+        assertEquals((long) 'a', max.invoke(null, 'a', 1));
+
+        FastMethod sqrt = FastMethod.create(Math.class.getMethod("sqrt", double.class));
+        assertEquals(2.0, sqrt.invoke(null, 4));
+        assertEquals(2.0, sqrt.invoke1(null, 4.0f));
+        assertEquals(2.0, sqrt.invoke(null, 4L));
+
+        FastMethod charAt = FastMethod.create(String.class.getMethod("charAt", int.class));
+        assertEquals('b', charAt.invoke("abc", (byte) 1));
+        assertThrows(ClassCastException.class, () -> charAt.invoke("abc", 1L));
+        assertThrows(ClassCastException.class, () -> charAt.invoke("abc", "1"));
+        assertThrows(NullPointerException.class, () -> charAt.invoke("abc", (Object) null));
+
+        FastConstructor<StringBuilder> capacity = FastConstructor.create(StringBuilder.class.getConstructor(int.class));
+        assertEquals(16, ((StringBuilder) capacity.invoke((short) 16)).capacity());
+
+        FastField i = FastClass.create(FastFieldTest.Values.class).getField("i");
+        FastFieldTest.Values values = new FastFieldTest.Values();
+        i.set(values, 'a');
+        assertEquals('a', values.i);
+    }
+
+    @Test
+    public void testInvokeAll() throws Throwable {
+        Object[] receivers = {"a", "bb", "ccc"};
+        FastMethod length = FastMethod.create(String.class.getMethod("length"));
+        Object[] out = new Object[3];
+        length.invokeAll(receivers, out);
+        assertArrayEquals(new Object[]{1, 2, 3}, out);
+
+        long[] longs = new long[3];
+        length.invokeAllAsLong(receivers, 1, 3, longs);
+        assertArrayEquals(new long[]{0L, 2L, 3L}, longs);
+        // the loops are generated in a separate class on demand, so the class of the fast method stays small
+        assertTrue(Arrays.stream(length.getClass().getDeclaredMethods()).noneMatch(m -> m.getName().startsWith("invokeAll")));
+
+        FastMethod startsWith = FastMethod.create(String.class.getMethod("startsWith", String.class));
+        boolean[] booleans = new boolean[3];
+        startsWith.invokeAllAsBoolean(receivers, booleans, "b");
+        assertArrayEquals(new boolean[]{false, true, false}, booleans);
+        assertThrows(ClassCastException.class, () -> startsWith.invokeAllAsInt(receivers, new int[3], "b"));
+
+        List<Object> results = new ArrayList<>();
+        FastMethod concat = FastMethod.create(String.class.getMethod("concat", String.class));
+        concat.invokeAll(Arrays.asList(receivers), results::add, "!");
+        assertEquals(Arrays.asList("a!", "bb!", "ccc!"), results);
+
+        Object[] manyReceivers = new Object[5000];
+        Arrays.fill(manyReceivers, "abc");
+        Object[] manyOut = new Object[manyReceivers.length];
+        length.parallelInvokeAll(manyReceivers, manyOut);
+        assertTrue(Arrays.stream(manyOut).allMatch(r -> Integer.valueOf(3).equals(r)));
+
+        Object[] failingReceivers = {"a", null};
+        Object[] failingOut = new Object[2];
+        assertThrows(NullPointerException.class, () -> length.invokeAll(failingReceivers, failingOut));
+        assertEquals(1, failingOut[0]);
+
+        FastMethod secret = FastMethod.create(FastMethodTest.class.getDeclaredMethod("secret", String.class), true);
+        Object[] secrets = new Object[2];
+        secret.invokeAll(new Object[2], secrets, "abc");
+        assertArrayEquals(new Object[]{secret("abc"), secret("abc")}, secrets);
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package me.sunlan.fastreflection;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class HiddenFastMemberLoaderTest {
+    @Test
+    public void testInvokeMethod() throws Throwable {
+        assumeTrue(HiddenFastMemberLoader.isSupported());
+        HiddenFastMemberLoader memberLoader = new HiddenFastMemberLoader();
+        Method startsWithMethod = String.class.getMethod("startsWith", String.class);
+        FastMethod fm = FastMethod.create(startsWithMethod, memberLoader, false);
+        assertEquals(true, fm.invoke("abc", "a"));
+        assertEquals(false, fm.invoke("abc", "b"));
+        assertSame(fm, FastMethod.create(startsWithMethod, memberLoader, false));
+        // hidden classes are named as `<name>/<suffix>`
+        assertTrue(fm.getClass().getName().contains("/"), fm.getClass().getName());
+
+        FastMethod valueOf = FastMethod.create(String.class.getMethod("valueOf", int.class), memberLoader, false);
+        assertEquals("1", valueOf.invoke(null, 1));
+    }
+
+    @Test
+    public void testNewInstanceAndFields() throws Throwable {
+        assumeTrue(HiddenFastMemberLoader.isSupported());
+        HiddenFastMemberLoader memberLoader = new HiddenFastMemberLoader();
+        FastConstructor<Person> fc = FastConstructor.create(Person.class.getConstructor(String.class), memberLoader, false);
+        Person person = (Person) fc.invoke("Daniel");
+
+        FastField ff = FastField.create(Person.class.getField("name"), memberLoader, false);
+        assertEquals("Daniel", ff.get(person));
+        ff.set(person, "sunlan");
+        assertEquals("sunlan", person.name);
+    }
+
+    @Test
+    public void testSetAccessible() throws Throwable {
+        assumeTrue(HiddenFastMemberLoader.isSupported());
+        HiddenFastMemberLoader memberLoader = new HiddenFastMemberLoader();
+        Method secretMethod = HiddenFastMemberLoaderTest.class.getDeclaredMethod("secret", String.class);
+        assertThrows(FastInstantiationException.class, () -> FastMethod.create(secretMethod, memberLoader, false));
+
+        FastMethod fm = FastMethod.create(secretMethod, memberLoader, true);
+        assertEquals("secret: a", fm.invoke(null, "a"));
+        // the member passed in is left untouched
+        assertFalse(secretMethod.isAccessible());
+    }
+
+    private static String secret(String str) {
+        return "secret: " + str;
+    }
+
+    @Test
+    public void testStats() throws Throwable {
+        assumeTrue(HiddenFastMemberLoader.isSupported());
+        HiddenFastMemberLoader memberLoader = new HiddenFastMemberLoader();
+        FastMemberLoaderStats stats = new FastMemberLoaderStats();
+        memberLoader.setListener(stats);
+        Method startsWithMethod = String.class.getMethod("startsWith", String.class);
+        FastMethod fm = FastMethod.create(startsWithMethod, memberLoader, false);
+        assertSame(fm, FastMethod.create(startsWithMethod, memberLoader, false));
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getGeneratedCount());
+        assertEquals(1, stats.getClassCount());
+        assertTrue(stats.getClassBytes() > 0);
+    }
+}